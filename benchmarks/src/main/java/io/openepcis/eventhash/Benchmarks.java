@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the hashing pipeline with the GC profiler, to report the allocation rate
+ * next to the time of each stage. Accepts the command line options of JMH, e.g. a regular
+ * expression of the benchmarks to run: java -jar benchmarks/target/benchmarks.jar PreHash
+ */
+public class Benchmarks {
+
+  public static void main(final String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
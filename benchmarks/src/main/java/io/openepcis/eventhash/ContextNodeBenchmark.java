@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Building the ContextNode of an event from the parsed JSON ObjectNode, and from the XML document
+// through the SaxHandler, driven by a SAX parser or by the StAX based XmlEventReader.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextNodeBenchmark {
+
+  @Param({"SIMPLE", "SENSOR", "EXTENSION", "AGGREGATION_10K"})
+  Fixture fixture;
+
+  private ObjectNode event;
+  private Map<String, String> namespaces;
+  private byte[] xml;
+  private SAXParser saxParser;
+
+  @Setup
+  public void setup() throws Exception {
+    try (JsonEventReader reader = new JsonEventReader(new ByteArrayInputStream(fixture.json()))) {
+      event = reader.next();
+    }
+    namespaces = fixture.namespaces();
+    xml = fixture.xml();
+    final SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+    saxParser = factory.newSAXParser();
+  }
+
+  @Benchmark
+  public ContextNode fromObjectNode() {
+    return new ContextNode(event.fields(), namespaces);
+  }
+
+  @Benchmark
+  public void fromSax(final Blackhole blackhole) throws Exception {
+    final SaxHandler saxHandler = new SaxHandler();
+    saxHandler.setEventConsumer(blackhole::consume);
+    saxParser.parse(new ByteArrayInputStream(xml), saxHandler);
+  }
+
+  @Benchmark
+  public void fromStax(final Blackhole blackhole) throws IOException {
+    try (XmlEventReader reader = new XmlEventReader(new ByteArrayInputStream(xml))) {
+      reader.forEachRemaining(blackhole::consume);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Hash of an event with a user extension nested to the given depth. Uses the public API only, so
+// the benchmark can be run against earlier releases of the core to compare the canonicalisation of
+// deeply nested elements. Jackson rejects JSON nested deeper than 1000 levels by default, which
+// limits the deepest extension including the levels of the document.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeepExtensionBenchmark {
+
+  @Param({"10", "100", "900"})
+  int depth;
+
+  private final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+  private byte[] json;
+  private byte[] xml;
+
+  @Setup
+  public void setup() {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.epcs(1);
+    generator.extensions(1, depth);
+    json = generator.toByteArray(WorkloadGenerator.Format.JSON);
+    xml = generator.toByteArray(WorkloadGenerator.Format.XML);
+  }
+
+  @Benchmark
+  public List<String> fromJson() throws IOException {
+    return eventHashGenerator
+        .fromJson(new ByteArrayInputStream(json), "sha-256")
+        .collect()
+        .asList()
+        .await()
+        .indefinitely();
+  }
+
+  @Benchmark
+  public List<String> fromXml() {
+    return eventHashGenerator
+        .fromXml(new ByteArrayInputStream(xml), "sha-256")
+        .collect()
+        .asList()
+        .await()
+        .indefinitely();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Hash of the event of a document through the public API, from the bytes to the hash-id.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+  @Param({"SIMPLE", "SENSOR", "EXTENSION", "AGGREGATION_10K"})
+  Fixture fixture;
+
+  private final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+  private byte[] json;
+  private byte[] xml;
+
+  @Setup
+  public void setup() {
+    json = fixture.json();
+    xml = fixture.xml();
+  }
+
+  @Benchmark
+  public List<String> fromJson() throws IOException {
+    return eventHashGenerator
+        .fromJson(new ByteArrayInputStream(json), "sha-256")
+        .collect()
+        .asList()
+        .await()
+        .indefinitely();
+  }
+
+  @Benchmark
+  public List<String> fromXml() {
+    return eventHashGenerator
+        .fromXml(new ByteArrayInputStream(xml), "sha-256")
+        .collect()
+        .asList()
+        .await()
+        .indefinitely();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.constants.EPCIS;
+import io.openepcis.eventhash.workload.EventType;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Representative EPCIS documents with a single event, as JSON and as XML, used as parameter of the
+ * benchmarks.
+ */
+public enum Fixture {
+
+  /** ObjectEvent with the common standard fields. */
+  SIMPLE(generator -> generator.epcs(2)),
+
+  /** ObjectEvent with 20 sensor elements of 10 sensor reports each. */
+  SENSOR(
+      generator -> {
+        generator.epcs(1);
+        generator.sensors(20, 10);
+      }),
+
+  /** ObjectEvent with user extensions of 10 namespaces, nested 4 levels deep. */
+  EXTENSION(
+      generator -> {
+        generator.epcs(1);
+        generator.extensions(10, 4);
+      }),
+
+  /** AggregationEvent with 10,000 childEPCs. */
+  AGGREGATION_10K(
+      generator -> {
+        generator.eventMix(Map.of(EventType.AGGREGATION_EVENT, 1));
+        generator.epcs(10_000);
+      });
+
+  private final WorkloadGenerator generator = new WorkloadGenerator(0);
+
+  Fixture(final Consumer<WorkloadGenerator> settings) {
+    settings.accept(generator);
+  }
+
+  /**
+   * @return JSON EPCIS document with the event of this fixture
+   */
+  public byte[] json() {
+    return generator.toByteArray(WorkloadGenerator.Format.JSON);
+  }
+
+  /**
+   * @return XML EPCIS document with the event of this fixture
+   */
+  public byte[] xml() {
+    return generator.toByteArray(WorkloadGenerator.Format.XML);
+  }
+
+  /**
+   * @return namespaces of the @context of the document, as collected from the header of a JSON
+   *     document
+   */
+  public Map<String, String> namespaces() {
+    final Map<String, String> namespaces = new HashMap<>(generator.namespaces());
+    namespaces.put(EPCIS.CBV_MDA, EPCIS.CBV_MDA_URN);
+    namespaces.put(EPCIS.GS1, EPCIS.GS1_VOC_DOMAIN);
+    return namespaces;
+  }
+}
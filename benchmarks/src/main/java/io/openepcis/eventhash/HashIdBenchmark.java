@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.constants.CBVVersion;
+import java.io.ByteArrayInputStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Digest of the pre-hash string of an event with each supported hash algorithm.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashIdBenchmark {
+
+  @Param({"SIMPLE", "SENSOR", "EXTENSION", "AGGREGATION_10K"})
+  Fixture fixture;
+
+  @Param({
+    "sha-1",
+    "sha-224",
+    "sha-256",
+    "sha-384",
+    "sha-512",
+    "sha3-224",
+    "sha3-256",
+    "sha3-384",
+    "sha3-512",
+    "md2",
+    "md5"
+  })
+  String hashAlgorithm;
+
+  private String preHash;
+
+  @Setup
+  public void setup() throws Exception {
+    try (JsonEventReader reader = new JsonEventReader(new ByteArrayInputStream(fixture.json()))) {
+      final ObjectNode event = reader.next();
+      preHash =
+          new ContextNode(event.fields(), fixture.namespaces())
+              .toShortenedString(CBVVersion.VERSION_2_0_0);
+    }
+  }
+
+  @Benchmark
+  public String generateHashId() throws NoSuchAlgorithmException {
+    return HashIdGenerator.generateHashId(preHash, hashAlgorithm, CBVVersion.VERSION_2_0_0);
+  }
+}
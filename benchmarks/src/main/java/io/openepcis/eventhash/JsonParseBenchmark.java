@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Reading the events of a JSON document into ObjectNodes, from textual JSON and from the same
+// document encoded as CBOR or Smile.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParseBenchmark {
+
+  @Param({"SIMPLE", "SENSOR", "EXTENSION", "AGGREGATION_10K"})
+  Fixture fixture;
+
+  @Param({"JSON", "CBOR", "SMILE"})
+  JsonFormat format;
+
+  private byte[] document;
+
+  @Setup
+  public void setup() throws IOException {
+    document =
+        format == JsonFormat.JSON
+            ? fixture.json()
+            : new ObjectMapper(format.factory())
+                .writeValueAsBytes(new ObjectMapper().readTree(fixture.json()));
+  }
+
+  @Benchmark
+  public void parse(final Blackhole blackhole) throws IOException {
+    try (JsonEventReader reader = new JsonEventReader(new ByteArrayInputStream(document), format)) {
+      reader.forEachRemaining(blackhole::consume);
+    }
+  }
+}
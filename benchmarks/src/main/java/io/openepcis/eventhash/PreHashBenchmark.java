@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.constants.CBVVersion;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Generating the pre-hash string of an event for each CBV version. The children of the ContextNode
+// are sorted in place by toShortenedString, so every invocation builds a new ContextNode and the
+// result includes the time of ContextNodeBenchmark.fromObjectNode, which is subtracted to get the
+// time of the canonicalisation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreHashBenchmark {
+
+  @Param({"SIMPLE", "SENSOR", "EXTENSION", "AGGREGATION_10K"})
+  Fixture fixture;
+
+  @Param({"VERSION_2_0_0", "VERSION_2_1_0"})
+  CBVVersion cbvVersion;
+
+  private ObjectNode event;
+  private Map<String, String> namespaces;
+
+  @Setup
+  public void setup() throws Exception {
+    try (JsonEventReader reader = new JsonEventReader(new ByteArrayInputStream(fixture.json()))) {
+      event = reader.next();
+    }
+    namespaces = fixture.namespaces();
+  }
+
+  @Benchmark
+  public String toShortenedString() {
+    return new ContextNode(event.fields(), namespaces).toShortenedString(cbvVersion);
+  }
+}
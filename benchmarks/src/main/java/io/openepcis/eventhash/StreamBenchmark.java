@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+// Hash results of a synthetic document of the WorkloadGenerator with one million events, consumed
+// through the synchronous Stream API and through the reactive Multi API, to measure the overhead of
+// Mutiny per event.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamBenchmark {
+
+  @Param({"1000000"})
+  long events;
+
+  private final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+
+  @Benchmark
+  public long streamFromJson() throws IOException {
+    try (Stream<HashResult> results =
+        eventHashGenerator.streamFromJson(document(WorkloadGenerator.Format.JSON), "sha-256")) {
+      return results.count();
+    }
+  }
+
+  @Benchmark
+  public long multiFromJson() throws IOException {
+    return eventHashGenerator
+        .hashResultsFromJson(document(WorkloadGenerator.Format.JSON), "sha-256")
+        .collect()
+        .with(Collectors.counting())
+        .await()
+        .indefinitely();
+  }
+
+  @Benchmark
+  public long streamFromXml() {
+    try (Stream<HashResult> results =
+        eventHashGenerator.streamFromXml(document(WorkloadGenerator.Format.XML), "sha-256")) {
+      return results.count();
+    }
+  }
+
+  @Benchmark
+  public long multiFromXml() {
+    return eventHashGenerator
+        .hashResultsFromXml(document(WorkloadGenerator.Format.XML), "sha-256")
+        .collect()
+        .with(Collectors.counting())
+        .await()
+        .indefinitely();
+  }
+
+  private InputStream document(final WorkloadGenerator.Format format) {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(events);
+    return generator.inputStream(format);
+  }
+}
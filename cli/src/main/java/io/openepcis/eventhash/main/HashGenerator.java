@@ -15,8 +15,11 @@
  */
 package io.openepcis.eventhash.main;
 
+import io.openepcis.eventhash.ContentEncoding;
 import io.openepcis.eventhash.EventHashGenerator;
+import io.smallrye.mutiny.Multi;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -164,8 +167,9 @@ public class HashGenerator {
 
   private static void process(
       String path, CommandLine cmd, boolean batchMode, String[] hashAlgorithms) throws IOException {
+    // Compressed files such as events.xml.gz are hashed by the format of the decompressed file.
     final String type =
-        !cmd.hasOption("e") && path.toLowerCase().endsWith(".xml")
+        !cmd.hasOption("e") && ContentEncoding.stripExtension(path).toLowerCase().endsWith(".xml")
             ? TYPE_XML
             : cmd.hasOption("e") ? cmd.getOptionValue("e").toLowerCase() : TYPE_JSON;
 
@@ -175,11 +179,15 @@ public class HashGenerator {
           () -> {
             HttpEntity httpEntity = null;
             final Optional<Map<String, PrintStream>> printStreamMap =
-                createPrintWriterMap(path, batchMode, hashAlgorithms);
+                createPrintWriterMap(
+                    ContentEncoding.stripExtension(path), batchMode, hashAlgorithms);
             try (final CloseableHttpClient httpClient = HttpClients.createDefault()) {
               httpEntity = httpClient.execute(new HttpGet(path)).getEntity();
               runHashGenerator(
-                  type, httpEntity.getContent(), hashAlgorithms, createConsumer(printStreamMap));
+                  type,
+                  decompress(httpEntity.getContent(), path),
+                  hashAlgorithms,
+                  createConsumer(printStreamMap));
             } catch (IOException e) {
               throw new RuntimeException(e);
             } finally {
@@ -200,10 +208,19 @@ public class HashGenerator {
           EXECUTOR_SERVICE.execute(
               () -> {
                 final Optional<Map<String, PrintStream>> printStreamMap =
-                    createPrintWriterMap(f.getPath(), batchMode, hashAlgorithms);
+                    createPrintWriterMap(
+                        ContentEncoding.stripExtension(f.getPath()), batchMode, hashAlgorithms);
                 try {
-                  runHashGenerator(
-                      type, new FileInputStream(f), hashAlgorithms, createConsumer(printStreamMap));
+                  if (ContentEncoding.ofFileName(f.getName()) != null) {
+                    try (final InputStream document =
+                        decompress(new FileInputStream(f), f.getName())) {
+                      runHashGenerator(
+                          type, document, hashAlgorithms, createConsumer(printStreamMap));
+                    }
+                  } else {
+                    runHashGenerator(
+                        type, f.toPath(), hashAlgorithms, createConsumer(printStreamMap));
+                  }
                 } catch (IOException e) {
                   throw new RuntimeException(e);
                 } finally {
@@ -220,6 +237,14 @@ public class HashGenerator {
     }
   }
 
+  // Decompress .gz and .zst files on a separate thread while the decompressed chunks are parsed.
+  private static InputStream decompress(final InputStream inputStream, final String name) {
+    final String encoding = ContentEncoding.ofFileName(name);
+    return encoding == null
+        ? inputStream
+        : new ReadAheadInputStream(ContentEncoding.decode(inputStream, encoding), name);
+  }
+
   private static Optional<Map<String, PrintStream>> createPrintWriterMap(
       final String path, boolean batchMode, String[] hashAlgorithms) {
     try {
@@ -293,6 +318,24 @@ public class HashGenerator {
     }
   }
 
+  // Private method to generate the Hash IDs of a file, which is memory-mapped by the
+  // EventHashGenerator instead of being read through an InputStream.
+  private static void runHashGenerator(
+      final String type,
+      final Path path,
+      final String[] hashAlgorithms,
+      Consumer<? super Map<String, String>> consumer) {
+    try {
+      final Multi<Map<String, String>> hashes =
+          TYPE_XML.equals(type.toLowerCase())
+              ? createEventHashGenerator().fromXml(path, hashAlgorithms)
+              : createEventHashGenerator().fromJson(path, hashAlgorithms);
+      hashes.subscribe().with(consumer, HashGenerator::fail);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   // Private method to generate Hash IDs for the EPCIS in XML format.
   private static void xmlDocumentHashIdGenerator(
       final InputStream xmlStream,
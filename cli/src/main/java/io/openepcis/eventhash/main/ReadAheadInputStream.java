@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream which reads its source on a separate thread ahead of the reader, such as to
+ * decompress a file while the previous chunks are parsed. At most a fixed number of chunks are read
+ * ahead, so the memory in use does not depend on the size of the source.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int CHUNKS = 4;
+  private static final byte[] END = new byte[0];
+
+  private final InputStream source;
+  private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(CHUNKS);
+  private final Thread reader;
+  private volatile IOException failure;
+  private volatile boolean closed;
+
+  private byte[] chunk;
+  private int position;
+
+  ReadAheadInputStream(final InputStream source, final String name) {
+    this.source = source;
+    this.reader = new Thread(this::readAhead, "read-ahead " + name);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  // Read the source until its end or its first failure, which is thrown to the reader after the
+  // chunks read before. Decompressors report corrupt input with unchecked exceptions as well, such
+  // as the MalformedInputException of aircompressor. END is queued however the source ends, so the
+  // reader never waits for the finished thread.
+  private void readAhead() {
+    try {
+      byte[] next;
+      while ((next = source.readNBytes(CHUNK_SIZE)).length > 0) {
+        chunks.put(next);
+      }
+    } catch (IOException e) {
+      failure = e;
+    } catch (InterruptedException e) {
+      // closed by the reader
+    } catch (RuntimeException | Error e) {
+      failure = new IOException(e);
+    } finally {
+      try {
+        if (!closed) {
+          chunks.put(END);
+        }
+      } catch (InterruptedException e) {
+        // closed by the reader
+      }
+    }
+  }
+
+  // Take the next chunk once the current one is read, false at the end of the source.
+  private boolean fill() throws IOException {
+    while (chunk == null || position == chunk.length) {
+      if (chunk == END) {
+        if (failure != null) {
+          throw failure;
+        }
+        return false;
+      }
+      try {
+        chunk = chunks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? chunk[position++] & 0xff : -1;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    final int n = Math.min(len, chunk.length - position);
+    System.arraycopy(chunk, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return chunk != null ? chunk.length - position : 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    reader.interrupt();
+    source.close();
+  }
+}
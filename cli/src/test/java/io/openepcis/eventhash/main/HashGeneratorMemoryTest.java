@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.main;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.HeapMonitor;
+import io.openepcis.eventhash.SyntheticEpcisDocument;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the CLI hashes large documents from stdin within a small fixed maximum heap.
+// Run with: mvn test -Pmemory-tests [-Deventhash.memory.events=5000000]
+@Tag("memory")
+public class HashGeneratorMemoryTest {
+
+  @Test
+  public void xmlMemoryTest() throws Exception {
+    assertHashes("xml", SyntheticEpcisDocument.xml(HeapMonitor.EVENTS));
+  }
+
+  @Test
+  public void jsonMemoryTest() throws Exception {
+    assertHashes("json", SyntheticEpcisDocument.json(HeapMonitor.EVENTS));
+  }
+
+  // Run the CLI in a separate JVM which exits on OutOfMemoryError and hold back reading the hashes
+  // from stdout until the document is no longer read, so buffering would exhaust the heap.
+  private static void assertHashes(final String type, final SyntheticEpcisDocument document)
+      throws Exception {
+    final Process process =
+        new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + HeapMonitor.MAX_HEAP,
+                "-XX:+ExitOnOutOfMemoryError",
+                "-cp",
+                System.getProperty("java.class.path"),
+                HashGenerator.class.getName(),
+                "-e",
+                type,
+                "-")
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    final Thread writer =
+        new Thread(
+            () -> {
+              try (document;
+                  OutputStream stdin = process.getOutputStream()) {
+                document.transferTo(stdin);
+              } catch (IOException e) {
+                // the process terminated before reading the whole document, see its exit value
+              }
+            });
+    writer.start();
+
+    long hashes = 0;
+    try (BufferedReader stdout =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      if (stdout.readLine() != null) {
+        hashes++;
+        document.awaitIdle();
+      }
+      while (stdout.readLine() != null) {
+        hashes++;
+      }
+    }
+    writer.join();
+    assertEquals(0, process.waitFor());
+    assertEquals(HeapMonitor.EVENTS, hashes);
+  }
+}
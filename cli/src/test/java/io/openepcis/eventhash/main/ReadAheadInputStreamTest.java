@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.main;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the source is read ahead completely and its failures reach the reader.
+public class ReadAheadInputStreamTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @Test
+  public void readAheadTest() throws IOException {
+    final byte[] source = new byte[1_000_000];
+    new Random(7).nextBytes(source);
+    try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(source), "test")) {
+      assertArrayEquals(source, in.readAllBytes());
+    }
+  }
+
+  @Test
+  public void uncheckedFailureTest() {
+    // Decompressors such as aircompressor throw unchecked exceptions for corrupt input.
+    final InputStream corrupt =
+        new InputStream() {
+          private int read;
+
+          @Override
+          public int read() {
+            if (read++ == 100_000) {
+              throw new IllegalStateException("Malformed input");
+            }
+            return 'a';
+          }
+        };
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          try (InputStream in = new ReadAheadInputStream(corrupt, "corrupt")) {
+            final IOException e = assertThrows(IOException.class, in::readAllBytes);
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+          }
+        });
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.eventhash.exception.AdmissionException;
+import io.smallrye.mutiny.Multi;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control of the documents hashed by the REST and servlet endpoints. A document is
+ * admitted only while the documents in flight are below the limits of:
+ *
+ * <ul>
+ *   <li>documents: number of documents in flight
+ *   <li>bytes: bytes read by the documents in flight
+ *   <li>events: events hashed by the documents in flight
+ * </ul>
+ *
+ * <p>Documents over the limits are rejected with an AdmissionException before their first byte is
+ * read, so the endpoints respond immediately instead of accepting more documents than the heap can
+ * hold. The limits are unlimited by default. A document is in flight from its admission until the
+ * Multi of its hashes terminates or is cancelled.
+ */
+public class AdmissionController {
+
+  private static final AdmissionController DEFAULT = new AdmissionController();
+
+  private volatile int maxDocuments = Integer.MAX_VALUE;
+  private volatile long maxBytes = Long.MAX_VALUE;
+  private volatile long maxEvents = Long.MAX_VALUE;
+  private volatile Duration retryAfter = Duration.ofSeconds(1);
+
+  private final AtomicInteger documents = new AtomicInteger();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong events = new AtomicLong();
+
+  /**
+   * @return admission controller shared by the endpoints of the application
+   */
+  public static AdmissionController getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Method used to define the maximum number of documents in flight.
+   *
+   * @param maxDocuments maximum number of documents in flight, default unlimited
+   */
+  public void maxDocuments(final int maxDocuments) {
+    this.maxDocuments = maxDocuments;
+  }
+
+  /**
+   * Method used to define the maximum number of bytes read by the documents in flight. A document
+   * is admitted while the documents in flight have read less bytes, so a single document may exceed
+   * the limit.
+   *
+   * @param maxBytes maximum number of bytes read by the documents in flight, default unlimited
+   */
+  public void maxBytes(final long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Method used to define the maximum number of events hashed by the documents in flight. A
+   * document is admitted while the documents in flight have hashed less events.
+   *
+   * @param maxEvents maximum number of events hashed by the documents in flight, default unlimited
+   */
+  public void maxEvents(final long maxEvents) {
+    this.maxEvents = maxEvents;
+  }
+
+  /**
+   * Method used to define the time after which rejected clients may retry their request.
+   *
+   * @param retryAfter time sent as Retry-After of rejected requests, default 1 second
+   */
+  public void retryAfter(final Duration retryAfter) {
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return number of documents in flight
+   */
+  public int documents() {
+    return documents.get();
+  }
+
+  /**
+   * @return bytes read by the documents in flight
+   */
+  public long bytes() {
+    return bytes.get();
+  }
+
+  /**
+   * @return events hashed by the documents in flight
+   */
+  public long events() {
+    return events.get();
+  }
+
+  /**
+   * @return true if no further document is admitted
+   */
+  public boolean saturated() {
+    return documents.get() >= maxDocuments || bytes.get() >= maxBytes || events.get() >= maxEvents;
+  }
+
+  /**
+   * Method used to reject a request immediately if no further document is admitted, such as before
+   * a request with several documents is read.
+   *
+   * @throws AdmissionException if no further document is admitted
+   */
+  public void check() {
+    if (saturated()) {
+      throw rejected();
+    }
+  }
+
+  /**
+   * Method used to admit a document which is read by the caller, such as a document fed to a {@link
+   * JsonHashFeeder}. The caller counts the bytes read and the events hashed with the returned
+   * InFlight and releases it when the document is complete or fails.
+   *
+   * @return document in flight until it is released
+   * @throws AdmissionException if the document is not admitted
+   */
+  public InFlight admit() {
+    if (documents.incrementAndGet() > maxDocuments
+        || bytes.get() >= maxBytes
+        || events.get() >= maxEvents) {
+      documents.decrementAndGet();
+      throw rejected();
+    }
+    return new InFlight();
+  }
+
+  /**
+   * Method used to admit a document. The bytes read from the document and the hashed events are
+   * counted while the document is in flight, and released when the returned Multi terminates or is
+   * cancelled. The returned Multi must be subscribed, otherwise the document remains in flight.
+   *
+   * @param document EPCIS document or event list of the request
+   * @param hashing hash generation from the counted document
+   * @return Multi of the hash generation which releases the document
+   * @param <T> type of the results
+   * @throws AdmissionException if the document is not admitted
+   * @throws IOException if the hash generation cannot read the document
+   */
+  public <T> Multi<T> admit(final InputStream document, final EventHashMetrics.Hashing<T> hashing)
+      throws IOException {
+    final InFlight inFlight = admit();
+    final Multi<T> results;
+    try {
+      results = hashing.apply(new Admitted(document, inFlight));
+    } catch (IOException | RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
+    return results.onItem().invoke(inFlight::hashed).onTermination().invoke(inFlight::release);
+  }
+
+  private AdmissionException rejected() {
+    return new AdmissionException(
+        "Too many documents in flight, retry after " + retryAfter.toSeconds() + " seconds",
+        retryAfter);
+  }
+
+  /**
+   * Document admitted by an AdmissionController, which is in flight until it is released. The
+   * counts are updated under the lock of the document, so nothing is counted after its release.
+   */
+  public final class InFlight {
+
+    private boolean released;
+    private long read;
+    private long events;
+
+    private InFlight() {}
+
+    /**
+     * Method used to count the bytes read from the document. Bytes read after the release, such as
+     * by a cancelled hash generation, are not counted.
+     *
+     * @param n number of bytes read
+     */
+    public synchronized void read(final long n) {
+      if (!released) {
+        read += n;
+        bytes.addAndGet(n);
+      }
+    }
+
+    /** Method used to count an event hashed from the document. */
+    public synchronized void hashed() {
+      if (!released) {
+        events++;
+        AdmissionController.this.events.incrementAndGet();
+      }
+    }
+
+    /** Method used to release the document, further calls have no effect. */
+    public synchronized void release() {
+      if (!released) {
+        released = true;
+        documents.decrementAndGet();
+        bytes.addAndGet(-read);
+        AdmissionController.this.events.addAndGet(-events);
+      }
+    }
+  }
+
+  // Document in flight, which counts the bytes read by the hash generation from a single thread.
+  private static final class Admitted extends FilterInputStream {
+
+    private final InFlight inFlight;
+
+    private Admitted(final InputStream in, final InFlight inFlight) {
+      super(in);
+      this.inFlight = inFlight;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        inFlight.read(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int n = super.read(b, off, len);
+      if (n > 0) {
+        inFlight.read(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      inFlight.read(skipped);
+      return skipped;
+    }
+  }
+}
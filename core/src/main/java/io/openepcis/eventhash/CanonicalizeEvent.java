@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.constants.CBVVersion;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for creating the pre-hash string of an EPCIS event from its ContextNode, including the
+ * sorting and formatting of the fields.
+ */
+@Name("io.openepcis.eventhash.Canonicalize")
+@Label("Canonicalize EPCIS Event")
+@Category({"OpenEPCIS", "Event Hash"})
+@Description("Creation of the pre-hash string of an EPCIS event")
+@StackTrace(false)
+final class CanonicalizeEvent extends Event {
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("CBV Version")
+  String cbvVersion;
+
+  @Label("Node Count")
+  @Description("Number of fields, array elements and EPCs of the event")
+  int nodeCount;
+
+  @Label("Pre-Hash Length")
+  @Description("Number of characters of the pre-hash string")
+  long preHashLength;
+
+  void commit(final ContextNode node, final CBVVersion cbvVersion, final String preHashString) {
+    if (shouldCommit()) {
+      eventType = node.eventType();
+      this.cbvVersion = cbvVersion.name();
+      nodeCount = node.nodeCount();
+      preHashLength = preHashString.length();
+      commit();
+    }
+  }
+}
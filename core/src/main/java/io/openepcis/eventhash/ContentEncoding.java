@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.openepcis.eventhash.exception.EventHashException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streaming decompression of compressed documents in front of the parsers of the
+ * EventHashGenerator, for the HTTP Content-Encoding of a request body or the file extension of a
+ * compressed file. Documents are decompressed with fixed buffers while they are parsed, so the
+ * memory in use does not depend on the size of the document.
+ *
+ * <p>Supported are the encodings gzip, deflate and zstd. The decoders are created on the first read
+ * of the document, so a request body can be wrapped before its first byte arrives.
+ */
+public final class ContentEncoding {
+
+  public static final String GZIP = "gzip";
+  public static final String DEFLATE = "deflate";
+  public static final String ZSTD = "zstd";
+  public static final String IDENTITY = "identity";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private ContentEncoding() {}
+
+  /**
+   * @param contentEncoding value of the Content-Encoding header, may be null
+   * @return true if all the encodings of the header are supported
+   */
+  public static boolean isSupported(final String contentEncoding) {
+    if (contentEncoding == null) {
+      return true;
+    }
+    for (final String encoding : contentEncoding.split(",")) {
+      if (!isSupportedEncoding(normalize(encoding))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param contentEncoding value of the Content-Encoding header, may be null
+   * @return true if the document is encoded by other than the identity encoding
+   */
+  public static boolean isEncoded(final String contentEncoding) {
+    if (contentEncoding == null) {
+      return false;
+    }
+    for (final String encoding : contentEncoding.split(",")) {
+      final String normalized = normalize(encoding);
+      if (!normalized.isEmpty() && !IDENTITY.equals(normalized)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Method used to decode a document with the encodings of the Content-Encoding header, which are
+   * listed in the order they were applied.
+   *
+   * @param document encoded document
+   * @param contentEncoding value of the Content-Encoding header, the document is returned as is if
+   *     null or identity
+   * @return stream of the decoded document
+   * @throws EventHashException if an encoding is not supported
+   */
+  public static InputStream decode(final InputStream document, final String contentEncoding) {
+    if (!isEncoded(contentEncoding)) {
+      return document;
+    }
+    final String[] encodings = contentEncoding.split(",");
+    InputStream decoded = document;
+    for (int i = encodings.length - 1; i >= 0; i--) {
+      final String encoding = normalize(encodings[i]);
+      if (!isSupportedEncoding(encoding)) {
+        throw new EventHashException("unsupported content encoding: " + encodings[i].trim());
+      }
+      if (!encoding.isEmpty() && !IDENTITY.equals(encoding)) {
+        decoded = new Decoder(decoded, encoding);
+      }
+    }
+    return decoded;
+  }
+
+  /**
+   * @param fileName name or URL of a file
+   * @return encoding of the file by its extension .gz or .zst, null if it is not compressed
+   */
+  public static String ofFileName(final String fileName) {
+    final String name = fileName.toLowerCase(Locale.ROOT);
+    if (name.endsWith(".gz")) {
+      return GZIP;
+    } else if (name.endsWith(".zst")) {
+      return ZSTD;
+    }
+    return null;
+  }
+
+  /**
+   * @param fileName name or URL of a file
+   * @return name of the file without the extension of its encoding, such as events.xml for
+   *     events.xml.gz
+   */
+  public static String stripExtension(final String fileName) {
+    final String encoding = ofFileName(fileName);
+    if (encoding == null) {
+      return fileName;
+    }
+    return fileName.substring(0, fileName.length() - (GZIP.equals(encoding) ? 3 : 4));
+  }
+
+  private static String normalize(final String encoding) {
+    final String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+    return "x-gzip".equals(normalized) ? GZIP : normalized;
+  }
+
+  private static boolean isSupportedEncoding(final String encoding) {
+    return encoding.isEmpty()
+        || IDENTITY.equals(encoding)
+        || GZIP.equals(encoding)
+        || DEFLATE.equals(encoding)
+        || ZSTD.equals(encoding);
+  }
+
+  // Decoder created on the first read, as GZIPInputStream reads the gzip header on construction.
+  private static final class Decoder extends InputStream {
+
+    private final InputStream encoded;
+    private final String encoding;
+    private InputStream decoded;
+
+    private Decoder(final InputStream encoded, final String encoding) {
+      this.encoded = encoded;
+      this.encoding = encoding;
+    }
+
+    private InputStream decoded() throws IOException {
+      if (decoded == null) {
+        decoded =
+            switch (encoding) {
+              case GZIP -> new GZIPInputStream(encoded, BUFFER_SIZE);
+              case DEFLATE -> inflate(encoded);
+              default -> new ZstdInputStream(encoded);
+            };
+      }
+      return decoded;
+    }
+
+    // The Inflater of the zlib format is ended with the stream, as it is not the default Inflater.
+    private static InputStream inflate(final InputStream encoded) {
+      final Inflater inflater = new Inflater();
+      return new InflaterInputStream(encoded, inflater, BUFFER_SIZE) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            inflater.end();
+          }
+        }
+      };
+    }
+
+    @Override
+    public int read() throws IOException {
+      return decoded().read();
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      return decoded().read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return decoded != null ? decoded.available() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (decoded != null) {
+        decoded.close();
+      } else {
+        encoded.close();
+      }
+    }
+  }
+}
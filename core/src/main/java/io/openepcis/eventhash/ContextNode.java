@@ -22,11 +22,11 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import io.openepcis.constants.CBVVersion;
 import io.openepcis.constants.EPCIS;
 import io.openepcis.eventhash.constant.ConstantEventHashInfo;
+import io.openepcis.eventhash.exception.EventHashException;
+import io.openepcis.identifiers.converter.util.ConverterUtil;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
-
-import io.openepcis.identifiers.converter.util.ConverterUtil;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -47,6 +47,13 @@ public class ContextNode {
   protected ContextNode parent;
   protected Map<String, String> namespaces;
 
+  // Compact storage of the EPCs of epcList, childEPCs, inputEPCList and outputEPCList instead of
+  // one child node per EPC.
+  protected EpcList epcs;
+
+  // The eventID of the event, which is not part of the pre-hash string but kept for the HashResult.
+  protected String eventId;
+
   // Constructor 1: To store the simple event field information such as type, eventTime, bizStep.
   public ContextNode(final ContextNode parent, final String name, final String value) {
     this.parent = parent;
@@ -61,26 +68,90 @@ public class ContextNode {
       final ContextNode parent,
       final String name,
       final Iterator<Map.Entry<String, JsonNode>> fields) {
-    this(fields, parent.namespaces);
-    this.parent = parent;
-    this.name = name;
+    this(parent, name, (String) null);
+    populate(JsonFrame.ofFields(this, fields), defaultEpcListSpillThreshold());
   }
 
   // Constructor 3: To store the objects contains within array such as SourceList, DestinationList.
   public ContextNode(final ContextNode parent, final Iterator<Map.Entry<String, JsonNode>> fields) {
-    this(fields, parent.namespaces);
-    this.parent = parent;
-    this.namespaces = parent.namespaces;
+    this(parent, null, fields);
   }
 
   // Constructor 4: To store the complex field which has elements within Array such as epcList,
   // childEPCs.
   public ContextNode(final ContextNode parent, final String name, final ArrayNode node) {
-    this.parent = parent;
-    this.name = name;
-    this.namespaces = parent.namespaces;
-    final Iterator<JsonNode> iterator = node.elements();
+    this(parent, name, (String) null);
+    final int epcListSpillThreshold = defaultEpcListSpillThreshold();
+    final Deque<JsonFrame> stack = new ArrayDeque<>();
+    addArray(node, stack, epcListSpillThreshold);
+    populate(stack, epcListSpillThreshold);
+  }
 
+  // Method to build the children of the nodes from the JSON fields and arrays. Nested objects and
+  // arrays are added with an explicit stack instead of recursive constructor calls, so deeply
+  // nested user extensions do not end in a StackOverflowError. EPC lists with more EPCs than the
+  // spill threshold are sorted in chunks on disk.
+  private static void populate(final JsonFrame frame, final int epcListSpillThreshold) {
+    final Deque<JsonFrame> stack = new ArrayDeque<>();
+    stack.push(frame);
+    populate(stack, epcListSpillThreshold);
+  }
+
+  private static void populate(final Deque<JsonFrame> stack, final int epcListSpillThreshold) {
+    while (!stack.isEmpty()) {
+      final JsonFrame frame = stack.pop();
+      if (frame.fields != null) {
+        frame.node.addFields(frame.fields, stack, epcListSpillThreshold);
+      } else {
+        frame.node.addElements(frame.elements, stack, epcListSpillThreshold);
+      }
+    }
+  }
+
+  // Spill threshold of the EPC lists of nodes which are not created by an EventHashGenerator.
+  private static int defaultEpcListSpillThreshold() {
+    return ConstantEventHashInfo.getContext().getEpcListSpillThreshold();
+  }
+
+  // Add the values of the array to this node, the nested objects and arrays are added to the stack.
+  private void addArray(
+      final ArrayNode node, final Deque<JsonFrame> stack, final int epcListSpillThreshold) {
+    // EPC lists of the event contain only the instance identifiers, so store them in compact form.
+    if (isCompactEpcList(parent, name, node)) {
+      epcs = new EpcList(node.size(), epcListSpillThreshold);
+      node.elements().forEachRemaining(n -> epcs.add(n.textValue()));
+    } else {
+      stack.push(JsonFrame.ofElements(this, node.elements()));
+    }
+  }
+
+  // Add a child with the values of the array, the values are added once the child is taken from
+  // the stack.
+  private void addArrayChild(
+      final String name,
+      final ArrayNode node,
+      final Deque<JsonFrame> stack,
+      final int epcListSpillThreshold) {
+    final ContextNode child = new ContextNode(this, name, (String) null);
+    child.addArray(node, stack, epcListSpillThreshold);
+    children.add(child);
+  }
+
+  // Add a child with the fields of the object, the fields are added once the child is taken from
+  // the stack.
+  private void addObjectChild(
+      final String name,
+      final Iterator<Map.Entry<String, JsonNode>> fields,
+      final Deque<JsonFrame> stack) {
+    final ContextNode child = new ContextNode(this, name, (String) null);
+    stack.push(JsonFrame.ofFields(child, fields));
+    children.add(child);
+  }
+
+  private void addElements(
+      final Iterator<JsonNode> iterator,
+      final Deque<JsonFrame> stack,
+      final int epcListSpillThreshold) {
     // For event fields with values in Array, loop over the array and add the elements one by one to
     // child based on type of value.
     while (iterator.hasNext()) {
@@ -94,22 +165,99 @@ public class ContextNode {
         children.add(new ContextNode(this, name, n.asText()));
       } else if (n.isArray()) {
         // If the array contains another array then add the values as arrayNode.
-        final ArrayNode arrayNode = (ArrayNode) n;
-        children.add(new ContextNode(this, name, arrayNode));
+        addArrayChild(name, (ArrayNode) n, stack, epcListSpillThreshold);
       } else if (n.isObject() && LIST_OF_OBJECTS.containsKey(name)) {
         // Omit storing the key twice during array of objects iteration, instead add the
         // corresponding string.
-        children.add(new ContextNode(this, LIST_OF_OBJECTS.get(name), n.fields()));
+        addObjectChild(LIST_OF_OBJECTS.get(name), n.fields(), stack);
       } else if (n.isObject() && EXCLUDE_LINE_BREAK.contains(name)) {
         // Omit storing the key twice during array of objects iteration and also do not add any
         // additional string.
-        children.add(new ContextNode(this, n.fields()));
-      } else if (n.isObject()) {
-        // For extensions include the name
-        children.add(new ContextNode(this, name, n.fields()));
+        addObjectChild(null, n.fields(), stack);
       } else {
-        // If the array contains again fields then get the fields and add it.
-        children.add(new ContextNode(this, name, n.fields()));
+        // For extensions include the name. If the array contains again fields then get the fields
+        // and add it.
+        addObjectChild(name, n.fields(), stack);
+      }
+    }
+  }
+
+  // Check if the array is an EPC list directly within the event which contains only text values.
+  private static boolean isCompactEpcList(
+      final ContextNode parent, final String name, final ArrayNode node) {
+    if (parent.getParent() != null
+        || parent.getName() != null
+        || node.isEmpty()
+        || !EPC_LISTS.contains(name)) {
+      return false;
+    }
+    for (final JsonNode n : node) {
+      if (!n.isTextual()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Method to add an EPC to the compact EPC list, used during the reading of the EPCIS XML
+  // document.
+  void addEpc(final String epc, final int epcListSpillThreshold) {
+    if (epcs == null) {
+      epcs = new EpcList(0, epcListSpillThreshold);
+    }
+    epcs.add(epc);
+  }
+
+  // Method to convert the compact EPC list back into one child node per EPC. Used if the list
+  // contains other elements than the plain EPCs, so they are handled by the generic engine.
+  void inflateEpcs() {
+    if (epcs != null) {
+      epcs.forEachSorted(epc -> children.add(new ContextNode(this, EPCIS.EPC, epc)));
+      epcs.close();
+      epcs = null;
+    }
+  }
+
+  // Method to return the number of nodes of this subtree, with the EPCs of compact EPC lists.
+  int nodeCount() {
+    int count = 0;
+    final Deque<ContextNode> stack = new ArrayDeque<>();
+    stack.push(this);
+    while (!stack.isEmpty()) {
+      final ContextNode node = stack.pop();
+      count += 1 + (node.epcs != null ? node.epcs.size() : 0);
+      node.children.forEach(stack::push);
+    }
+    return count;
+  }
+
+  // Method to return the type of the event such as ObjectEvent.
+  String eventType() {
+    for (final ContextNode child : children) {
+      if (EPCIS.TYPE.equals(child.getName())) {
+        return child.getValue();
+      }
+    }
+    return null;
+  }
+
+  // Method to return the EPC lists of the event which are spilled to temporary files, mapped by
+  // their placeholder within the pre-hash string.
+  Map<String, ContextNode> spilledEpcLists() {
+    final Map<String, ContextNode> spilled = new HashMap<>();
+    for (final ContextNode child : children) {
+      if (child.epcs != null && child.epcs.isSpilled()) {
+        spilled.put(child.epcs.placeholder(), child);
+      }
+    }
+    return spilled;
+  }
+
+  // Method to remove the temporary files of the spilled EPC lists of the event.
+  void closeEpcLists() {
+    for (final ContextNode child : children) {
+      if (child.epcs != null) {
+        child.epcs.close();
       }
     }
   }
@@ -118,8 +266,22 @@ public class ContextNode {
   // values
   public ContextNode(
       final Iterator<Map.Entry<String, JsonNode>> fields, final Map<String, String> namespaces) {
+    this(fields, namespaces, defaultEpcListSpillThreshold());
+  }
+
+  // Constructor called by the EventHashGenerator with its spill threshold of the EPC lists.
+  ContextNode(
+      final Iterator<Map.Entry<String, JsonNode>> fields,
+      final Map<String, String> namespaces,
+      final int epcListSpillThreshold) {
     this.namespaces = namespaces;
+    populate(JsonFrame.ofFields(this, fields), epcListSpillThreshold);
+  }
 
+  private void addFields(
+      final Iterator<Map.Entry<String, JsonNode>> fields,
+      final Deque<JsonFrame> stack,
+      final int epcListSpillThreshold) {
     while (fields.hasNext()) {
       var n = fields.next();
 
@@ -133,14 +295,13 @@ public class ContextNode {
       if (n.getValue().isValueNode() && !n.getValue().isArray()) {
         children.add(new ContextNode(this, n.getKey(), n.getValue().asText()));
       } else if (n.getValue().isArray()) {
-        // For event fields with values in Array, convert them to ArrayNode then add the array to
-        // children by calling Constructor 3. Eg: epcList, childEPCs, etc.
-        final ArrayNode arrayNode = (ArrayNode) n.getValue();
-        children.add(new ContextNode(this, n.getKey(), arrayNode));
+        // For event fields with values in Array, add the array elements to children. Eg: epcList,
+        // childEPCs, etc.
+        addArrayChild(n.getKey(), (ArrayNode) n.getValue(), stack, epcListSpillThreshold);
       } else if (!n.getKey().equals(EPCIS.ERROR_DECLARATION)) {
         // For all other fields which may have complex structure, add the field values from it to
-        // children by calling Constructor 2. Eg: readPoint, etc. but skip errorDeclaration
-        children.add(new ContextNode(this, n.getKey(), n.getValue().fields()));
+        // children. Eg: readPoint, etc. but skip errorDeclaration
+        addObjectChild(n.getKey(), n.getValue().fields(), stack);
       }
     }
   }
@@ -162,23 +323,206 @@ public class ContextNode {
   // Method called by the external application after completion of converting the JSON/XML documents
   // into ContextNode.
   public String toShortenedString(final CBVVersion cbvVersion) {
+    return toShortenedString(cbvVersion, true);
+  }
+
+  // Method called by the external application after completion of converting the JSON/XML documents
+  // into ContextNode. If specialized is false then the generic engine is used for all the fields.
+  public String toShortenedString(final CBVVersion cbvVersion, final boolean specialized) {
+    return toShortenedString(
+        cbvVersion, specialized, ConstantEventHashInfo.getContext().getMaxDepth());
+  }
+
+  // Method called by the EventHashGenerator with its maximum depth of the nested elements.
+  String toShortenedString(
+      final CBVVersion cbvVersion, final boolean specialized, final int maxDepth) {
+    checkDepth(maxDepth);
+    return preHashString(cbvVersion, specialized, null);
+  }
+
+  private String preHashString(
+      final CBVVersion cbvVersion,
+      final boolean specialized,
+      final Map<ContextNode, String> sharedFields) {
+    // Use the specialized canonicalizer for the well known top level fields of the event type if
+    // available.
+    final EventTypeCanonicalizer canonicalizer =
+        specialized ? EventTypeCanonicalizer.forEvent(this) : null;
+    final String epcisFields =
+        canonicalizer != null
+            ? canonicalizer.epcisFields(this, cbvVersion, sharedFields)
+            : epcisFieldsPreHashBuilder(cbvVersion);
+
     // For CBV 2.0: Add all the EPCIS standard fields to pre-hash string first then add all the
     // users extensions
     // field that can appear anywhere with event and append the created string to pre-hash string.
     if (CBVVersion.VERSION_2_0_0.equals(cbvVersion)) {
-      return (epcisFieldsPreHashBuilder(cbvVersion)
-              + String.join("", userExtensionsPreHashBuilder(cbvVersion)))
-          .trim();
+      return (epcisFields + String.join("", userExtensionsPreHashBuilder(cbvVersion))).trim();
     } else {
       // For CBV 2.1: User Extensions that are part of standard fields are included within the
       // respective field
-      return epcisFieldsPreHashBuilder(cbvVersion).trim();
+      return epcisFields.trim();
     }
   }
 
-  // Private method to return the Strings from well known EPCIS fields/attributes of EPCIS event
-  // such as type, eventTime, bizStep etc. by omitting the User-Extensions.
-  private String epcisFieldsPreHashBuilder(final CBVVersion cbvVersion) {
+  // Method to create the pre-hash strings for several CBV versions from the same ContextNode, so
+  // the event needs to be read only once. Sorting changes the order of the children and the
+  // pre-hash string depends on the order of equally sorted children, therefore the original order
+  // is restored before creating the pre-hash string of every further CBV version. The top level
+  // EPCIS fields whose pre-hash string does not depend on the CBV version, such as the EPC lists,
+  // are sorted and formatted only once by the specialized canonicalizer and reused.
+  Map<CBVVersion, String> toShortenedStrings(
+      final List<CBVVersion> cbvVersions, final boolean specialized, final int maxDepth) {
+    checkDepth(maxDepth);
+    final Map<CBVVersion, String> preHashStrings = new LinkedHashMap<>();
+    final Map<ContextNode, List<ContextNode>> childOrder =
+        cbvVersions.size() > 1 ? childOrder() : Map.of();
+    final Map<ContextNode, String> sharedFields = new IdentityHashMap<>();
+
+    for (final CBVVersion cbvVersion : cbvVersions) {
+      if (!preHashStrings.isEmpty()) {
+        childOrder.forEach((node, order) -> Collections.copy(node.children, order));
+      }
+      preHashStrings.put(cbvVersion, preHashString(cbvVersion, specialized, sharedFields));
+    }
+    return preHashStrings;
+  }
+
+  // Method to return a copy of the children of all nodes with more than one child.
+  private Map<ContextNode, List<ContextNode>> childOrder() {
+    final Map<ContextNode, List<ContextNode>> childOrder = new IdentityHashMap<>();
+    final Deque<ContextNode> nodes = new ArrayDeque<>();
+    nodes.push(this);
+
+    while (!nodes.isEmpty()) {
+      final ContextNode node = nodes.pop();
+      if (node.children.size() > 1) {
+        childOrder.put(node, new ArrayList<>(node.children));
+      }
+      node.children.forEach(nodes::push);
+    }
+    return childOrder;
+  }
+
+  // Method to check if the pre-hash string of this field is the same for all CBV versions. The CBV
+  // versions differ only in the user extensions within the EPCIS fields and in the
+  // sensorElementList.
+  boolean isCbvVersionIndependent() {
+    final Deque<ContextNode> nodes = new ArrayDeque<>();
+    nodes.push(this);
+
+    while (!nodes.isEmpty()) {
+      final ContextNode node = nodes.pop();
+      if (node.getName() != null
+          && (EPCIS.SENSOR_ELEMENT_LIST.equals(node.getName())
+              || !TemplateNodeMap.isEpcisField(node))) {
+        return false;
+      }
+      node.children.forEach(nodes::push);
+    }
+    return true;
+  }
+
+  // Method to check the depth of the nested elements before creating the pre-hash string, so
+  // sorting and formatting never run on unreasonably deep structures.
+  private void checkDepth(final int maxDepth) {
+    final Deque<ContextNode> nodes = new ArrayDeque<>();
+    final Deque<Integer> depths = new ArrayDeque<>();
+    nodes.push(this);
+    depths.push(0);
+
+    while (!nodes.isEmpty()) {
+      final ContextNode node = nodes.pop();
+      final int depth = depths.pop();
+      if (depth > maxDepth) {
+        throw new EventHashException(
+            "EPCIS event exceeds the maximum depth of " + maxDepth + " nested elements");
+      }
+      for (final ContextNode child : node.children) {
+        nodes.push(child);
+        depths.push(depth + 1);
+      }
+    }
+  }
+
+  // Method to return the Strings from well known EPCIS fields/attributes of EPCIS event such as
+  // type, eventTime, bizStep etc. by omitting the User-Extensions.
+  String epcisFieldsPreHashBuilder(final CBVVersion cbvVersion) {
+    return preHashBuilder(false, cbvVersion);
+  }
+
+  // Method to create the pre-hash string of this node and all its children. Instead of recursion
+  // an explicit stack is used, so deeply nested user extensions cannot end in a StackOverflowError.
+  // All children write directly into a single StringBuilder.
+  private String preHashBuilder(final boolean userExtensions, final CBVVersion cbvVersion) {
+    final StringBuilder sb = new StringBuilder();
+    final Deque<PreHashFrame> stack = new ArrayDeque<>();
+    startPreHash(userExtensions, cbvVersion, sb, stack);
+
+    while (!stack.isEmpty()) {
+      final PreHashFrame frame = stack.peek();
+      if (frame.index < frame.node.children.size()) {
+        final ContextNode node = frame.node.children.get(frame.index++);
+        final int start = sb.length();
+
+        // Within the EPCIS fields the User Extensions of CBV 2.1 are added with their formatting,
+        // within User Extensions all children are User Extensions.
+        final boolean childUserExtensions =
+            frame.userExtensions
+                || (node.getName() != null
+                    && !TemplateNodeMap.isEpcisField(node)
+                    && CBVVersion.VERSION_2_1_0.equals(cbvVersion));
+
+        // Add the line break after the child if it added any value to the pre-hash string. For
+        // complex children this is done after all their children are completed.
+        if (!node.startPreHash(childUserExtensions, cbvVersion, sb, stack) && sb.length() > start) {
+          sb.append("\n");
+        }
+      } else {
+        stack.pop();
+        if (!stack.isEmpty() && sb.length() > frame.start) {
+          sb.append("\n");
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  // Method to add this node to the pre-hash string. Simple fields are added directly and false is
+  // returned. For complex fields the field name is added, the children are sorted and a new frame
+  // is pushed to the stack, so the children are added subsequently.
+  private boolean startPreHash(
+      final boolean userExtensions,
+      final CBVVersion cbvVersion,
+      final StringBuilder sb,
+      final Deque<PreHashFrame> stack) {
+    final int start = sb.length();
+    if (userExtensions) {
+      if (!userExtensionsPreHash(cbvVersion, sb)) {
+        return false;
+      }
+      // Sort the children elements within the complex user extensions.
+      this.sort(false);
+    } else {
+      if (!epcisFieldsPreHash(cbvVersion, sb)) {
+        return false;
+      }
+      // If child values are present then sort them according to event hash requirement
+      this.sort(true);
+    }
+    stack.push(new PreHashFrame(this, userExtensions, start));
+    return true;
+  }
+
+  // Method to add the EPCIS field to the pre-hash string. Returns true if the field is complex and
+  // the children still need to be added.
+  private boolean epcisFieldsPreHash(final CBVVersion cbvVersion, final StringBuilder sb) {
+    // EPC lists stored in compact form are sorted and formatted in bulk.
+    if (epcs != null) {
+      sb.append(epcs.preHash(getName(), this));
+      return false;
+    }
+
     // Check if the elements are of root elements and do not contain the children elements. If the
     // element is part of EPCIS standard fields then append to pre-hash string.
     if (children.isEmpty()
@@ -188,50 +532,67 @@ public class ContextNode {
       // If the elements are EPCIS event root fields then directly append them to the pre-hash
       // string by formatting.
 
-      // Create the string for the attributes. If present append all attributes according EPCIS
-      // standard. Used mainly for XML document.
-      final StringBuilder preHashBuilder = new StringBuilder();
-
       // For ILMD fields make call to userExtensions formatter and for all other fields make call to
       // normal field formatter.
       if (Boolean.TRUE.equals(isIlmdPath(this))) {
-        preHashBuilder.append(userExtensionsFormatter(name, value, namespaces));
+        sb.append(userExtensionsFormatter(name, value, namespaces));
       } else {
         // Add the values for direct name and value based on the field
-        preHashBuilder.append(epcisFieldFormatter(getName(), getValue(), this));
+        sb.append(epcisFieldFormatter(getName(), getValue(), this));
       }
-
-      return preHashBuilder.toString();
+      return false;
     } else if (children.isEmpty()
         && getName() != null
         && getValue() != null
         && !TemplateNodeMap.isEpcisField(this)
         && CBVVersion.VERSION_2_1_0.equals(cbvVersion)) {
-      return userExtensionsFormatter(this.getName(), this.getValue(), this.getNamespaces());
-    } else {
-      final StringBuilder sb = new StringBuilder();
+      sb.append(userExtensionsFormatter(this.getName(), this.getValue(), this.getNamespaces()));
+      return false;
+    }
 
-      // Call the function to add the EPCIS field name for children elements
-      sb.append(fieldName(this, cbvVersion));
+    // Call the function to add the EPCIS field name for children elements
+    sb.append(fieldName(this, cbvVersion));
+    return true;
+  }
 
-      // If child values are present then sort them according to event hash requirement
-      this.sort(true);
+  // Frame of the explicit stack used during the creation of the pre-hash string.
+  private static final class PreHashFrame {
+    private final ContextNode node;
+    private final boolean userExtensions;
+    // Length of the pre-hash string before this node was added.
+    private final int start;
+    private int index;
+
+    private PreHashFrame(final ContextNode node, final boolean userExtensions, final int start) {
+      this.node = node;
+      this.userExtensions = userExtensions;
+      this.start = start;
+    }
+  }
 
-      // After sorting the child values loop through each of them and add values to pre-hash string
-      for (ContextNode node : children) {
-        String s = "";
-        if (node.getName() != null
-            && !TemplateNodeMap.isEpcisField(node)
-            && CBVVersion.VERSION_2_1_0.equals(cbvVersion)) {
-          s = node.userExtensionsPreHashBuilder(cbvVersion);
-        } else {
-          s = node.epcisFieldsPreHashBuilder(cbvVersion);
-        }
-        if (!s.isEmpty()) {
-          sb.append(s).append("\n");
-        }
-      }
-      return sb.toString();
+  // Frame of the explicit stack used during the creation of the nodes from JSON, holds either the
+  // fields of an object or the elements of an array which still need to be added to the node.
+  private static final class JsonFrame {
+    private final ContextNode node;
+    private final Iterator<Map.Entry<String, JsonNode>> fields;
+    private final Iterator<JsonNode> elements;
+
+    private JsonFrame(
+        final ContextNode node,
+        final Iterator<Map.Entry<String, JsonNode>> fields,
+        final Iterator<JsonNode> elements) {
+      this.node = node;
+      this.fields = fields;
+      this.elements = elements;
+    }
+
+    private static JsonFrame ofFields(
+        final ContextNode node, final Iterator<Map.Entry<String, JsonNode>> fields) {
+      return new JsonFrame(node, fields, null);
+    }
+
+    private static JsonFrame ofElements(final ContextNode node, final Iterator<JsonNode> elements) {
+      return new JsonFrame(node, null, elements);
     }
   }
 
@@ -304,12 +665,19 @@ public class ContextNode {
     return parentFieldName;
   }
 
-  // Private method to return the List of Strings contains the  user-defined extensions in required
+  // Method to return the List of Strings contains the  user-defined extensions in required
   // pre-hash format.
-  private String userExtensionsPreHashBuilder(final CBVVersion cbvVersion) {
-    // Create a string and append the values when the provided value is empty i.e. for complex
-    // structures.
-    StringBuilder sb = new StringBuilder();
+  String userExtensionsPreHashBuilder(final CBVVersion cbvVersion) {
+    return preHashBuilder(true, cbvVersion);
+  }
+
+  // Method to add the user extension to the pre-hash string. Returns true if the extension is
+  // complex and the children still need to be added.
+  private boolean userExtensionsPreHash(final CBVVersion cbvVersion, final StringBuilder sb) {
+    // EPC lists contain only EPCIS standard fields and never any user extensions.
+    if (epcs != null) {
+      return false;
+    }
 
     // Check for the fields which are not part of EPCIS standard fields and add them to the list
     if (children.isEmpty()
@@ -320,34 +688,24 @@ public class ContextNode {
         && !findParent(this).equalsIgnoreCase(EPCIS.CONTEXT)) {
       // Add information related to direct name and value based fields. Then if attributes are
       // present then call the method to format them.
-      return userExtensionsFormatter(name, value, namespaces) + "\n";
-    } else {
-
-      if (getName() != null
-          && (!getName().equals(EPCIS.SENSOR_ELEMENT_LIST)
-              || CBVVersion.VERSION_2_1_0.equals(cbvVersion))
-          && (!TemplateNodeMap.isEpcisField(this) || TemplateNodeMap.addExtensionWrapperTag(this))
-          && !ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().contains(getName())
-          && !findParent(this).equalsIgnoreCase(EPCIS.CONTEXT)
-          && (getName().equals(EPCIS.SENSOR_ELEMENT)
-              || (!children.isEmpty()
-                  && children.get(0).getName() != null
-                  && !getName().equals(getChildren().get(0).getName())
-                  && !getChildren().get(0).getName().equalsIgnoreCase(EPCIS.SENSOR_REPORT)))) {
-        sb.append(userExtensionsFormatter(getName(), getValue(), namespaces));
-      }
-
-      // Sort the children elements within the complex user extensions.
-      this.sort(false);
+      sb.append(userExtensionsFormatter(name, value, namespaces)).append("\n");
+      return false;
+    }
 
-      for (ContextNode node : children) {
-        final String childExtension = node.userExtensionsPreHashBuilder(cbvVersion);
-        if (!childExtension.isEmpty()) {
-          sb.append(childExtension).append("\n");
-        }
-      }
-      return sb.toString();
+    if (getName() != null
+        && (!getName().equals(EPCIS.SENSOR_ELEMENT_LIST)
+            || CBVVersion.VERSION_2_1_0.equals(cbvVersion))
+        && (!TemplateNodeMap.isEpcisField(this) || TemplateNodeMap.addExtensionWrapperTag(this))
+        && !ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().contains(getName())
+        && !findParent(this).equalsIgnoreCase(EPCIS.CONTEXT)
+        && (getName().equals(EPCIS.SENSOR_ELEMENT)
+            || (!children.isEmpty()
+                && children.get(0).getName() != null
+                && !getName().equals(getChildren().get(0).getName())
+                && !getChildren().get(0).getName().equalsIgnoreCase(EPCIS.SENSOR_REPORT)))) {
+      sb.append(userExtensionsFormatter(getName(), getValue(), namespaces));
     }
+    return true;
   }
 
   // Event value formatter method to format the EPCIS event fields as per the event hash requirement
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for the digest of a pre-hash string with a hash algorithm. */
+@Name("io.openepcis.eventhash.Digest")
+@Label("Digest Pre-Hash String")
+@Category({"OpenEPCIS", "Event Hash"})
+@Description("Digest of the pre-hash string of an EPCIS event")
+@StackTrace(false)
+final class DigestEvent extends Event {
+
+  @Label("Hash Algorithm")
+  String algorithm;
+
+  @Label("Digested Bytes")
+  @DataAmount(DataAmount.BYTES)
+  long digestedBytes;
+
+  void commit(final String algorithm, final long digestedBytes) {
+    if (shouldCommit()) {
+      this.algorithm = algorithm;
+      this.digestedBytes = digestedBytes;
+      commit();
+    }
+  }
+}
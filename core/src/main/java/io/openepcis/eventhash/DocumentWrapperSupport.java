@@ -31,6 +31,14 @@ import java.time.temporal.ChronoUnit;
 import lombok.RequiredArgsConstructor;
 import org.eclipse.microprofile.context.ManagedExecutor;
 
+/**
+ * Wraps a JSON array of EPCIS events into an EPCIS document.
+ *
+ * @deprecated the events are re-serialized and parsed again from a pipe filled by another thread,
+ *     use {@link EventHashGenerator#fromJsonEventList(InputStream, String...)} which reads the
+ *     events directly from the array.
+ */
+@Deprecated
 @Singleton
 @RequiredArgsConstructor
 public class DocumentWrapperSupport {
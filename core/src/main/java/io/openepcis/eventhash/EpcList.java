@@ -0,0 +1,372 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.constants.EPCIS;
+import io.openepcis.eventhash.exception.EventHashException;
+import java.io.*;
+import java.lang.ref.Cleaner;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Compact storage for the instance identifiers of epcList, childEPCs, inputEPCList and
+ * outputEPCList. Instead of creating one ContextNode per EPC the values are kept within a single
+ * String array, sorted with a plain string sort and converted to the pre-hash format in bulk.
+ *
+ * <p>Lists larger than the configured spill threshold are not kept in memory. Every chunk of EPCs
+ * is sorted and written to a temporary file, and the sorted chunks are merged while the pre-hash
+ * string is streamed into the digest.
+ */
+final class EpcList implements Closeable {
+
+  // Lists with at least this number of EPCs are sorted and formatted in parallel.
+  static final int PARALLEL_THRESHOLD = 8192;
+
+  // Marks the position of a spilled EPC list within the pre-hash string.
+  static final char PLACEHOLDER = '\uFFFF';
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private final int spillThreshold;
+  private String[] values;
+  private int size;
+
+  // Sorted chunks written to temporary files, only present once the list exceeded the threshold.
+  private SpilledRuns runs;
+  private Cleaner.Cleanable cleanable;
+  private String placeholder;
+
+  // Pre-hash string of the list, which does not depend on the CBV version and is reused if the
+  // pre-hash string is created for several CBV versions.
+  private String preHash;
+
+  EpcList(final int capacity, final int spillThreshold) {
+    this.spillThreshold = Math.max(1, spillThreshold);
+    this.values = new String[Math.min(Math.max(capacity, INITIAL_CAPACITY), spillThreshold)];
+  }
+
+  void add(final String value) {
+    preHash = null;
+    if (size >= spillThreshold) {
+      spill();
+    } else if (size == values.length) {
+      values = Arrays.copyOf(values, (int) Math.min(size + (size >> 1) + 1L, spillThreshold));
+    }
+    values[size++] = value;
+  }
+
+  int size() {
+    return size + (runs != null ? runs.count : 0);
+  }
+
+  boolean isSpilled() {
+    return runs != null;
+  }
+
+  /**
+   * Create the pre-hash string of the EPC list, identical to the string created by ContextNode for
+   * a list with one child node per EPC: the name of the list followed by all formatted EPCs sorted
+   * by their original value. For a spilled list only a placeholder is added instead of the EPCs,
+   * which are written later on by {@link #writePreHash(ContextNode, Consumer)}.
+   *
+   * @param name name of the list such as epcList or childEPCs
+   * @param owner ContextNode holding this list, used for the formatting of the EPCs
+   * @return pre-hash string of the EPC list
+   */
+  String preHash(final String name, final ContextNode owner) {
+    if (isSpilled()) {
+      return name + "\n" + placeholder();
+    }
+    if (preHash != null) {
+      return preHash;
+    }
+
+    final boolean parallel = size >= PARALLEL_THRESHOLD;
+
+    // HashNodeComparator orders the EPCs of a list by their value, so a plain string sort results
+    // in the same order.
+    sort(parallel);
+
+    // Convert all URN and short name values to the Web URI format.
+    final String[] formatted = new String[size];
+    final IntFunction<String> formatter = i -> format(values[i], owner);
+    if (parallel) {
+      Arrays.parallelSetAll(formatted, formatter);
+    } else {
+      Arrays.setAll(formatted, formatter);
+    }
+
+    int length = name.length() + 1;
+    for (final String epc : formatted) {
+      length += (epc != null ? epc.length() : 4) + 1;
+    }
+
+    final StringBuilder sb = new StringBuilder(length);
+    sb.append(name).append("\n");
+    for (final String epc : formatted) {
+      sb.append(epc).append("\n");
+    }
+    preHash = sb.toString();
+    return preHash;
+  }
+
+  /**
+   * Write the formatted EPCs of a spilled list line by line to the provided consumer, in the same
+   * order and format as {@link #preHash(String, ContextNode)} would create them.
+   *
+   * @param owner ContextNode holding this list, used for the formatting of the EPCs
+   * @param out consumer receiving the pre-hash string of the EPCs
+   */
+  void writePreHash(final ContextNode owner, final Consumer<String> out) {
+    forEachSorted(epc -> out.accept(format(epc, owner) + "\n"));
+  }
+
+  /**
+   * Call the action for every EPC of the list in sorted order. For spilled lists the sorted chunks
+   * are merged from the temporary files.
+   *
+   * @param action action to be called for every EPC
+   */
+  void forEachSorted(final Consumer<String> action) {
+    sort(size >= PARALLEL_THRESHOLD);
+    if (!isSpilled()) {
+      for (int i = 0; i < size; i++) {
+        action.accept(values[i]);
+      }
+      return;
+    }
+
+    // k-way merge of the sorted chunks, the EPCs still held in memory act as the last chunk.
+    final List<RunReader> readers = new ArrayList<>();
+    try {
+      final PriorityQueue<RunReader> queue =
+          new PriorityQueue<>(Comparator.comparing(RunReader::current));
+      for (final Path run : runs.files) {
+        final RunReader reader = new FileRunReader(run);
+        readers.add(reader);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+      final RunReader memory = new MemoryRunReader(values, size);
+      if (memory.next()) {
+        queue.add(memory);
+      }
+
+      while (!queue.isEmpty()) {
+        final RunReader reader = queue.poll();
+        action.accept(reader.current());
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+    } catch (IOException e) {
+      throw new EventHashException(
+          "Exception occurred during reading of spilled EPC list : " + e.getMessage(), e);
+    } finally {
+      for (final RunReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  // Unique placeholder for this list within the pre-hash string.
+  String placeholder() {
+    if (placeholder == null) {
+      placeholder = PLACEHOLDER + "epcs-" + SEQUENCE.incrementAndGet() + PLACEHOLDER;
+    }
+    return placeholder;
+  }
+
+  /**
+   * Replace the placeholders of spilled EPC lists within the pre-hash string with their EPCs and
+   * pass the resulting pre-hash string piece by piece to the consumer.
+   *
+   * @param preHash pre-hash string containing the placeholders
+   * @param spilled ContextNodes holding the spilled EPC lists mapped by their placeholder
+   * @param out consumer receiving the pre-hash string
+   */
+  static void expand(
+      final String preHash, final Map<String, ContextNode> spilled, final Consumer<String> out) {
+    int from = 0;
+    int start = preHash.indexOf(PLACEHOLDER);
+    while (start >= 0) {
+      final int end = preHash.indexOf(PLACEHOLDER, start + 1);
+      if (end < 0) {
+        break;
+      }
+      final ContextNode node = spilled.get(preHash.substring(start, end + 1));
+      if (node != null) {
+        out.accept(preHash.substring(from, start));
+        node.getEpcs().writePreHash(node, out);
+        from = end + 1;
+        start = preHash.indexOf(PLACEHOLDER, from);
+      } else {
+        start = end;
+      }
+    }
+    out.accept(preHash.substring(from));
+  }
+
+  // Remove the temporary files of a spilled list.
+  @Override
+  public void close() {
+    if (cleanable != null) {
+      cleanable.clean();
+    }
+  }
+
+  private String format(final String epc, final ContextNode owner) {
+    return owner.epcisFieldFormatter(EPCIS.EPC, epc, owner);
+  }
+
+  private void sort(final boolean parallel) {
+    if (parallel) {
+      Arrays.parallelSort(values, 0, size);
+    } else {
+      Arrays.sort(values, 0, size);
+    }
+  }
+
+  // Sort the EPCs held in memory and write them as next chunk to a temporary file.
+  private void spill() {
+    if (runs == null) {
+      runs = new SpilledRuns();
+      cleanable = CLEANER.register(this, runs);
+    }
+    sort(size >= PARALLEL_THRESHOLD);
+    try {
+      final Path run = Files.createTempFile("openepcis-epcs-", ".run");
+      runs.files.add(run);
+      try (final DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+          final byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        }
+      }
+    } catch (IOException e) {
+      throw new EventHashException(
+          "Exception occurred during spilling of EPC list : " + e.getMessage(), e);
+    }
+    runs.count += size;
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  // Temporary files of a spilled list. Registered with the Cleaner, so the files are removed as
+  // well if the list is never closed.
+  private static final class SpilledRuns implements Runnable {
+    private final List<Path> files = new ArrayList<>();
+    private int count;
+
+    @Override
+    public void run() {
+      for (final Path file : files) {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException e) {
+          file.toFile().deleteOnExit();
+        }
+      }
+      files.clear();
+    }
+  }
+
+  private interface RunReader extends Closeable {
+    boolean next() throws IOException;
+
+    String current();
+
+    @Override
+    void close();
+  }
+
+  private static final class MemoryRunReader implements RunReader {
+    private final String[] values;
+    private final int size;
+    private int index = -1;
+
+    private MemoryRunReader(final String[] values, final int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    public boolean next() {
+      return ++index < size;
+    }
+
+    @Override
+    public String current() {
+      return values[index];
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  }
+
+  private static final class FileRunReader implements RunReader {
+    private final DataInputStream in;
+    private int remaining;
+    private String current;
+
+    private FileRunReader(final Path run) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+      this.remaining = in.readInt();
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      final byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      current = new String(bytes, StandardCharsets.UTF_8);
+      return true;
+    }
+
+    @Override
+    public String current() {
+      return current;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        // ignore, the file is removed when the list is closed
+      }
+    }
+  }
+}
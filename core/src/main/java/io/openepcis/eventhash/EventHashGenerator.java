@@ -17,35 +17,48 @@ package io.openepcis.eventhash;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import io.openepcis.constants.CBVVersion;
 import io.openepcis.constants.EPCIS;
 import io.openepcis.eventhash.constant.ConstantEventHashInfo;
 import io.openepcis.eventhash.exception.EventHashException;
-import io.openepcis.reactive.publisher.ObjectNodePublisher;
 import io.smallrye.mutiny.Multi;
-import io.smallrye.mutiny.subscription.MultiEmitter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
-import javax.xml.parsers.SAXParserFactory;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 @Slf4j
 public class EventHashGenerator {
-  private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
   private String prehashJoin = "";
   private final CBVVersion cbvVersion;
-
-  static {
-    try {
-      SAX_PARSER_FACTORY.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-    } catch (Exception e) {
-      log.error(e.getMessage(), e);
-    }
-  }
+  private boolean specializedCanonicalization = true;
+  private boolean dualCbvVersion;
+  private ObjLongConsumer<CBVVersion> canonicalizationListener;
+  private EventHashMemo memo;
+  private JsonFormat jsonFormat = JsonFormat.JSON;
+  private int epcListSpillThreshold = ConstantEventHashInfo.getContext().getEpcListSpillThreshold();
+  private int maxDepth = ConstantEventHashInfo.getContext().getMaxDepth();
 
   /** Default constructor which generates the pre-hash string based on CBV 2.0 */
   public EventHashGenerator() {
@@ -61,10 +74,111 @@ public class EventHashGenerator {
     this.cbvVersion = cbvVersion != null ? cbvVersion : CBVVersion.VERSION_2_0_0;
   }
 
+  /**
+   * @return CBV version based on which the pre-hash string is generated
+   */
+  public CBVVersion cbvVersion() {
+    return cbvVersion;
+  }
+
   public void prehashJoin(final String s) {
     prehashJoin = s.replace("\\n", "\n").replace("\\r", "\r");
   }
 
+  /**
+   * Method used to enable or disable the specialized canonicalization of the well known EPCIS event
+   * fields. If disabled then the generic engine is used for all the fields of the event.
+   *
+   * @param enabled true to use the specialized canonicalizer per event type, default true
+   */
+  public void specializedCanonicalization(final boolean enabled) {
+    this.specializedCanonicalization = enabled;
+  }
+
+  /**
+   * Method used to generate the hashes for CBV 2.0 and CBV 2.1 from a single read of every event.
+   * The hashes of the CBV version provided during construction are returned with the hash algorithm
+   * as key, the hashes of the other CBV version with the hash algorithm and the version suffix of
+   * the Hash-ID as key such as sha-256?ver=CBV2.1. Only supported by the methods which return the
+   * hashes as Map.
+   *
+   * @param enabled true to generate the hashes of both CBV versions, default false
+   */
+  public void dualCbvVersion(final boolean enabled) {
+    this.dualCbvVersion = enabled;
+  }
+
+  /**
+   * Method used to observe the canonicalization of every event, such as to record its latency as
+   * metric. The listener is called from the thread which generates the hashes.
+   *
+   * @param listener called with the CBV version and the nanoseconds taken to create the pre-hash
+   *     string of an event, or null to remove the listener
+   */
+  public void canonicalizationListener(final ObjLongConsumer<CBVVersion> listener) {
+    this.canonicalizationListener = listener;
+  }
+
+  /**
+   * Method used to read the documents of the JSON methods in a binary encoding of JSON, such as
+   * CBOR or Smile sent by internal producers. The events create the same hashes as in textual JSON.
+   * Not supported by the methods which read a Reader and by the non-blocking feeders.
+   *
+   * @param format encoding of the JSON documents, default JsonFormat.JSON
+   */
+  public void jsonFormat(final JsonFormat format) {
+    this.jsonFormat = format != null ? format : JsonFormat.JSON;
+  }
+
+  /**
+   * Method used to memoize the hashes of repeated events, such as repeated observations of the same
+   * reader which only differ in eventID and recordTime. Events are looked up by a fingerprint of
+   * their fields besides the fields excluded from the pre-hash string and verified field by field,
+   * so repeated events are neither canonicalized nor hashed again. XML events with EPC lists which
+   * are spilled to temporary files are always hashed.
+   *
+   * @param maxEvents maximum number of memoized events, the least recently used events are evicted,
+   *     0 to disable the memo which is the default
+   */
+  public void eventMemoization(final int maxEvents) {
+    this.memo = maxEvents > 0 ? new EventHashMemo(maxEvents) : null;
+  }
+
+  /**
+   * @return number of events whose hashes were taken from the memo since it was enabled
+   */
+  public long memoHits() {
+    return memo != null ? memo.hits() : 0;
+  }
+
+  /**
+   * @return number of events which were hashed with the memo enabled as they were not memoized
+   */
+  public long memoMisses() {
+    return memo != null ? memo.misses() : 0;
+  }
+
+  /**
+   * Method used to define the number of EPCs of an epcList, childEPCs, inputEPCList or
+   * outputEPCList which are held in memory. Larger lists are sorted in chunks which are written to
+   * temporary files and merged while the pre-hash string is streamed into the digest.
+   *
+   * @param threshold maximum number of EPCs per list held in memory, default unlimited
+   */
+  public void epcListSpillThreshold(final int threshold) {
+    this.epcListSpillThreshold = threshold;
+  }
+
+  /**
+   * Method used to define the maximum depth of nested elements within an EPCIS event. Events with
+   * deeper nested elements such as user extensions are rejected with an EventHashException.
+   *
+   * @param maxDepth maximum depth of nested elements, default 1024
+   */
+  public void maxDepth(final int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
   /**
    * Method used to populate custom fields that needs to be ignored during the pre-hash generation
    *
@@ -151,7 +265,207 @@ public class EventHashGenerator {
     return fromJson(jsonStream, new HashMap<>(), hashAlgorithms);
   }
 
-  private void addToContextHeader(final ObjectNode item, final Map<String, String> contextHeader) {
+  /**
+   * Generate reactive Multi stream of event hashes from a JSON file. The file is memory-mapped and
+   * read by the parser without an additional input stream buffer.
+   *
+   * @param jsonFile JSON file
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Multi<String> fromJson(final Path jsonFile, final String hashAlgorithm)
+      throws IOException {
+    return internalFromJson(
+        String.class, new JsonEventReader(mapped(jsonFile), jsonFormat), hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from a JSON file. The file is memory-mapped and
+   * read by the parser without an additional input stream buffer.
+   *
+   * @param jsonFile JSON file
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the JSON file
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Multi<Map<String, String>> fromJson(final Path jsonFile, final String... hashAlgorithms)
+      throws IOException {
+    return internalFromJson(
+        Map.class, new JsonEventReader(mapped(jsonFile), jsonFormat), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from JSON content in a ByteBuffer. The parser
+   * reads the remaining bytes of the buffer directly, the position of the buffer is not changed.
+   *
+   * @param jsonBuffer JSON content
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   * @throws IOException reading of JSON content may throw exception
+   */
+  public Multi<String> fromJson(final ByteBuffer jsonBuffer, final String hashAlgorithm)
+      throws IOException {
+    return internalFromJson(
+        String.class, new JsonEventReader(jsonBuffer, jsonFormat), hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from JSON content in a ByteBuffer. The parser
+   * reads the remaining bytes of the buffer directly, the position of the buffer is not changed.
+   *
+   * @param jsonBuffer JSON content
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the JSON content
+   * @throws IOException reading of JSON content may throw exception
+   */
+  public Multi<Map<String, String>> fromJson(
+      final ByteBuffer jsonBuffer, final String... hashAlgorithms) throws IOException {
+    return internalFromJson(Map.class, new JsonEventReader(jsonBuffer, jsonFormat), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from JSON characters, e.g. content which is
+   * already decoded.
+   *
+   * @param jsonReader JSON reader
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   * @throws IOException reading of JSON content may throw exception
+   */
+  public Multi<String> fromJson(final Reader jsonReader, final String hashAlgorithm)
+      throws IOException {
+    return internalFromJson(String.class, textReader(jsonReader), hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from JSON characters, e.g. content which is
+   * already decoded.
+   *
+   * @param jsonReader JSON reader
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the JSON reader
+   * @throws IOException reading of JSON content may throw exception
+   */
+  public Multi<Map<String, String>> fromJson(
+      final Reader jsonReader, final String... hashAlgorithms) throws IOException {
+    return internalFromJson(Map.class, textReader(jsonReader), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from a JSON array of EPCIS events. The events
+   * are read directly from the array, without wrapping them into an EPCIS document. The GS1
+   * namespaces are known by default, further namespaces can be defined in the @context of each
+   * event.
+   *
+   * @param jsonStream JSON input stream of the array of events
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   * @throws IOException if the input is not a JSON array or cannot be read
+   */
+  public Multi<String> fromJsonEventList(final InputStream jsonStream, final String hashAlgorithm)
+      throws IOException {
+    return internalFromJson(
+        String.class,
+        JsonEventReader.eventList(jsonStream, jsonFormat),
+        eventListContextHeader(),
+        hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from a JSON array of EPCIS events. The events
+   * are read directly from the array, without wrapping them into an EPCIS document. The GS1
+   * namespaces are known by default, further namespaces can be defined in the @context of each
+   * event.
+   *
+   * @param jsonStream JSON input stream of the array of events
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from InputStream
+   * @throws IOException if the input is not a JSON array or cannot be read
+   */
+  public Multi<Map<String, String>> fromJsonEventList(
+      final InputStream jsonStream, final String... hashAlgorithms) throws IOException {
+    return internalFromJson(
+        Map.class,
+        JsonEventReader.eventList(jsonStream, jsonFormat),
+        eventListContextHeader(),
+        hashAlgorithms);
+  }
+
+  // Namespaces of the EPCIS context, as if the events are part of a document with this context.
+  private static Map<String, String> eventListContextHeader() {
+    final Map<String, String> contextHeader = new HashMap<>();
+    contextHeader.put(EPCIS.CBV_MDA, EPCIS.CBV_MDA_URN);
+    contextHeader.put(EPCIS.GS1, EPCIS.GS1_VOC_DOMAIN);
+    return contextHeader;
+  }
+
+  private <T> Multi<T> internalFromJson(
+      final Class<? super T> cls, final JsonEventReader reader, final String... hashAlgorithms) {
+    return internalFromJson(cls, reader, new HashMap<>(), hashAlgorithms);
+  }
+
+  private <T> Multi<T> internalFromJson(
+      final Class<? super T> cls,
+      final JsonEventReader reader,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms) {
+    return filter(
+        cls,
+        internalResultsFromJson(reader, contextHeader, isSingleHash(cls), hashAlgorithms)
+            .map(result -> convert(cls, result)));
+  }
+
+  // The events are read from the document as they are requested by the subscriber, so the memory
+  // in use does not depend on the size of the document.
+  private Multi<HashResult> internalResultsFromJson(
+      final JsonEventReader reader,
+      final Map<String, String> contextHeader,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    return Multi.createFrom()
+        .resource(
+            () -> resultStream(reader, contextHeader, singleHash, hashAlgorithms),
+            results -> Multi.createFrom().iterable(results::iterator))
+        .withFinalizer((Consumer<Stream<HashResult>>) Stream::close);
+  }
+
+  // Binary encodings of JSON are bytes, which cannot be read from characters.
+  private JsonEventReader textReader(final Reader jsonReader) throws IOException {
+    requireTextJson("reading from a Reader");
+    return new JsonEventReader(jsonReader);
+  }
+
+  private void requireTextJson(final String usage) {
+    if (jsonFormat != JsonFormat.JSON) {
+      throw new EventHashException(jsonFormat + " is not supported when " + usage);
+    }
+  }
+
+  // Memory-map the file, files exceeding the size of a single mapping are read as stream instead.
+  private static InputStream mapped(final Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        return Files.newInputStream(path);
+      }
+      return new ByteBufferBackedInputStream(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  void addToContextHeader(final ObjectNode item, final Map<String, String> contextHeader) {
     if (item.get(EPCIS.CONTEXT) != null) {
       final Iterator<JsonNode> contextElements = item.get(EPCIS.CONTEXT).elements();
       contextHeader.put(EPCIS.CBV_MDA, EPCIS.CBV_MDA_URN);
@@ -270,14 +584,11 @@ public class EventHashGenerator {
       final ObjectNode objectNode,
       final Map<String, String> contextHeader,
       final String... hashAlgorithms) {
-    addToContextHeader(objectNode, contextHeader);
-    if (!objectNode.get(EPCIS.TYPE).asText().equalsIgnoreCase(EPCIS.EPCIS_DOCUMENT)
-        && !objectNode.get(EPCIS.TYPE).asText().equalsIgnoreCase(EPCIS.EPCIS_QUERY_DOCUMENT)) {
-      final ContextNode contextNode = new ContextNode(objectNode.fields(), contextHeader);
-      final String preHashString = contextNode.toShortenedString(this.cbvVersion);
-
-      // Call the method generateHashId in HashIdGenerator to
-      return generate(cls, preHashString, hashAlgorithms);
+    final HashResult result =
+        internalResultFromObjectNode(
+            objectNode, contextHeader, 0, isSingleHash(cls), hashAlgorithms);
+    if (result != null) {
+      return convert(cls, result);
     }
 
     if (cls.isAssignableFrom(String.class)) {
@@ -287,21 +598,145 @@ public class EventHashGenerator {
     }
   }
 
+  HashResult internalResultFromObjectNode(
+      final ObjectNode objectNode,
+      final Map<String, String> contextHeader,
+      final long ordinal,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    addToContextHeader(objectNode, contextHeader);
+    if (!isEvent(objectNode)) {
+      return null;
+    }
+    return internalResultFromEvent(objectNode, contextHeader, ordinal, singleHash, hashAlgorithms);
+  }
+
+  // Method to create the HashResult of an event whose namespaces are already added to the
+  // contextHeader.
+  private HashResult internalResultFromEvent(
+      final ObjectNode objectNode,
+      final Map<String, String> contextHeader,
+      final long ordinal,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    final EventHashMemo eventMemo = this.memo;
+    if (eventMemo == null) {
+      return generate(objectNode, contextHeader, ordinal, singleHash, hashAlgorithms);
+    }
+
+    return memoized(
+        eventMemo,
+        EventHashMemo.key(
+            objectNode,
+            ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash(),
+            contextHeader,
+            memoConfiguration(singleHash, hashAlgorithms)),
+        ordinal,
+        objectNode.path(EPCIS.EVENT_ID).textValue(),
+        () -> generate(objectNode, contextHeader, ordinal, singleHash, hashAlgorithms));
+  }
+
+  // Method to create the HashResult of an XML event, whose namespaces are part of the ContextNode.
+  private HashResult internalResultFromNode(
+      final ContextNode node,
+      final long ordinal,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    final EventHashMemo eventMemo = this.memo;
+    final EventHashMemo.Key key =
+        eventMemo != null
+            ? EventHashMemo.key(
+                node,
+                ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash(),
+                memoConfiguration(singleHash, hashAlgorithms))
+            : null;
+    if (key == null) {
+      return generate(node, ordinal, hashAlgorithms, singleHash);
+    }
+    return memoized(
+        eventMemo,
+        key,
+        ordinal,
+        node.getEventId(),
+        () -> generate(node, ordinal, hashAlgorithms, singleHash));
+  }
+
+  // Repeated events share the hashes of the memoized event, but not its position and eventID.
+  private static HashResult memoized(
+      final EventHashMemo eventMemo,
+      final EventHashMemo.Key key,
+      final long ordinal,
+      final String eventId,
+      final Supplier<HashResult> generate) {
+    final HashResult memoized = eventMemo.get(key);
+    if (memoized != null) {
+      return new HashResult(
+          ordinal, eventId, memoized.eventType(), memoized.hashAlgorithms(), memoized.hashes());
+    }
+    final HashResult result = generate.get();
+    eventMemo.put(key, result);
+    return result;
+  }
+
+  private HashResult generate(
+      final ObjectNode objectNode,
+      final Map<String, String> contextHeader,
+      final long ordinal,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    final ContextNode contextNode =
+        new ContextNode(objectNode.fields(), contextHeader, epcListSpillThreshold);
+    contextNode.setEventId(objectNode.path(EPCIS.EVENT_ID).textValue());
+
+    // Call the method generateHashId in HashIdGenerator to
+    return generate(contextNode, ordinal, hashAlgorithms, singleHash);
+  }
+
+  // Settings which the hashes of an event depend on besides the event and its namespaces.
+  private List<Object> memoConfiguration(final boolean singleHash, final String[] hashAlgorithms) {
+    return List.of(
+        cbvVersion,
+        prehashJoin,
+        specializedCanonicalization,
+        dualCbvVersion,
+        singleHash,
+        maxDepth,
+        List.of(hashAlgorithms));
+  }
+
+  boolean isEvent(final ObjectNode objectNode) {
+    return !objectNode.get(EPCIS.TYPE).asText().equalsIgnoreCase(EPCIS.EPCIS_DOCUMENT)
+        && !objectNode.get(EPCIS.TYPE).asText().equalsIgnoreCase(EPCIS.EPCIS_QUERY_DOCUMENT);
+  }
+
   private <T> Multi<T> internalFromPublisher(
       final Class<? super T> cls,
       final Publisher<ObjectNode> publisher,
       final Map<String, String> contextHeader,
       final String... hashAlgorithms) {
+    return filter(
+        cls,
+        internalResultsFromPublisher(publisher, contextHeader, isSingleHash(cls), hashAlgorithms)
+            .map(result -> convert(cls, result)));
+  }
+
+  private Multi<HashResult> internalResultsFromPublisher(
+      final Publisher<ObjectNode> publisher,
+      final Map<String, String> contextHeader,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    final AtomicLong ordinal = new AtomicLong();
     return Multi.createFrom()
         .publisher(publisher)
-        .map(item -> (T) internalFromObjectNode(cls, item, contextHeader, hashAlgorithms))
         .filter(
-            m -> {
-              if (cls.isAssignableFrom(String.class)) {
-                return !((String) m).isEmpty();
-              }
-              return !((Map) m).isEmpty();
-            });
+            item -> {
+              addToContextHeader(item, contextHeader);
+              return isEvent(item);
+            })
+        .map(
+            item ->
+                internalResultFromEvent(
+                    item, contextHeader, ordinal.getAndIncrement(), singleHash, hashAlgorithms));
   }
 
   private <T> Multi<T> internalFromJson(
@@ -310,65 +745,243 @@ public class EventHashGenerator {
       final Map<String, String> contextHeader,
       final String... hashAlgorithms)
       throws IOException {
-    final Publisher publisher = ObjectNodePublisher.fromInputStream(jsonStream);
-    return internalFromPublisher(cls, publisher, contextHeader, hashAlgorithms);
+    return internalFromJson(
+        cls, new JsonEventReader(jsonStream, jsonFormat), contextHeader, hashAlgorithms);
   }
 
   protected <T> T generate(
       final Class<? super T> cls, final String s, final String[] hashAlgorithms)
       throws RuntimeException {
     try {
-      if (cls.isAssignableFrom(String.class)) {
-        if (hashAlgorithms.length != 1) {
-          throw new EventHashException("only one single algorithm allowed for type String");
-        }
-        return (T)
-            HashIdGenerator.generateHashId(
-                s.replaceAll("[\n\r]", ""), hashAlgorithms[0], this.cbvVersion);
+      final boolean singleHash = isSingleHash(cls);
+      if (singleHash && hashAlgorithms.length != 1) {
+        throw new EventHashException("only one single algorithm allowed for type String");
       }
-      final Map<String, String> map = new HashMap<>();
-      for (final String hashAlgorithm : hashAlgorithms) {
-        if (hashAlgorithm.equalsIgnoreCase("prehash")) {
-          map.put(hashAlgorithm, s.replaceAll("[\n\r]+", prehashJoin));
-        } else {
-          map.put(
-              hashAlgorithm,
-              HashIdGenerator.generateHashId(
-                  s.replaceAll("[\n\r]", ""), hashAlgorithm, this.cbvVersion));
-        }
+      final String[] hashes =
+          hashes(s, Collections.emptyMap(), hashAlgorithms, this.cbvVersion, singleHash);
+      return convert(cls, new HashResult(0, null, null, List.of(hashAlgorithms), List.of(hashes)));
+    } catch (Exception e) {
+      throw new EventHashException(
+          "Exception occurred during event hash generation : " + e.getMessage(), e);
+    }
+  }
+
+  // Method to create the HashResult for the event, with the hashes of the additional CBV version if
+  // the hashes for both CBV versions are requested.
+  private HashResult generate(
+      final ContextNode node,
+      final long ordinal,
+      final String[] hashAlgorithms,
+      final boolean singleHash) {
+    try {
+      if (singleHash && hashAlgorithms.length != 1) {
+        throw new EventHashException("only one single algorithm allowed for type String");
+      }
+
+      final CanonicalizeEvent canonicalizeEvent = new CanonicalizeEvent();
+      canonicalizeEvent.begin();
+      final long start = System.nanoTime();
+      if (!dualCbvVersion) {
+        final String preHashString =
+            node.toShortenedString(this.cbvVersion, specializedCanonicalization, maxDepth);
+        canonicalizeEvent.commit(node, this.cbvVersion, preHashString);
+        canonicalized(start);
+        final String[] hashes =
+            hashes(
+                preHashString, node.spilledEpcLists(), hashAlgorithms, this.cbvVersion, singleHash);
+        return new HashResult(
+            ordinal, node.getEventId(), node.eventType(), List.of(hashAlgorithms), List.of(hashes));
+      }
+
+      if (singleHash) {
+        throw new EventHashException(
+            "dual CBV version hash generation not allowed for type String");
       }
-      return (T) map;
+
+      // Create the pre-hash strings of both CBV versions from the same ContextNode and add the
+      // hashes of the additional CBV version with the version suffix to the hash algorithms.
+      final CBVVersion additionalCbvVersion =
+          CBVVersion.VERSION_2_0_0.equals(this.cbvVersion)
+              ? CBVVersion.VERSION_2_1_0
+              : CBVVersion.VERSION_2_0_0;
+      final Map<CBVVersion, String> preHashStrings =
+          node.toShortenedStrings(
+              List.of(this.cbvVersion, additionalCbvVersion),
+              specializedCanonicalization,
+              maxDepth);
+      canonicalizeEvent.commit(node, this.cbvVersion, preHashStrings.get(this.cbvVersion));
+      canonicalized(start);
+      final Map<String, ContextNode> spilled = node.spilledEpcLists();
+
+      final String[] hashes =
+          hashes(
+              preHashStrings.get(this.cbvVersion), spilled, hashAlgorithms, this.cbvVersion, false);
+      final String[] additionalHashes =
+          hashes(
+              preHashStrings.get(additionalCbvVersion),
+              spilled,
+              hashAlgorithms,
+              additionalCbvVersion,
+              false);
+      final String suffix = HashIdGenerator.versionSuffix(additionalCbvVersion);
+
+      final List<String> algorithms = new ArrayList<>(List.of(hashAlgorithms));
+      Arrays.stream(hashAlgorithms)
+          .forEach(hashAlgorithm -> algorithms.add(hashAlgorithm + suffix));
+      final List<String> allHashes = new ArrayList<>(List.of(hashes));
+      allHashes.addAll(List.of(additionalHashes));
+      return new HashResult(
+          ordinal,
+          node.getEventId(),
+          node.eventType(),
+          Collections.unmodifiableList(algorithms),
+          Collections.unmodifiableList(allHashes));
     } catch (Exception e) {
       throw new EventHashException(
           "Exception occurred during event hash generation : " + e.getMessage(), e);
+    } finally {
+      node.closeEpcLists();
     }
   }
 
-  private <T> Multi<T> internalFromXml(
-      final Class<? super T> cls, final InputStream xmlStream, final String... hashAlgorithms) {
-    final SaxHandler saxHandler = new SaxHandler();
-    final Consumer<MultiEmitter<? super ContextNode>> consumer =
-        contextNodeMultiEmitter -> {
-          saxHandler.setEmitter(contextNodeMultiEmitter);
-          try {
-            SAX_PARSER_FACTORY.newSAXParser().parse(xmlStream, saxHandler);
-          } catch (Exception e) {
-            contextNodeMultiEmitter.fail(e);
+  private void canonicalized(final long start) {
+    if (canonicalizationListener != null) {
+      canonicalizationListener.accept(this.cbvVersion, System.nanoTime() - start);
+    }
+  }
+
+  // Method to create the hashes for all hash algorithms from the pre-hash string, returned at the
+  // same index as the hash algorithm. For "prehash" the pre-hash string itself is returned unless a
+  // single hash is requested.
+  private String[] hashes(
+      final String s,
+      final Map<String, ContextNode> spilled,
+      final String[] hashAlgorithms,
+      final CBVVersion cbvVersion,
+      final boolean singleHash)
+      throws NoSuchAlgorithmException {
+    if (!spilled.isEmpty()) {
+      // EPC lists spilled to temporary files are merged and streamed into the digest instead of
+      // creating the complete pre-hash string.
+      return spilledHashes(s, spilled, hashAlgorithms, cbvVersion, singleHash);
+    }
+
+    final String[] hashes = new String[hashAlgorithms.length];
+    String digestInput = null;
+    for (int i = 0; i < hashAlgorithms.length; i++) {
+      if (!singleHash && hashAlgorithms[i].equalsIgnoreCase("prehash")) {
+        hashes[i] = preHashOutput(s);
+      } else {
+        if (digestInput == null) {
+          digestInput = s.replaceAll("[\n\r]", "");
+        }
+        hashes[i] = HashIdGenerator.generateHashId(digestInput, hashAlgorithms[i], cbvVersion);
+      }
+    }
+    return hashes;
+  }
+
+  private String[] spilledHashes(
+      final String s,
+      final Map<String, ContextNode> spilled,
+      final String[] hashAlgorithms,
+      final CBVVersion cbvVersion,
+      final boolean singleHash)
+      throws NoSuchAlgorithmException {
+    final List<Integer> digestIndexes = new ArrayList<>();
+    final List<MessageDigest> digests = new ArrayList<>();
+    for (int i = 0; i < hashAlgorithms.length; i++) {
+      if (singleHash || !hashAlgorithms[i].equalsIgnoreCase("prehash")) {
+        digestIndexes.add(i);
+        digests.add(HashIdGenerator.messageDigest(hashAlgorithms[i]));
+      }
+    }
+
+    final String[] hashes = new String[hashAlgorithms.length];
+    if (!digests.isEmpty()) {
+      final DigestEvent digestEvent = new DigestEvent();
+      digestEvent.begin();
+      final PreHashDigestSink sink = new PreHashDigestSink(digests);
+      EpcList.expand(s, spilled, sink);
+      final byte[][] digest = sink.digest();
+      digestEvent.commit(
+          digestIndexes.stream().map(i -> hashAlgorithms[i]).collect(Collectors.joining(",")),
+          sink.length());
+      for (int i = 0; i < digest.length; i++) {
+        final int index = digestIndexes.get(i);
+        hashes[index] = HashIdGenerator.toHashId(hashAlgorithms[index], digest[i], cbvVersion);
+      }
+    }
+    if (digests.size() < hashAlgorithms.length) {
+      // The pre-hash string itself is requested, so it has to be created in memory.
+      final StringBuilder sb = new StringBuilder();
+      EpcList.expand(s, spilled, sb::append);
+      final String preHash = preHashOutput(sb.toString());
+      for (int i = 0; i < hashAlgorithms.length; i++) {
+        if (hashes[i] == null) {
+          hashes[i] = preHash;
+        }
+      }
+    }
+    return hashes;
+  }
+
+  // The pre-hash string returned for "prehash", normalized the same way for EPC lists in memory and
+  // spilled to temporary files. The EPCs of a spilled list are expanded with a trailing line break,
+  // which is not part of the pre-hash string once the list is the last element of the event.
+  private String preHashOutput(final String s) {
+    return s.trim().replaceAll("[\n\r]+", prehashJoin);
+  }
+
+  private static boolean isSingleHash(final Class<?> cls) {
+    return cls.isAssignableFrom(String.class);
+  }
+
+  // Convert the HashResult to the result type of the methods returning a String or Map per event.
+  private static <T> T convert(final Class<? super T> cls, final HashResult result) {
+    if (isSingleHash(cls)) {
+      return (T) result.hashes().get(0);
+    }
+    return (T) result.toMap();
+  }
+
+  private static <T> Multi<T> filter(final Class<? super T> cls, final Multi<T> multi) {
+    return multi.filter(
+        m -> {
+          if (cls.isAssignableFrom(String.class)) {
+            return !((String) m).isEmpty();
           }
-        };
-    // After converting each XML event to ContextNode and storing information in rootNode, convert
-    // it to pre-hash string and generate HashId out of it.
-    return (Multi<T>)
-        Multi.createFrom()
-            .emitter(consumer)
-            .map(node -> generate(cls, node.toShortenedString(this.cbvVersion), hashAlgorithms))
-            .filter(
-                m -> {
-                  if (cls.isAssignableFrom(String.class)) {
-                    return !((String) m).isEmpty();
-                  }
-                  return !((Map<String, String>) m).isEmpty();
-                });
+          return !((Map<String, String>) m).isEmpty();
+        });
+  }
+
+  private <T> Multi<T> internalFromXml(
+      final Class<? super T> cls,
+      final Supplier<XmlEventReader> xmlReader,
+      final String... hashAlgorithms) {
+    return filter(
+        cls,
+        internalResultsFromXml(xmlReader, isSingleHash(cls), hashAlgorithms)
+            .map(result -> convert(cls, result)));
+  }
+
+  private Multi<HashResult> internalResultsFromXml(
+      final Supplier<XmlEventReader> xmlReader,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    // The XML document is read only as far as the events are requested by the subscriber, so a
+    // slow subscriber does not cause the events of the whole document to be buffered.
+    // After converting each XML event to ContextNode, convert it to pre-hash string and generate
+    // HashId out of it.
+    final AtomicLong ordinal = new AtomicLong();
+    return Multi.createFrom()
+        .resource(
+            () -> configure(xmlReader.get()), reader -> Multi.createFrom().iterable(() -> reader))
+        .withFinalizer((Consumer<XmlEventReader>) XmlEventReader::closeQuietly)
+        .map(
+            node ->
+                internalResultFromNode(
+                    node, ordinal.getAndIncrement(), singleHash, hashAlgorithms));
   }
 
   /**
@@ -380,7 +993,7 @@ public class EventHashGenerator {
    * @return hash string representation for each EPCIS event
    */
   public Multi<String> fromXml(final InputStream xmlStream, final String hashAlgorithm) {
-    return internalFromXml(String.class, xmlStream, hashAlgorithm);
+    return internalFromXml(String.class, () -> new XmlEventReader(xmlStream), hashAlgorithm);
   }
 
   /**
@@ -395,6 +1008,364 @@ public class EventHashGenerator {
    */
   public Multi<Map<String, String>> fromXml(
       final InputStream xmlStream, final String... hashAlgorithms) {
-    return internalFromXml(Map.class, xmlStream, hashAlgorithms);
+    return internalFromXml(Map.class, () -> new XmlEventReader(xmlStream), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from an XML file. The file is memory-mapped and
+   * read by the parser without an additional input stream buffer.
+   *
+   * @param xmlFile XML file
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   * @throws IOException mapping of XML file may throw exception
+   */
+  public Multi<String> fromXml(final Path xmlFile, final String hashAlgorithm) throws IOException {
+    final InputStream xmlStream = mapped(xmlFile);
+    return internalFromXml(String.class, () -> new XmlEventReader(xmlStream), hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from an XML file. The file is memory-mapped and
+   * read by the parser without an additional input stream buffer.
+   *
+   * @param xmlFile XML file
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the XML file
+   * @throws IOException mapping of XML file may throw exception
+   */
+  public Multi<Map<String, String>> fromXml(final Path xmlFile, final String... hashAlgorithms)
+      throws IOException {
+    final InputStream xmlStream = mapped(xmlFile);
+    return internalFromXml(Map.class, () -> new XmlEventReader(xmlStream), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from XML content in a ByteBuffer. The parser
+   * reads the remaining bytes of the buffer directly, the position of the buffer is not changed.
+   *
+   * @param xmlBuffer XML content
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   */
+  public Multi<String> fromXml(final ByteBuffer xmlBuffer, final String hashAlgorithm) {
+    return internalFromXml(
+        String.class,
+        () -> new XmlEventReader(new ByteBufferBackedInputStream(xmlBuffer.duplicate())),
+        hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from XML content in a ByteBuffer. The parser
+   * reads the remaining bytes of the buffer directly, the position of the buffer is not changed.
+   *
+   * @param xmlBuffer XML content
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the XML content
+   */
+  public Multi<Map<String, String>> fromXml(
+      final ByteBuffer xmlBuffer, final String... hashAlgorithms) {
+    return internalFromXml(
+        Map.class,
+        () -> new XmlEventReader(new ByteBufferBackedInputStream(xmlBuffer.duplicate())),
+        hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from XML characters, e.g. content which is
+   * already decoded.
+   *
+   * @param xmlReader XML reader
+   * @param hashAlgorithm Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string representation for each EPCIS event
+   */
+  public Multi<String> fromXml(final Reader xmlReader, final String hashAlgorithm) {
+    return internalFromXml(String.class, () -> new XmlEventReader(xmlReader), hashAlgorithm);
+  }
+
+  /**
+   * Generate reactive Multi stream of event hashes from XML characters, e.g. content which is
+   * already decoded.
+   *
+   * @param xmlReader XML reader
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return hash string map where key is hash algorithm and value is hash, representing each EPCIS
+   *     event from the XML reader
+   */
+  public Multi<Map<String, String>> fromXml(
+      final Reader xmlReader, final String... hashAlgorithms) {
+    return internalFromXml(Map.class, () -> new XmlEventReader(xmlReader), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from JSON input
+   *
+   * @param jsonStream JSON input stream
+   * @param contextHeader pre-defined map for @context header
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Multi<HashResult> hashResultsFromJson(
+      final InputStream jsonStream,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms)
+      throws IOException {
+    return internalResultsFromJson(
+        new JsonEventReader(jsonStream, jsonFormat), contextHeader, false, hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from JSON input
+   *
+   * @param jsonStream JSON input stream
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Multi<HashResult> hashResultsFromJson(
+      final InputStream jsonStream, final String... hashAlgorithms) throws IOException {
+    return hashResultsFromJson(jsonStream, new HashMap<>(), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from a JSON array of EPCIS events, as read by
+   * {@link #fromJsonEventList(InputStream, String...)}.
+   *
+   * @param jsonStream JSON input stream of the array of events
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   * @throws IOException if the input is not a JSON array or cannot be read
+   */
+  public Multi<HashResult> hashResultsFromJsonEventList(
+      final InputStream jsonStream, final String... hashAlgorithms) throws IOException {
+    return internalResultsFromJson(
+        JsonEventReader.eventList(jsonStream, jsonFormat),
+        eventListContextHeader(),
+        false,
+        hashAlgorithms);
+  }
+
+  /**
+   * Create a non-blocking hash generation of a JSON document, which is fed in chunks as they
+   * arrive, e.g. by the ReadListener of an asynchronous servlet, without a thread waiting for the
+   * input.
+   *
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return JsonHashFeeder returning the HashResult of each EPCIS event as soon as it is complete
+   * @throws IOException if the non-blocking parser cannot be created
+   */
+  public JsonHashFeeder jsonFeeder(final String... hashAlgorithms) throws IOException {
+    requireTextJson("hashing without blocking");
+    return new JsonHashFeeder(
+        this, new NonBlockingJsonEventReader(false), new HashMap<>(), hashAlgorithms);
+  }
+
+  /**
+   * Create a non-blocking hash generation of a JSON array of EPCIS events, as read by {@link
+   * #fromJsonEventList(InputStream, String...)}, which is fed in chunks as they arrive.
+   *
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return JsonHashFeeder returning the HashResult of each EPCIS event as soon as it is complete
+   * @throws IOException if the non-blocking parser cannot be created
+   */
+  public JsonHashFeeder jsonEventListFeeder(final String... hashAlgorithms) throws IOException {
+    requireTextJson("hashing without blocking");
+    return new JsonHashFeeder(
+        this, new NonBlockingJsonEventReader(true), eventListContextHeader(), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from ObjectNode publisher
+   *
+   * @param publisher ObjectNodePublisher
+   * @param contextHeader pre-defined map for @context header
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   */
+  public Multi<HashResult> hashResultsFromPublisher(
+      final Publisher<ObjectNode> publisher,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms) {
+    return internalResultsFromPublisher(publisher, contextHeader, false, hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from ObjectNode publisher
+   *
+   * @param publisher ObjectNodePublisher
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   */
+  public Multi<HashResult> hashResultsFromPublisher(
+      final Publisher<ObjectNode> publisher, final String... hashAlgorithms) {
+    return hashResultsFromPublisher(publisher, new HashMap<>(), hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from a publisher of EPCIS events which are not
+   * wrapped into an EPCIS document, such as the events of a long-lived connection. As for {@link
+   * #fromJsonEventList(InputStream, String...)} the GS1 namespaces are known by default, further
+   * namespaces can be defined in the @context of each event and remain known for the following
+   * events of the publisher.
+   *
+   * @param events publisher of EPCIS events
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   */
+  public Multi<HashResult> hashResultsFromEventPublisher(
+      final Publisher<ObjectNode> events, final String... hashAlgorithms) {
+    return hashResultsFromPublisher(events, eventListContextHeader(), hashAlgorithms);
+  }
+
+  /**
+   * Generate HashResult from single ObjectNode
+   *
+   * @param objectNode JSON ObjectNode
+   * @param contextHeader pre-defined map for @context header
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return HashResult with eventID, type and hashes of the EPCIS event, null if the ObjectNode is
+   *     an EPCISDocument or EPCISQueryDocument
+   */
+  public HashResult hashResultFromObjectNode(
+      final ObjectNode objectNode,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms) {
+    return internalResultFromObjectNode(objectNode, contextHeader, 0, false, hashAlgorithms);
+  }
+
+  /**
+   * Generate reactive Multi stream of HashResults from XML input
+   *
+   * @param xmlStream XML input stream
+   * @param hashAlgorithms Type of Hash Algorithms to run: sha-1, sha-224, sha-256, sha-384,
+   *     sha-512, sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash
+   *     strings
+   * @return HashResult with position, eventID, type and hashes for each EPCIS event
+   */
+  public Multi<HashResult> hashResultsFromXml(
+      final InputStream xmlStream, final String... hashAlgorithms) {
+    return internalResultsFromXml(() -> new XmlEventReader(xmlStream), false, hashAlgorithms);
+  }
+
+  /**
+   * Generate a sequential Stream of HashResults from JSON input. The events are read one by one
+   * when the Stream is consumed, without any reactive processing. Close the Stream, e.g. using
+   * try-with-resources, to close the JSON input stream. Use {@link Stream#iterator()} for an
+   * Iterator over the HashResults.
+   *
+   * @param jsonStream JSON input stream
+   * @param contextHeader pre-defined map for @context header
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return lazily evaluated Stream of HashResult for each EPCIS event
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Stream<HashResult> streamFromJson(
+      final InputStream jsonStream,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms)
+      throws IOException {
+    return resultStream(
+        new JsonEventReader(jsonStream, jsonFormat), contextHeader, false, hashAlgorithms);
+  }
+
+  private Stream<HashResult> resultStream(
+      final JsonEventReader reader,
+      final Map<String, String> contextHeader,
+      final boolean singleHash,
+      final String... hashAlgorithms) {
+    final AtomicBoolean headerAdded = new AtomicBoolean();
+    final AtomicLong ordinal = new AtomicLong();
+    return stream(reader, reader)
+        .filter(
+            event -> {
+              // The fields of the document before the epcisBody are complete with the first event.
+              if (!headerAdded.getAndSet(true)) {
+                addToContextHeader(reader.header(), contextHeader);
+              }
+              return isEvent(event);
+            })
+        .map(
+            event ->
+                internalResultFromObjectNode(
+                    event, contextHeader, ordinal.getAndIncrement(), singleHash, hashAlgorithms));
+  }
+
+  /**
+   * Generate a sequential Stream of HashResults from JSON input. The events are read one by one
+   * when the Stream is consumed, without any reactive processing. Close the Stream, e.g. using
+   * try-with-resources, to close the JSON input stream. Use {@link Stream#iterator()} for an
+   * Iterator over the HashResults.
+   *
+   * @param jsonStream JSON input stream
+   * @param hashAlgorithms Type of Hash Algorithm to run: sha-1, sha-224, sha-256, sha-384, sha-512,
+   *     sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash strings
+   * @return lazily evaluated Stream of HashResult for each EPCIS event
+   * @throws IOException reading of JSON file may throw exception
+   */
+  public Stream<HashResult> streamFromJson(
+      final InputStream jsonStream, final String... hashAlgorithms) throws IOException {
+    return streamFromJson(jsonStream, new HashMap<>(), hashAlgorithms);
+  }
+
+  /**
+   * Generate a sequential Stream of HashResults from XML input. The document is read with StAX only
+   * until the next event is complete when the Stream is consumed, without any reactive processing.
+   * Close the Stream, e.g. using try-with-resources, to close the XML input stream. Use {@link
+   * Stream#iterator()} for an Iterator over the HashResults.
+   *
+   * @param xmlStream XML input stream
+   * @param hashAlgorithms Type of Hash Algorithms to run: sha-1, sha-224, sha-256, sha-384,
+   *     sha-512, sha3-224, sha3-256, sha3-384, sha3-512, md2, md5. using "prehash" return pre-hash
+   *     strings
+   * @return lazily evaluated Stream of HashResult for each EPCIS event
+   */
+  public Stream<HashResult> streamFromXml(
+      final InputStream xmlStream, final String... hashAlgorithms) {
+    final XmlEventReader reader = configure(new XmlEventReader(xmlStream));
+    final AtomicLong ordinal = new AtomicLong();
+    return stream(reader, reader)
+        .map(
+            node -> internalResultFromNode(node, ordinal.getAndIncrement(), false, hashAlgorithms));
+  }
+
+  // Apply the settings of this generator to the XML reader before the first event is read.
+  private XmlEventReader configure(final XmlEventReader reader) {
+    reader.epcListSpillThreshold(epcListSpillThreshold);
+    return reader;
+  }
+
+  // Create a sequential Stream over the elements of the Iterator which closes the reader on close.
+  private static <T> Stream<T> stream(final Iterator<T> iterator, final Closeable reader) {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                reader.close();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
   }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memo of the hashes of the events hashed by an EventHashGenerator, so repeated events such as
+ * repeated observations of the same reader are neither canonicalized nor hashed again. An event is
+ * identified by a 64-bit Murmur3 style fingerprint of its tree, without the fields excluded from
+ * the pre-hash string such as eventID and recordTime. Events with the same fingerprint are compared
+ * field by field, so a collision of fingerprints never returns the hashes of another event. The
+ * least recently used events are evicted beyond the maximum number of events.
+ *
+ * <p>JSON events are compared by their ObjectNode. XML events are read as ContextNode, whose
+ * children are sorted in place by the hash generation, so they are flattened in document order
+ * before they are hashed and compared by the flattened tree.
+ */
+final class EventHashMemo {
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private final LinkedHashMap<Key, HashResult> entries;
+  private long hits;
+  private long misses;
+
+  EventHashMemo(final int maxEvents) {
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Key, HashResult> eldest) {
+            return size() > maxEvents;
+          }
+        };
+  }
+
+  // Key of the event within the configuration of its hash generation, the excluded fields and the
+  // namespaces of its context are the live instances which must not change until the key is put.
+  static Key key(
+      final ObjectNode event,
+      final List<String> excluded,
+      final Map<String, String> contextHeader,
+      final List<?> configuration) {
+    return new Key(fingerprint(event, excluded), event, excluded, contextHeader, configuration);
+  }
+
+  // Key of an XML event, the fields excluded from the pre-hash string are not read into the
+  // ContextNode. Events with EPC lists spilled to temporary files are not memoized, null is
+  // returned for them.
+  static Key key(
+      final ContextNode event, final List<String> excluded, final List<?> configuration) {
+    final List<Object> tree = flatten(event);
+    if (tree == null) {
+      return null;
+    }
+    final Map<String, String> namespaces =
+        event.getNamespaces() != null ? event.getNamespaces() : Map.of();
+    return new Key(fingerprint(tree), tree, excluded, namespaces, configuration);
+  }
+
+  // The HashResult of the memoized event, without its position and eventID.
+  synchronized HashResult get(final Key key) {
+    final HashResult result = entries.get(key);
+    if (result != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return result;
+  }
+
+  synchronized void put(final Key key, final HashResult result) {
+    entries.put(key.snapshot(), result);
+  }
+
+  synchronized long hits() {
+    return hits;
+  }
+
+  synchronized long misses() {
+    return misses;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  static long fingerprint(final ObjectNode event, final List<String> excluded) {
+    long h = 0;
+    final Iterator<Map.Entry<String, JsonNode>> fields = event.fields();
+    while (fields.hasNext()) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      if (!excluded.contains(field.getKey())) {
+        h = string(h, field.getKey());
+        h = fingerprint(h, field.getValue());
+      }
+    }
+    return fmix(h);
+  }
+
+  // The name, value and number of children of every node in document order, followed by the
+  // number of EPCs of a compact EPC list and its EPCs in sorted order, as their order does not
+  // change the pre-hash string.
+  private static List<Object> flatten(final ContextNode event) {
+    final List<Object> tree = new ArrayList<>();
+    final Deque<ContextNode> stack = new ArrayDeque<>();
+    stack.push(event);
+    while (!stack.isEmpty()) {
+      final ContextNode node = stack.pop();
+      final EpcList epcs = node.getEpcs();
+      if (epcs != null && epcs.isSpilled()) {
+        return null;
+      }
+      tree.add(node.getName());
+      tree.add(node.getValue());
+      tree.add(node.getChildren().size());
+      tree.add(epcs != null ? epcs.size() : -1);
+      if (epcs != null) {
+        epcs.forEachSorted(tree::add);
+      }
+      for (int i = node.getChildren().size() - 1; i >= 0; i--) {
+        stack.push(node.getChildren().get(i));
+      }
+    }
+    return tree;
+  }
+
+  private static long fingerprint(final List<Object> tree) {
+    long h = 0;
+    for (final Object token : tree) {
+      if (token instanceof String s) {
+        h = string(h, s);
+      } else {
+        h = mix(h, token != null ? (Integer) token : Integer.MIN_VALUE);
+      }
+    }
+    return fmix(h);
+  }
+
+  private static long fingerprint(long h, final JsonNode node) {
+    h = mix(h, node.getNodeType().ordinal());
+    if (node.isObject()) {
+      final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        final Map.Entry<String, JsonNode> field = fields.next();
+        h = string(h, field.getKey());
+        h = fingerprint(h, field.getValue());
+      }
+    } else if (node.isArray()) {
+      for (final JsonNode element : node) {
+        h = fingerprint(h, element);
+      }
+    } else {
+      h = string(h, node.asText());
+    }
+    return h;
+  }
+
+  // Mix the characters of the string in blocks of four, followed by its length.
+  private static long string(long h, final String s) {
+    final int length = s.length();
+    int i = 0;
+    for (; i + 4 <= length; i += 4) {
+      h =
+          mix(
+              h,
+              s.charAt(i)
+                  | (long) s.charAt(i + 1) << 16
+                  | (long) s.charAt(i + 2) << 32
+                  | (long) s.charAt(i + 3) << 48);
+    }
+    long k = 0;
+    for (int shift = 0; i < length; i++, shift += 16) {
+      k |= (long) s.charAt(i) << shift;
+    }
+    return mix(mix(h, k), length);
+  }
+
+  private static long mix(long h, long k) {
+    k *= C1;
+    k = Long.rotateLeft(k, 31);
+    k *= C2;
+    h ^= k;
+    return Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+  }
+
+  private static long fmix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  // Events are equal if their fingerprints, their fields besides the excluded fields, the
+  // namespaces of their context and the configuration of their hash generation are equal. The event
+  // is the ObjectNode of a JSON event or the flattened tree of an XML event.
+  static final class Key {
+
+    private final long fingerprint;
+    private final Object event;
+    private final List<String> excluded;
+    private final Map<String, String> contextHeader;
+    private final List<?> configuration;
+
+    Key(
+        final long fingerprint,
+        final Object event,
+        final List<String> excluded,
+        final Map<String, String> contextHeader,
+        final List<?> configuration) {
+      this.fingerprint = fingerprint;
+      this.event = event;
+      this.excluded = excluded;
+      this.contextHeader = contextHeader;
+      this.configuration = configuration;
+    }
+
+    // Copy the mutable parts of the key, which are shared with the hash generation.
+    private Key snapshot() {
+      return new Key(
+          fingerprint, event, List.copyOf(excluded), Map.copyOf(contextHeader), configuration);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(fingerprint);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key other)) {
+        return false;
+      }
+      return fingerprint == other.fingerprint
+          && excluded.equals(other.excluded)
+          && configuration.equals(other.configuration)
+          && contextHeader.equals(other.contextHeader)
+          && (event instanceof ObjectNode a && other.event instanceof ObjectNode b
+              ? sameFields(a, b, excluded)
+              : event.equals(other.event));
+    }
+
+    private static boolean sameFields(
+        final ObjectNode a, final ObjectNode b, final List<String> excluded) {
+      int fields = 0;
+      final Iterator<Map.Entry<String, JsonNode>> iterator = a.fields();
+      while (iterator.hasNext()) {
+        final Map.Entry<String, JsonNode> field = iterator.next();
+        if (!excluded.contains(field.getKey())) {
+          fields++;
+          if (!Objects.equals(field.getValue(), b.get(field.getKey()))) {
+            return false;
+          }
+        }
+      }
+      final Iterator<String> names = b.fieldNames();
+      while (names.hasNext()) {
+        if (!excluded.contains(names.next())) {
+          fields--;
+        }
+      }
+      return fields == 0;
+    }
+  }
+}
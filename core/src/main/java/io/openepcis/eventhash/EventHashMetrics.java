@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.openepcis.constants.CBVVersion;
+import io.smallrye.mutiny.Multi;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer meters of the hash generation of a request to the REST or servlet endpoints. The
+ * meters are registered with the global registry by default, to which the Micrometer extension of
+ * Quarkus adds its registries, and are tagged with the endpoint:
+ *
+ * <ul>
+ *   <li>eventhash.events.hashed: counter of the hashed events per hash algorithm and CBV version
+ *   <li>eventhash.document.size: distribution of the bytes read per request
+ *   <li>eventhash.request.events: distribution of the number of hashed events per request
+ *   <li>eventhash.first.hash: timer from the subscription of a request to its first hash
+ *   <li>eventhash.canonicalization: timer of the pre-hash string creation per event and CBV version
+ *   <li>eventhash.requests.active: long task timer of the requests in flight
+ * </ul>
+ *
+ * <p>Requires micrometer-core, which is an optional dependency of this library.
+ */
+public class EventHashMetrics {
+
+  private static final String ENDPOINT = "endpoint";
+  private static final String ALGORITHM = "algorithm";
+  private static final String CBV_VERSION = "cbvVersion";
+  private static final String PREHASH = "prehash";
+
+  private final MeterRegistry registry;
+
+  /** Constructor which registers the meters with the global registry of Micrometer. */
+  public EventHashMetrics() {
+    this(Metrics.globalRegistry);
+  }
+
+  /**
+   * Constructor which registers the meters with the provided registry.
+   *
+   * @param registry registry of the meters
+   */
+  public EventHashMetrics(final MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Method used to record the metrics of a request. The document is counted while it is read by the
+   * hash generation and the metrics of the request are recorded when the returned Multi terminates
+   * or is cancelled.
+   *
+   * @param endpoint name of the endpoint, used as tag of the meters
+   * @param eventHashGenerator generator of the request, observed for the canonicalization latency
+   * @param hashAlgorithms hash algorithms of the request, prehash is not counted
+   * @param document EPCIS document or event list of the request
+   * @param hashing hash generation from the counted document
+   * @return Multi of the hash generation which records the metrics
+   * @param <T> type of the results
+   * @throws IOException if the hash generation cannot read the document
+   */
+  public <T> Multi<T> observe(
+      final String endpoint,
+      final EventHashGenerator eventHashGenerator,
+      final String[] hashAlgorithms,
+      final InputStream document,
+      final Hashing<T> hashing)
+      throws IOException {
+    final CBVVersion cbvVersion = eventHashGenerator.cbvVersion();
+    final Timer canonicalization =
+        Timer.builder("eventhash.canonicalization")
+            .description("Creation of the pre-hash string of an event")
+            .tag(ENDPOINT, endpoint)
+            .tag(CBV_VERSION, cbvVersion.getVersion())
+            .publishPercentileHistogram()
+            .register(registry);
+    eventHashGenerator.canonicalizationListener(
+        (version, nanos) -> canonicalization.record(nanos, TimeUnit.NANOSECONDS));
+
+    final CountingInputStream counted = new CountingInputStream(document);
+    final Multi<T> results = hashing.apply(counted);
+    return Multi.createFrom()
+        .deferred(
+            () -> {
+              final LongTaskTimer.Sample active =
+                  LongTaskTimer.builder("eventhash.requests.active")
+                      .description("Requests in flight")
+                      .tag(ENDPOINT, endpoint)
+                      .register(registry)
+                      .start();
+              final Timer.Sample subscribed = Timer.start(registry);
+              final AtomicLong events = new AtomicLong();
+              final Counter[][] hashed = new Counter[1][];
+              return results
+                  .onItem()
+                  .invoke(
+                      item -> {
+                        if (events.getAndIncrement() == 0) {
+                          subscribed.stop(
+                              Timer.builder("eventhash.first.hash")
+                                  .description("Time from the start of a request to its first hash")
+                                  .tag(ENDPOINT, endpoint)
+                                  .publishPercentileHistogram()
+                                  .register(registry));
+                          hashed[0] = hashedCounters(endpoint, cbvVersion, hashAlgorithms);
+                        }
+                        for (final Counter counter : hashed[0]) {
+                          counter.increment();
+                        }
+                      })
+                  .onTermination()
+                  .invoke(
+                      () -> {
+                        active.stop();
+                        DistributionSummary.builder("eventhash.document.size")
+                            .description("Bytes of the document read per request")
+                            .baseUnit(BaseUnits.BYTES)
+                            .tag(ENDPOINT, endpoint)
+                            .publishPercentileHistogram()
+                            .register(registry)
+                            .record(counted.count);
+                        DistributionSummary.builder("eventhash.request.events")
+                            .description("Events hashed per request")
+                            .baseUnit("events")
+                            .tag(ENDPOINT, endpoint)
+                            .publishPercentileHistogram()
+                            .register(registry)
+                            .record(events.get());
+                      });
+            });
+  }
+
+  /**
+   * Hash generation of a request from the document which is counted while it is read.
+   *
+   * @param <T> type of the results
+   */
+  @FunctionalInterface
+  public interface Hashing<T> {
+    Multi<T> apply(InputStream document) throws IOException;
+  }
+
+  // Counters of the hashed events for every hash algorithm requested, resolved once per request
+  // with its first hash, so unknown algorithms which fail the request do not create meters.
+  private Counter[] hashedCounters(
+      final String endpoint, final CBVVersion cbvVersion, final String[] hashAlgorithms) {
+    final List<Counter> counters = new ArrayList<>(hashAlgorithms.length);
+    for (final String hashAlgorithm : hashAlgorithms) {
+      if (!PREHASH.equalsIgnoreCase(hashAlgorithm)) {
+        counters.add(
+            Counter.builder("eventhash.events.hashed")
+                .description("Events hashed per hash algorithm and CBV version")
+                .baseUnit("events")
+                .tag(ENDPOINT, endpoint)
+                .tag(ALGORITHM, hashAlgorithm.toLowerCase(Locale.ROOT))
+                .tag(CBV_VERSION, cbvVersion.getVersion())
+                .register(registry));
+      }
+    }
+    return counters.toArray(Counter[]::new);
+  }
+
+  // Count the bytes read from the document, the hash generation reads it from a single thread.
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private volatile long count;
+
+    private CountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
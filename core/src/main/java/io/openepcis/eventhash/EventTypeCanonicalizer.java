@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static io.openepcis.eventhash.constant.ConstantEventHashInfo.*;
+
+import io.openepcis.constants.CBVVersion;
+import io.openepcis.constants.EPCIS;
+import io.openepcis.eventhash.constant.ConstantEventHashInfo;
+import io.openepcis.identifiers.converter.util.ConverterUtil;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Specialized canonicalizer for the top level fields of the five EPCIS event types. The generic
+ * engine in ContextNode resolves the template order of every top level field through
+ * TemplateNodeMap and formats every value by walking the whole epcisFieldFormatter chain. For the
+ * well known fields of each event type both the position and the formatting are fixed, so they are
+ * resolved once per event type and emitted directly. User extensions, ILMD and all nested fields
+ * are handed back to the generic engine.
+ */
+final class EventTypeCanonicalizer {
+
+  // Position of every EPCIS field within the top level of the event as defined by TemplateNodeMap.
+  private static final Map<String, Integer> TEMPLATE_ORDER = new HashMap<>();
+
+  private static final Map<String, EventTypeCanonicalizer> CANONICALIZERS = new HashMap<>();
+
+  private static final Set<String> ACTIONS = Set.of("ADD", "OBSERVE", "DELETE");
+
+  static {
+    int index = 0;
+    for (final String field : TemplateNodeMap.getInstance().keySet()) {
+      TEMPLATE_ORDER.put(field, index++);
+    }
+
+    final List<String> commonFields =
+        List.of(
+            EPCIS.TYPE,
+            EPCIS.EVENT_TIME,
+            EPCIS.EVENT_TIME_ZONE_OFFSET,
+            EPCIS.BIZ_STEP,
+            EPCIS.DISPOSITION);
+    final List<String> withAction = new ArrayList<>(commonFields);
+    withAction.add(EPCIS.ACTION);
+
+    // TransformationEvent is the only event type without the action field.
+    CANONICALIZERS.put(
+        EPCIS.OBJECT_EVENT, new EventTypeCanonicalizer(EPCIS.OBJECT_EVENT, withAction));
+    CANONICALIZERS.put(
+        EPCIS.AGGREGATION_EVENT, new EventTypeCanonicalizer(EPCIS.AGGREGATION_EVENT, withAction));
+    CANONICALIZERS.put(
+        EPCIS.TRANSACTION_EVENT, new EventTypeCanonicalizer(EPCIS.TRANSACTION_EVENT, withAction));
+    CANONICALIZERS.put(
+        EPCIS.ASSOCIATION_EVENT, new EventTypeCanonicalizer(EPCIS.ASSOCIATION_EVENT, withAction));
+    CANONICALIZERS.put(
+        EPCIS.TRANSFORMATION_EVENT,
+        new EventTypeCanonicalizer(EPCIS.TRANSFORMATION_EVENT, commonFields));
+  }
+
+  // Formats the value of a simple top level field. Returns null if the value does not have the
+  // expected shape, so that the generic formatter decides about it.
+  @FunctionalInterface
+  private interface FieldFormatter {
+    String format(String value);
+  }
+
+  private final Map<String, FieldFormatter> fieldFormatters = new HashMap<>();
+
+  private EventTypeCanonicalizer(final String eventType, final List<String> fields) {
+    for (final String field : fields) {
+      fieldFormatters.put(field, formatter(eventType, field));
+    }
+  }
+
+  /**
+   * Find the specialized canonicalizer for the event stored within the provided root node.
+   *
+   * @param root root node of the EPCIS event
+   * @return canonicalizer matching the event type or null if the generic engine must be used
+   */
+  static EventTypeCanonicalizer forEvent(final ContextNode root) {
+    if (root.getParent() != null || root.getName() != null) {
+      return null;
+    }
+    for (final ContextNode child : root.getChildren()) {
+      if (EPCIS.TYPE.equals(child.getName()) && child.getValue() != null) {
+        return CANONICALIZERS.get(child.getValue());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Create the pre-hash string of the EPCIS standard fields, identical to the string created by
+   * ContextNode for the root node of the event.
+   *
+   * @param root root node of the EPCIS event
+   * @param cbvVersion CBV version used for the pre-hash string
+   * @return pre-hash string of the EPCIS standard fields
+   */
+  String epcisFields(final ContextNode root, final CBVVersion cbvVersion) {
+    return epcisFields(root, cbvVersion, null);
+  }
+
+  /**
+   * Create the pre-hash string of the EPCIS standard fields for one of several CBV versions of the
+   * same event. The pre-hash strings of the fields which do not depend on the CBV version are
+   * created for the first version and reused for the further versions.
+   *
+   * @param root root node of the EPCIS event
+   * @param cbvVersion CBV version used for the pre-hash string
+   * @param sharedFields pre-hash strings of the fields shared by the CBV versions, null if the
+   *     pre-hash string is created for a single CBV version
+   * @return pre-hash string of the EPCIS standard fields
+   */
+  String epcisFields(
+      final ContextNode root,
+      final CBVVersion cbvVersion,
+      final Map<ContextNode, String> sharedFields) {
+    // The root node has no name, so the generic engine adds an empty field name for it.
+    final StringBuilder sb = new StringBuilder("\n");
+
+    final List<ContextNode> children = root.getChildren();
+    if (!children.isEmpty()) {
+      children.sort(comparator(root));
+    }
+
+    for (final ContextNode node : children) {
+      final String s =
+          sharedFields != null
+              ? sharedFieldPreHash(node, cbvVersion, sharedFields)
+              : fieldPreHash(node, cbvVersion);
+      if (!s.isEmpty()) {
+        sb.append(s).append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  private String sharedFieldPreHash(
+      final ContextNode node,
+      final CBVVersion cbvVersion,
+      final Map<ContextNode, String> sharedFields) {
+    final String shared = sharedFields.get(node);
+    if (shared != null) {
+      return shared;
+    }
+    final String s = fieldPreHash(node, cbvVersion);
+    if (node.isCbvVersionIndependent()) {
+      sharedFields.put(node, s);
+    }
+    return s;
+  }
+
+  private String fieldPreHash(final ContextNode node, final CBVVersion cbvVersion) {
+    if (node.getChildren().isEmpty() && node.getName() != null && node.getValue() != null) {
+      final FieldFormatter formatter = fieldFormatters.get(node.getName());
+      if (formatter != null && !isExcluded(node.getName())) {
+        final String s = formatter.format(node.getValue());
+        if (s != null) {
+          return s;
+        }
+      }
+    }
+
+    // Everything else is built by the generic engine in the same way as for the root node.
+    if (node.getName() != null
+        && !TemplateNodeMap.isEpcisField(node)
+        && CBVVersion.VERSION_2_1_0.equals(cbvVersion)) {
+      return node.userExtensionsPreHashBuilder(cbvVersion);
+    }
+    return node.epcisFieldsPreHashBuilder(cbvVersion);
+  }
+
+  // Order the top level fields by their template position. Ties and user extensions are left to
+  // the generic comparator, which results in exactly the same order.
+  private static Comparator<ContextNode> comparator(final ContextNode root) {
+    final HashNodeComparator generic = new HashNodeComparator(root, true);
+    return (o1, o2) -> {
+      if (o1.getName() == null || o2.getName() == null) {
+        return generic.compare(o1, o2);
+      }
+      final Integer o1Index = TEMPLATE_ORDER.get(o1.getName());
+      final Integer o2Index = TEMPLATE_ORDER.get(o2.getName());
+      if (o1Index != null && o2Index != null && !o1Index.equals(o2Index)) {
+        return Integer.compare(o1Index, o2Index);
+      } else if (o1Index != null && o2Index == null) {
+        return -1;
+      } else if (o1Index == null && o2Index != null) {
+        return 1;
+      }
+      return generic.compare(o1, o2);
+    };
+  }
+
+  // Fields excluded by the user are returned by the generic formatter, keep the same behaviour.
+  private static boolean isExcluded(final String name) {
+    return ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().stream()
+        .anyMatch(name::startsWith);
+  }
+
+  private static FieldFormatter formatter(final String eventType, final String field) {
+    return switch (field) {
+      case EPCIS.TYPE ->
+          value -> eventType.equals(value) ? EPCIS.EVENT_TYPE + "=" + value + "\n" : null;
+      case EPCIS.EVENT_TIME ->
+          value ->
+              value.startsWith("urn:")
+                  ? null
+                  : EPCIS.EVENT_TIME + "=" + DATE_FORMATTER.format(Instant.parse(value));
+      case EPCIS.EVENT_TIME_ZONE_OFFSET ->
+          value -> isTimeZoneOffset(value) ? EPCIS.EVENT_TIME_ZONE_OFFSET + "=" + value : null;
+      case EPCIS.ACTION -> value -> ACTIONS.contains(value) ? EPCIS.ACTION + "=" + value : null;
+      default -> value -> vocabulary(field, value);
+    };
+  }
+
+  // bizStep and disposition are either URN, Web URI or bare string vocabularies.
+  private static String vocabulary(final String name, final String value) {
+    if (value.startsWith("urn:epc:")) {
+      // Identifier values are formatted by the generic formatter.
+      return null;
+    } else if (GS1_ATTRIBUTES_PREFIX.stream().anyMatch(value::startsWith)) {
+      return name + "=" + ConverterUtil.toWebURIVocabulary(value);
+    }
+    return name + "=" + ConverterUtil.toCbvVocabulary(value, name, EPCIS.WEBURI);
+  }
+
+  // Check for the +hh:mm or -hh:mm format of the eventTimeZoneOffset.
+  private static boolean isTimeZoneOffset(final String value) {
+    return value.length() == 6
+        && (value.charAt(0) == '+' || value.charAt(0) == '-')
+        && Character.isDigit(value.charAt(1))
+        && Character.isDigit(value.charAt(2))
+        && value.charAt(3) == ':'
+        && Character.isDigit(value.charAt(4))
+        && Character.isDigit(value.charAt(5));
+  }
+}
@@ -20,6 +20,7 @@ import jakarta.xml.bind.DatatypeConverter;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Set;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -28,97 +29,59 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class HashIdGenerator {
 
+  // Supported types of hash algorithm, SHA-256 is used for all other values.
+  private static final Set<String> HASH_ALGORITHMS =
+      Set.of(
+          "sha-1",
+          "sha-224",
+          "sha-256",
+          "sha-384",
+          "sha-512",
+          "sha3-224",
+          "sha3-256",
+          "sha3-384",
+          "sha3-512",
+          "md2",
+          "md5");
+
   // Method which accepts the pre-hash string for which SHA-256 hash-id needs to be created.
   public static String generateHashId(
       final String preHashString, final String hashAlgorithm, final CBVVersion cbvVersion)
       throws NoSuchAlgorithmException {
-    // Create the StringBuilder to append prefix, hash and suffix according to required EPCIS
-    // standard.
-    final StringBuilder hashId = new StringBuilder();
-    byte[] digest;
+    final DigestEvent digestEvent = new DigestEvent();
+    digestEvent.begin();
+    final byte[] preHash = preHashString.getBytes(StandardCharsets.UTF_8);
+    final byte[] digest = messageDigest(hashAlgorithm).digest(preHash);
+    digestEvent.commit(hashAlgorithm, preHash.length);
+    return toHashId(hashAlgorithm, digest, cbvVersion);
+  }
+
+  // Method to create the MessageDigest for the type of algorithm specified by the user. Used when
+  // the pre-hash string is not available as a single String but streamed into the digest.
+  static MessageDigest messageDigest(final String hashAlgorithm) throws NoSuchAlgorithmException {
+    return MessageDigest.getInstance(algorithmName(hashAlgorithm).toUpperCase());
+  }
 
-    // Based on the type of algorithm specified by the user, create respective type of Hash IDs.
-    switch (hashAlgorithm.toLowerCase()) {
-      case "sha-1" -> {
-        hashId.append("ni:///sha-1;");
-        digest =
-            MessageDigest.getInstance("SHA-1")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha-224" -> {
-        hashId.append("ni:///sha-224;");
-        digest =
-            MessageDigest.getInstance("SHA-224")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha-384" -> {
-        hashId.append("ni:///sha-384;");
-        digest =
-            MessageDigest.getInstance("SHA-384")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha-512" -> {
-        hashId.append("ni:///sha-512;");
-        digest =
-            MessageDigest.getInstance("SHA-512")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha3-224" -> {
-        hashId.append("ni:///sha3-224;");
-        digest =
-            MessageDigest.getInstance("SHA3-224")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha3-256" -> {
-        hashId.append("ni:///sha3-256;");
-        digest =
-            MessageDigest.getInstance("SHA3-256")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha3-384" -> {
-        hashId.append("ni:///sha3-384;");
-        digest =
-            MessageDigest.getInstance("SHA3-384")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "sha3-512" -> {
-        hashId.append("ni:///sha3-512;");
-        digest =
-            MessageDigest.getInstance("SHA3-512")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "md2" -> {
-        hashId.append("ni:///md2;");
-        digest =
-            MessageDigest.getInstance("MD2").digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      case "md5" -> {
-        hashId.append("ni:///md5;");
-        digest =
-            MessageDigest.getInstance("MD5").digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-      default -> {
-        hashId.append("ni:///sha-256;");
-        digest =
-            MessageDigest.getInstance("SHA-256")
-                .digest(preHashString.getBytes(StandardCharsets.UTF_8));
-        hashId.append(DatatypeConverter.printHexBinary(digest).toLowerCase());
-      }
-    }
+  // Method to create the Hash-ID with prefix, hash and suffix according to required EPCIS standard
+  // from the digest created by the MessageDigest.
+  static String toHashId(
+      final String hashAlgorithm, final byte[] digest, final CBVVersion cbvVersion) {
+    return "ni:///"
+        + algorithmName(hashAlgorithm)
+        + ";"
+        + DatatypeConverter.printHexBinary(digest).toLowerCase()
+        + versionSuffix(cbvVersion);
+  }
+
+  // Method to return the CBV version suffix of the Hash-ID such as ?ver=CBV2.0
+  static String versionSuffix(final CBVVersion cbvVersion) {
+    return "?ver=" + (CBVVersion.VERSION_2_0_0.equals(cbvVersion) ? "CBV2.0" : "CBV2.1");
+  }
 
-    return hashId
-        .append("?ver=")
-        .append(CBVVersion.VERSION_2_0_0.equals(cbvVersion) ? "CBV2.0" : "CBV2.1")
-        .toString();
+  // Based on the type of algorithm specified by the user, return the name of the respective type of
+  // Hash ID. SHA-256 is used for all unknown algorithms.
+  private static String algorithmName(final String hashAlgorithm) {
+    final String algorithm = hashAlgorithm.toLowerCase();
+    return HASH_ALGORITHMS.contains(algorithm) ? algorithm : "sha-256";
   }
 }
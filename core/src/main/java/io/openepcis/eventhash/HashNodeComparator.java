@@ -15,8 +15,10 @@
  */
 package io.openepcis.eventhash;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -128,60 +130,58 @@ public class HashNodeComparator implements Comparator<ContextNode> {
     return o1.getName().compareTo(o2.getName());
   }
 
-  // For nested hashnode values loop over its children and get values.
+  // For nested hashnode values loop over its children and get values. The children are traversed
+  // with an explicit stack instead of recursion.
   private String findChildren(final ContextNode node) {
-
-    // Sort the children elements as per standard before building single string for sorting from
-    // children elements
-    this.sortMap = TemplateNodeMap.findSortList(node);
-    final HashNodeComparator comparator = new HashNodeComparator(node, standardFieldSort);
-    if (!node.getChildren().isEmpty()) {
-      node.getChildren().sort(comparator);
-    }
-
     final StringBuilder childrenString = new StringBuilder();
-    final StringBuilder extensionString = new StringBuilder();
-    final ArrayList<ContextNode> children = node.getChildren();
+    final Deque<Iterator<ContextNode>> stack = new ArrayDeque<>();
+    stack.push(sortChildren(node));
+
+    while (!stack.isEmpty()) {
+      final Iterator<ContextNode> children = stack.peek();
+      if (!children.hasNext()) {
+        stack.pop();
+        continue;
+      }
+      final ContextNode child = children.next();
+      if (child == null) {
+        continue;
+      }
 
-    if (children != null) {
-      for (ContextNode child : children) {
-        if (child != null) {
-          appendChildValue(child, childrenString, extensionString);
+      if (TemplateNodeMap.isEpcisField(child) && Boolean.TRUE.equals(standardFieldSort)) {
+        // Sort only standard epcis field and ignore the extension values present in children
+        if (child.getValue() != null) {
+          // If value is present then append after formatting
+          childrenString.append(
+              contextNode.epcisFieldFormatter(child.getName(), child.getValue(), child));
+        } else {
+          // If value not present then iterate again
+          stack.push(sortChildren(child));
+        }
+      } else if (Boolean.FALSE.equals(standardFieldSort)) {
+        // For extension append to extension string only the extension elements
+        if (child.getValue() != null && child.getName() != null && child.getName().contains(":")) {
+          // If value is present then append after user-extension formatting
+          childrenString.append(
+              contextNode.userExtensionsFormatter(
+                  child.getName(), child.getValue(), child.getNamespaces()));
+        } else {
+          // If value not present then iterate again
+          stack.push(sortChildren(child));
         }
       }
     }
-
-    return Boolean.TRUE.equals(standardFieldSort)
-        ? childrenString.toString()
-        : extensionString.toString();
+    return childrenString.toString();
   }
 
-  // Method to append the values to children
-  private void appendChildValue(
-      final ContextNode child,
-      final StringBuilder childrenString,
-      final StringBuilder extensionString) {
-    // Sort only standard epcis field and ignore the extension values present in children
-    if (TemplateNodeMap.isEpcisField(child) && Boolean.TRUE.equals(standardFieldSort)) {
-      if (child.getValue() != null) {
-        // If value is present then append after formatting
-        childrenString.append(
-            contextNode.epcisFieldFormatter(child.getName(), child.getValue(), child));
-      } else {
-        // If value not present then iterate again
-        childrenString.append(findChildren(child));
-      }
-    } else if (Boolean.FALSE.equals(standardFieldSort)) {
-      // For extension append to extension string only the extension elements
-      if (child.getValue() != null && child.getName() != null && child.getName().contains(":")) {
-        // If value is present then append after user-extension formatting
-        extensionString.append(
-            contextNode.userExtensionsFormatter(
-                child.getName(), child.getValue(), child.getNamespaces()));
-      } else {
-        // If value not present then iterate again
-        extensionString.append(findChildren(child));
-      }
+  // Sort the children elements as per standard before building single string for sorting from
+  // children elements
+  private Iterator<ContextNode> sortChildren(final ContextNode node) {
+    this.sortMap = TemplateNodeMap.findSortList(node);
+    final HashNodeComparator comparator = new HashNodeComparator(node, standardFieldSort);
+    if (!node.getChildren().isEmpty()) {
+      node.getChildren().sort(comparator);
     }
+    return node.getChildren().iterator();
   }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the hash generation for a single EPCIS event. Besides the generated hashes it contains
+ * the position of the event within the document, the original eventID and the event type, so the
+ * results can be joined back to the source events without reading the document again.
+ *
+ * <p>The hash algorithms are kept in the requested order together with their values at the same
+ * index. The value of the algorithm "prehash" is the pre-hash string of the event. If hashes for
+ * both CBV versions are generated, the algorithms of the additional CBV version carry the version
+ * suffix of the Hash-ID such as sha-256?ver=CBV2.1.
+ *
+ * @param ordinal position of the event within the document or publisher, starting with 0
+ * @param eventId eventID of the event if present, otherwise null
+ * @param eventType type of the event such as ObjectEvent
+ * @param hashAlgorithms requested hash algorithms
+ * @param hashes generated hashes or pre-hash strings in the order of the hash algorithms
+ */
+public record HashResult(
+    long ordinal,
+    String eventId,
+    String eventType,
+    List<String> hashAlgorithms,
+    List<String> hashes) {
+
+  private static final String PREHASH = "prehash";
+
+  /**
+   * Return the pre-hash string of the event.
+   *
+   * @return pre-hash string if requested with the algorithm "prehash", otherwise null
+   */
+  public String preHash() {
+    return hash(PREHASH);
+  }
+
+  /**
+   * Return the hash generated for the provided hash algorithm.
+   *
+   * @param hashAlgorithm hash algorithm such as sha-256, the case is ignored
+   * @return hash of the event or null if not requested
+   */
+  public String hash(final String hashAlgorithm) {
+    for (int i = 0; i < hashAlgorithms.size(); i++) {
+      if (hashAlgorithms.get(i).equalsIgnoreCase(hashAlgorithm)) {
+        return hashes.get(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the hashes as map where key is hash algorithm and value is hash, as returned by the
+   * methods of EventHashGenerator which return a Map per event.
+   *
+   * @return hashes mapped by their hash algorithm
+   */
+  public Map<String, String> toMap() {
+    final Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < hashAlgorithms.size(); i++) {
+      map.put(hashAlgorithms.get(i), hashes.get(i));
+    }
+    return map;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.openepcis.eventhash.exception.EventHashException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull based reader of the events of an EPCIS JSON document or query document. Only a single event
+ * is held in memory at a time, the events are read from the eventList within the epcisBody when
+ * requested by the caller. A JSON array is read as plain list of events and any other JSON object
+ * which is not a document is returned as a single event. Documents may be encoded as textual JSON
+ * or as one of the binary formats of JsonFormat.
+ *
+ * <p>The fields of the document before the epcisBody, such as the @context, are available as header
+ * once the first event is read.
+ */
+final class JsonEventReader implements Iterator<ObjectNode>, Closeable {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final String EPCIS_BODY = "epcisBody";
+  private static final String EVENT_LIST = "eventList";
+
+  private final JsonParser parser;
+  private final ObjectNode header = OBJECT_MAPPER.createObjectNode();
+
+  // Number of objects entered on the way to the eventList, the document itself is depth 1.
+  private int depth;
+  private boolean inEventList;
+  private boolean document;
+  private ObjectNode next;
+
+  JsonEventReader(final InputStream jsonStream) throws IOException {
+    this(jsonStream, JsonFormat.JSON);
+  }
+
+  JsonEventReader(final InputStream jsonStream, final JsonFormat format) throws IOException {
+    this(format.factory().createParser(jsonStream));
+  }
+
+  JsonEventReader(final Reader jsonReader) throws IOException {
+    this(OBJECT_MAPPER.getFactory().createParser(jsonReader));
+  }
+
+  JsonEventReader(final ByteBuffer jsonBuffer) throws IOException {
+    this(jsonBuffer, JsonFormat.JSON);
+  }
+
+  // The parser reads the content of the buffer directly, without changing its position.
+  JsonEventReader(final ByteBuffer jsonBuffer, final JsonFormat format) throws IOException {
+    this(
+        jsonBuffer.hasArray()
+            ? format
+                .factory()
+                .createParser(
+                    jsonBuffer.array(),
+                    jsonBuffer.arrayOffset() + jsonBuffer.position(),
+                    jsonBuffer.remaining())
+            : format
+                .factory()
+                .createParser(new ByteBufferBackedInputStream(jsonBuffer.duplicate())));
+  }
+
+  private JsonEventReader(final JsonParser parser) {
+    this.parser = parser;
+  }
+
+  // Reader of a plain JSON array of events, which fails immediately if the input is no array.
+  static JsonEventReader eventList(final InputStream jsonStream) throws IOException {
+    return eventList(jsonStream, JsonFormat.JSON);
+  }
+
+  static JsonEventReader eventList(final InputStream jsonStream, final JsonFormat format)
+      throws IOException {
+    final JsonEventReader reader = new JsonEventReader(jsonStream, format);
+    if (reader.parser.nextToken() != JsonToken.START_ARRAY) {
+      reader.close();
+      throw new IOException("Expecting input as JSON array");
+    }
+    reader.document = true;
+    reader.inEventList = true;
+    return reader;
+  }
+
+  // Fields of the document read so far, outside the epcisBody.
+  ObjectNode header() {
+    return header;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = advance();
+      } catch (IOException e) {
+        throw new EventHashException(
+            "Exception occurred during reading of JSON document : " + e.getMessage(), e);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public ObjectNode next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final ObjectNode event = next;
+    next = null;
+    return event;
+  }
+
+  // Move the parser to the next event within the eventList and read it.
+  private ObjectNode advance() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null) {
+      if (inEventList) {
+        if (token == JsonToken.START_OBJECT) {
+          final ParseEvent parseEvent = new ParseEvent();
+          parseEvent.begin();
+          final ObjectNode event = OBJECT_MAPPER.readTree(parser);
+          parseEvent.commit(event);
+          return event;
+        } else if (token == JsonToken.END_ARRAY) {
+          inEventList = false;
+        } else {
+          parser.skipChildren();
+        }
+      } else if (token == JsonToken.START_OBJECT && depth == 0) {
+        depth = 1;
+      } else if (token == JsonToken.START_ARRAY && depth == 0) {
+        // The input is a plain list of events.
+        document = true;
+        inEventList = true;
+      } else if (token == JsonToken.FIELD_NAME) {
+        final String name = parser.currentName();
+        final JsonToken value = parser.nextToken();
+        if (depth == 1 && !EPCIS_BODY.equals(name)) {
+          header.set(name, OBJECT_MAPPER.readTree(parser));
+        } else if (depth == 1 && value == JsonToken.START_OBJECT) {
+          document = true;
+          depth++;
+        } else if (depth > 1 && EVENT_LIST.equals(name) && value == JsonToken.START_ARRAY) {
+          inEventList = true;
+        } else if (depth > 1 && value == JsonToken.START_OBJECT) {
+          // Enter the objects within the epcisBody such as queryResults and resultsBody.
+          depth++;
+        } else {
+          parser.skipChildren();
+        }
+      } else if (token == JsonToken.END_OBJECT && --depth == 0 && !document) {
+        // The input is a single event instead of a document.
+        document = true;
+        return header;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
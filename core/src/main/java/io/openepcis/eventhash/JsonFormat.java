@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.Locale;
+
+/**
+ * Encoding of the EPCIS JSON-LD documents read by the JSON methods of the EventHashGenerator. The
+ * binary encodings CBOR and Smile carry the same data model as textual JSON, so an event creates
+ * the same hashes in every encoding.
+ */
+public enum JsonFormat {
+
+  /** Textual JSON, application/json or application/ld+json. */
+  JSON("application/json", new JsonFactory()),
+
+  /** CBOR as defined by RFC 8949, application/cbor. */
+  CBOR("application/cbor", new CBORFactory()),
+
+  /** Smile binary JSON with its header, application/x-jackson-smile. */
+  SMILE("application/x-jackson-smile", new SmileFactory());
+
+  private final String mediaType;
+  private final JsonFactory factory;
+
+  JsonFormat(final String mediaType, final JsonFactory factory) {
+    this.mediaType = mediaType;
+    this.factory = factory;
+  }
+
+  /**
+   * @return media type of the format
+   */
+  public String mediaType() {
+    return mediaType;
+  }
+
+  JsonFactory factory() {
+    return factory;
+  }
+
+  /**
+   * @param contentType Content-Type of a document, may be null
+   * @return format of the document, JSON unless the media type is one of a binary format
+   */
+  public static JsonFormat ofContentType(final String contentType) {
+    if (contentType != null) {
+      final String mediaType = contentType.trim().toLowerCase(Locale.ROOT);
+      for (final JsonFormat format : values()) {
+        if (format != JSON && mediaType.startsWith(format.mediaType)) {
+          return format;
+        }
+      }
+    }
+    return JSON;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Non-blocking hash generation of an EPCIS JSON document, which is fed in chunks as they arrive
+ * instead of being read from an InputStream. The HashResults of the events completed by a chunk are
+ * available immediately, so a single thread can serve many documents by feeding whatever input is
+ * available, e.g. from a servlet ReadListener. A feeder is not thread-safe and created by {@link
+ * EventHashGenerator#jsonFeeder(String...)} or {@link
+ * EventHashGenerator#jsonEventListFeeder(String...)}.
+ *
+ * <pre>{@code
+ * while (input available) {
+ *   if (feeder.needsInput()) feeder.feed(buffer, 0, read(buffer));
+ *   for (HashResult r = feeder.next(); r != null; r = feeder.next()) write(r);
+ * }
+ * feeder.endOfInput();
+ * for (HashResult r = feeder.next(); r != null; r = feeder.next()) write(r);
+ * }</pre>
+ */
+public final class JsonHashFeeder implements Closeable {
+
+  private final EventHashGenerator eventHashGenerator;
+  private final NonBlockingJsonEventReader reader;
+  private final Map<String, String> contextHeader;
+  private final String[] hashAlgorithms;
+  private boolean headerAdded;
+  private long ordinal;
+
+  JsonHashFeeder(
+      final EventHashGenerator eventHashGenerator,
+      final NonBlockingJsonEventReader reader,
+      final Map<String, String> contextHeader,
+      final String... hashAlgorithms) {
+    this.eventHashGenerator = eventHashGenerator;
+    this.reader = reader;
+    this.contextHeader = contextHeader;
+    this.hashAlgorithms = hashAlgorithms;
+  }
+
+  /**
+   * @return true if the chunk fed before is read completely, only then the next chunk can be fed
+   */
+  public boolean needsInput() {
+    return reader.needsInput();
+  }
+
+  /**
+   * Method used to feed the next chunk of the document. The chunk is read directly from the array,
+   * so the array must not be changed until {@link #needsInput()} returns true again, i.e. until
+   * {@link #next()} returned null.
+   *
+   * @param buffer array containing the chunk
+   * @param offset offset of the chunk within the array
+   * @param length number of bytes of the chunk
+   * @throws IOException if the chunk fed before is not read completely
+   */
+  public void feed(final byte[] buffer, final int offset, final int length) throws IOException {
+    reader.feed(buffer, offset, length);
+  }
+
+  /** Method used to signal that the document is fed completely. */
+  public void endOfInput() {
+    reader.endOfInput();
+  }
+
+  /**
+   * @return true if the document is read completely after {@link #endOfInput()}
+   */
+  public boolean isFinished() {
+    return reader.isFinished();
+  }
+
+  /**
+   * Generate the HashResult of the next event completed by the chunks fed so far.
+   *
+   * @return HashResult with position, eventID, type and hashes of the next event, or null if more
+   *     input is needed or the document is finished
+   * @throws IOException if the document is no valid JSON or the input is not a JSON array of events
+   */
+  public HashResult next() throws IOException {
+    ObjectNode event;
+    while ((event = reader.next()) != null) {
+      // The fields of the document before the epcisBody are complete with the first event.
+      if (!headerAdded) {
+        headerAdded = true;
+        eventHashGenerator.addToContextHeader(reader.header(), contextHeader);
+      }
+      if (eventHashGenerator.isEvent(event)) {
+        return eventHashGenerator.internalResultFromObjectNode(
+            event, contextHeader, ordinal++, false, hashAlgorithms);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
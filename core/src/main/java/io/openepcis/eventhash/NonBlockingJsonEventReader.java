@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Push based reader of the events of an EPCIS JSON document, the non-blocking counterpart of the
+ * {@link JsonEventReader}. The document is fed in chunks as they arrive and an event is returned as
+ * soon as it is complete, so no thread waits for the document. Only the tokens of a single event
+ * are held in memory at a time, the documents are read exactly like by the JsonEventReader.
+ */
+final class NonBlockingJsonEventReader implements Closeable {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final String EPCIS_BODY = "epcisBody";
+  private static final String EVENT_LIST = "eventList";
+
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+  private final ObjectNode header = OBJECT_MAPPER.createObjectNode();
+
+  // True if the input must be a plain JSON array of events, until its first token is read.
+  private boolean expectEventList;
+
+  // Number of objects entered on the way to the eventList, the document itself is depth 1.
+  private int depth;
+  private boolean inEventList;
+  private boolean document;
+  private boolean finished;
+
+  // Name of the field whose value is the next token.
+  private String field;
+
+  // Depth within a value which is skipped.
+  private int skipped;
+
+  // Tokens of the event or header field being read, the field is null for an event.
+  private TokenBuffer value;
+  private int valueDepth;
+  private String valueField;
+  private ParseEvent parseEvent;
+
+  NonBlockingJsonEventReader(final boolean eventList) throws IOException {
+    this.parser = OBJECT_MAPPER.getFactory().createNonBlockingByteArrayParser();
+    this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    this.expectEventList = eventList;
+  }
+
+  // True if the chunk fed before is read completely, only then the next chunk can be fed.
+  boolean needsInput() {
+    return feeder.needMoreInput();
+  }
+
+  // The parser reads the chunk directly, so the array must not change until more input is needed.
+  void feed(final byte[] buffer, final int offset, final int length) throws IOException {
+    feeder.feedInput(buffer, offset, offset + length);
+  }
+
+  void endOfInput() {
+    feeder.endOfInput();
+  }
+
+  // True if the document is read completely after the end of the input.
+  boolean isFinished() {
+    return finished;
+  }
+
+  // Fields of the document read so far, outside the epcisBody.
+  ObjectNode header() {
+    return header;
+  }
+
+  // Read the tokens fed so far until the next event is complete, null if more input is needed or
+  // the document is finished.
+  ObjectNode next() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE) {
+      if (token == null) {
+        finished = true;
+        return null;
+      }
+      final ObjectNode event = accept(token);
+      if (event != null) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  private ObjectNode accept(final JsonToken token) throws IOException {
+    if (value != null) {
+      value.copyCurrentEvent(parser);
+      if (token.isStructStart()) {
+        valueDepth++;
+      } else if (token.isStructEnd()) {
+        valueDepth--;
+      }
+      return valueDepth == 0 ? readValue() : null;
+    }
+    if (skipped > 0) {
+      if (token.isStructStart()) {
+        skipped++;
+      } else if (token.isStructEnd()) {
+        skipped--;
+      }
+      return null;
+    }
+    if (field != null) {
+      final String name = field;
+      field = null;
+      return fieldValue(name, token);
+    }
+    if (expectEventList) {
+      expectEventList = false;
+      if (token != JsonToken.START_ARRAY) {
+        throw new IOException("Expecting input as JSON array");
+      }
+      document = true;
+      inEventList = true;
+      return null;
+    }
+
+    if (inEventList) {
+      if (token == JsonToken.START_OBJECT) {
+        parseEvent = new ParseEvent();
+        parseEvent.begin();
+        return startValue(token, null);
+      } else if (token == JsonToken.END_ARRAY) {
+        inEventList = false;
+      } else {
+        skip(token);
+      }
+    } else if (token == JsonToken.START_OBJECT && depth == 0) {
+      depth = 1;
+    } else if (token == JsonToken.START_ARRAY && depth == 0) {
+      // The input is a plain list of events.
+      document = true;
+      inEventList = true;
+    } else if (token == JsonToken.FIELD_NAME) {
+      field = parser.currentName();
+    } else if (token == JsonToken.END_OBJECT && --depth == 0 && !document) {
+      // The input is a single event instead of a document.
+      document = true;
+      return header;
+    }
+    return null;
+  }
+
+  private ObjectNode fieldValue(final String name, final JsonToken token) throws IOException {
+    if (depth == 1 && !EPCIS_BODY.equals(name)) {
+      return startValue(token, name);
+    } else if (depth == 1 && token == JsonToken.START_OBJECT) {
+      document = true;
+      depth++;
+    } else if (depth > 1 && EVENT_LIST.equals(name) && token == JsonToken.START_ARRAY) {
+      inEventList = true;
+    } else if (depth > 1 && token == JsonToken.START_OBJECT) {
+      // Enter the objects within the epcisBody such as queryResults and resultsBody.
+      depth++;
+    } else {
+      skip(token);
+    }
+    return null;
+  }
+
+  private ObjectNode startValue(final JsonToken token, final String name) throws IOException {
+    value = new TokenBuffer(parser);
+    value.copyCurrentEvent(parser);
+    valueDepth = token.isStructStart() ? 1 : 0;
+    valueField = name;
+    return valueDepth == 0 ? readValue() : null;
+  }
+
+  // The value is complete, an event is returned and a header field is added to the header.
+  private ObjectNode readValue() throws IOException {
+    final JsonNode node;
+    try (JsonParser tokens = value.asParser()) {
+      node = OBJECT_MAPPER.readTree(tokens);
+    }
+    value = null;
+    if (valueField != null) {
+      header.set(valueField, node);
+      valueField = null;
+      return null;
+    }
+    parseEvent.commit(node);
+    parseEvent = null;
+    return (ObjectNode) node;
+  }
+
+  private void skip(final JsonToken token) {
+    if (token.isStructStart()) {
+      skipped = 1;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.openepcis.constants.EPCIS;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for reading an EPCIS event from the document: into an ObjectNode for JSON, into a
+ * ContextNode for XML. Like all JFR events, it is only populated and committed while a recording
+ * with the event enabled is running.
+ */
+@Name("io.openepcis.eventhash.Parse")
+@Label("Parse EPCIS Event")
+@Category({"OpenEPCIS", "Event Hash"})
+@Description("Reading of an EPCIS event from the JSON or XML document")
+@StackTrace(false)
+final class ParseEvent extends Event {
+
+  static final String JSON = "json";
+  static final String XML = "xml";
+
+  @Label("Format")
+  String format;
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Node Count")
+  @Description("Number of fields, array elements and EPCs of the event")
+  int nodeCount;
+
+  void commit(final JsonNode event) {
+    if (shouldCommit()) {
+      format = JSON;
+      eventType = event.path(EPCIS.TYPE).asText();
+      nodeCount = nodeCount(event);
+      commit();
+    }
+  }
+
+  void commit(final ContextNode event) {
+    if (shouldCommit()) {
+      format = XML;
+      eventType = event.eventType();
+      nodeCount = event.nodeCount();
+      commit();
+    }
+  }
+
+  private static int nodeCount(final JsonNode node) {
+    int count = 0;
+    final Deque<JsonNode> stack = new ArrayDeque<>();
+    stack.push(node);
+    while (!stack.isEmpty()) {
+      final JsonNode n = stack.pop();
+      count++;
+      n.elements().forEachRemaining(stack::push);
+    }
+    return count;
+  }
+}
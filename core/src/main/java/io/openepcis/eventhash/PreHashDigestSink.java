@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consumer which streams the pieces of a pre-hash string into one or more MessageDigests. The bytes
+ * passed to the digests are identical to the bytes of the complete pre-hash string after trimming
+ * it and removing all line breaks, as done for pre-hash strings held in memory.
+ */
+final class PreHashDigestSink implements Consumer<String> {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private final List<MessageDigest> digests;
+  private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE);
+
+  // Whitespace which is only added if followed by other characters, trailing whitespace is trimmed.
+  private final StringBuilder whitespace = new StringBuilder();
+  private boolean started;
+  private long length;
+
+  PreHashDigestSink(final List<MessageDigest> digests) {
+    this.digests = digests;
+  }
+
+  @Override
+  public void accept(final String s) {
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c == '\n' || c == '\r') {
+        continue;
+      }
+      if (c <= ' ') {
+        // Leading whitespace is trimmed.
+        if (started) {
+          whitespace.append(c);
+        }
+        continue;
+      }
+      started = true;
+      if (!whitespace.isEmpty()) {
+        chunk.append(whitespace);
+        whitespace.setLength(0);
+      }
+      chunk.append(c);
+    }
+    if (chunk.length() >= CHUNK_SIZE) {
+      flush();
+    }
+  }
+
+  // Pass the remaining characters to the digests and return the digest of every MessageDigest.
+  byte[][] digest() {
+    flush();
+    final byte[][] result = new byte[digests.size()][];
+    for (int i = 0; i < digests.size(); i++) {
+      result[i] = digests.get(i).digest();
+    }
+    return result;
+  }
+
+  // Number of bytes passed to the digests so far.
+  long length() {
+    return length;
+  }
+
+  private void flush() {
+    if (!chunk.isEmpty()) {
+      final byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+      length += bytes.length;
+      for (final MessageDigest digest : digests) {
+        digest.update(bytes);
+      }
+      chunk.setLength(0);
+    }
+  }
+}
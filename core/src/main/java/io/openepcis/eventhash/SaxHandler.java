@@ -22,6 +22,7 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import lombok.Setter;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -41,6 +42,13 @@ public class SaxHandler extends DefaultHandler {
 
   @Setter private MultiEmitter<? super ContextNode> emitter;
 
+  // Alternative to the emitter, used if the events are pulled by the caller.
+  @Setter private Consumer<ContextNode> eventConsumer;
+
+  // Number of EPCs of an EPC list held in memory, larger lists are sorted in chunks on disk.
+  @Setter
+  private int epcListSpillThreshold = ConstantEventHashInfo.getContext().getEpcListSpillThreshold();
+
   @Override
   public void startElement(
       final String uri, final String localName, final String qName, final Attributes attributes) {
@@ -91,6 +99,8 @@ public class SaxHandler extends DefaultHandler {
     } else if (currentNode != null
         && ConstantEventHashInfo.WHAT_DIMENSION_XML_PATH.stream()
             .noneMatch(getXMLPath()::startsWith)) {
+      // Other elements within the EPC list are handled by the generic engine.
+      currentNode.inflateEpcs();
       ContextNode n = new ContextNode(currentNode, qName, (String) null);
       currentNode.children.add(n);
       currentNode = n;
@@ -99,15 +109,23 @@ public class SaxHandler extends DefaultHandler {
 
   @Override
   public void characters(char[] ch, int start, int length) {
-    // Ignore the non-required elements such as errorDeclaration, recordTime, etc.
-    if (ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().stream()
-        .noneMatch(getXMLPath()::contains)) {
+    // Ignore the non-required elements such as errorDeclaration, recordTime, etc. except the
+    // eventID which is kept for the HashResult.
+    if (isEventId()
+        || ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().stream()
+            .noneMatch(getXMLPath()::contains)) {
       currentValue.append(ch, start, length);
     }
   }
 
   @Override
   public void endElement(final String uri, final String localName, final String qName) {
+    // Keep the eventID of the event, which is not part of the pre-hash string but returned with the
+    // HashResult.
+    if (isEventId() && rootNode.getEventId() == null) {
+      rootNode.setEventId(currentValue.toString().trim());
+    }
+
     if (ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().stream()
         .noneMatch(getXMLPath()::contains)) {
       // Do not store the values for the fields which needs to be ignored such as EPCISDocument,
@@ -123,7 +141,11 @@ public class SaxHandler extends DefaultHandler {
       if (ConstantEventHashInfo.EPCIS_EVENT_TYPES.contains(qName)) {
         // After reading each XML event and converting it to ContextNode store the information in
         // rootNodes.
-        emitter.emit(rootNode);
+        if (eventConsumer != null) {
+          eventConsumer.accept(rootNode);
+        } else {
+          emitter.emit(rootNode);
+        }
 
         // After creating the pre-hash string and generating Hash-ID discard the rootNode
         // information for subsequent event.
@@ -140,10 +162,18 @@ public class SaxHandler extends DefaultHandler {
       path.pop();
     } else if (ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash().stream()
         .anyMatch(getXMLPath()::contains)) {
+      if (isEventId()) {
+        currentValue.setLength(0);
+      }
       path.pop();
     }
   }
 
+  // Check if the current element is the eventID of the event.
+  private boolean isEventId() {
+    return rootNode != null && EPCIS.EVENT_ID.equals(path.peek());
+  }
+
   // Private method called by endElement to write the values. Splitting the method to avoid the
   // cognitive complexity.
   private void xmlParser(final String qName) {
@@ -155,7 +185,14 @@ public class SaxHandler extends DefaultHandler {
 
     // Handle WHAT dimension: Add to children for complex fields.
     if (ConstantEventHashInfo.WHAT_DIMENSION_XML_PATH.stream().anyMatch(p::startsWith)) {
-      currentNode.children.add(new ContextNode(currentNode, path.peek(), value));
+      if (isCompactEpc(value)) {
+        // EPC lists of the event contain only the instance identifiers, so store them in compact
+        // form.
+        currentNode.addEpc(value, epcListSpillThreshold);
+      } else {
+        currentNode.inflateEpcs();
+        currentNode.children.add(new ContextNode(currentNode, path.peek(), value));
+      }
     } else {
       // Handle WHY and HOW dimensions.
       if (ConstantEventHashInfo.WHY_DIMENSION_XML_PATH.stream().anyMatch(p::startsWith)
@@ -178,6 +215,7 @@ public class SaxHandler extends DefaultHandler {
         // Add filtered attributes to children for userExtensions and other fields wherever
         // attributes present
         if (MapUtils.isNotEmpty(currentAttributes)) {
+          currentNode.inflateEpcs();
           currentAttributes.entrySet().stream()
               .filter(
                   attr -> !attr.getKey().startsWith("xsi:") && !attr.getValue().startsWith("xsd:"))
@@ -192,10 +230,22 @@ public class SaxHandler extends DefaultHandler {
     }
   }
 
+  // Check if the value can be added to the compact EPC list of an EPC list directly within the
+  // event.
+  private boolean isCompactEpc(final String value) {
+    return value != null
+        && EPCIS.EPC.equals(path.peek())
+        && currentNode.getParent() == rootNode
+        && currentNode.getChildren().isEmpty()
+        && ConstantEventHashInfo.EPC_LISTS.contains(currentNode.getName());
+  }
+
   @Override
   public void endDocument() throws SAXException {
     super.endDocument();
-    emitter.complete();
+    if (emitter != null) {
+      emitter.complete();
+    }
   }
 
   private String getXMLPath() {
@@ -18,7 +18,6 @@ package io.openepcis.eventhash;
 import io.openepcis.constants.EPCIS;
 import io.openepcis.eventhash.constant.ConstantEventHashInfo;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 
 public class TemplateNodeMap extends LinkedHashMap<String, Object> {
 
@@ -108,6 +107,10 @@ public class TemplateNodeMap extends LinkedHashMap<String, Object> {
     path.push(node.getName() != null ? node.getName() : "");
     ContextNode parent = node.getParent();
 
+    // Names already present within the path, avoids the linear search within the path for deeply
+    // nested elements.
+    final Set<String> names = new HashSet<>(path);
+
     // If the incoming node has complex structure and has the children elements then add children
     // elements into the stack.
     // Add only those elements to Deque which are part of the EPCIS standard. Do not add the
@@ -115,15 +118,17 @@ public class TemplateNodeMap extends LinkedHashMap<String, Object> {
     // QuantityElement
     while (parent != null) {
       if (parent.getName() != null
-          && !path.contains(parent.getName())
+          && !names.contains(parent.getName())
           && (!ConstantEventHashInfo.LIST_OF_OBJECTS.containsValue(parent.getName())
               || EPCIS.SENSOR_REPORT.equals(parent.getName()))) {
         path.push(parent.getName());
+        names.add(parent.getName());
       } else if (parent.getParent() != null
           && parent.getParent().getName() != null
           && (!ConstantEventHashInfo.LIST_OF_OBJECTS.containsValue(parent.getParent().getName())
               || EPCIS.SENSOR_REPORT.equals(parent.getParent().getName()))) {
         path.push(parent.getParent().getName());
+        names.add(parent.getParent().getName());
       }
       parent = parent.getParent();
     }
@@ -132,36 +137,32 @@ public class TemplateNodeMap extends LinkedHashMap<String, Object> {
 
   // Method to check if the field contains the user extensions as its children elements. If so then
   // EPCIS field tag needs to be added to differentiate the different types of User-Extensions.
+  // The children are traversed with an explicit stack instead of recursion.
   public static boolean addExtensionWrapperTag(final ContextNode node) {
-    if (node.getName() != null && isEpcisField(node)) {
-      final AtomicReference<Integer> found = new AtomicReference<>(0);
+    final Deque<ContextNode> stack = new ArrayDeque<>();
+    stack.push(node);
+
+    while (!stack.isEmpty()) {
+      final ContextNode current = stack.pop();
+      if (current.getName() == null || !isEpcisField(current)) {
+        continue;
+      }
+
       // Special handling for SensorElementList & SensorElement tag, so it can be added once if the
       // SensorElements have the UserExtensions present within them.
-      if (ConstantEventHashInfo.USER_EXTENSION_WRAPPER.stream().anyMatch(node.getName()::equals)) {
-        node.getChildren()
-            .forEach(
-                sensorChild -> {
-                  if (addExtensionWrapperTag(sensorChild)) {
-                    found.set(found.get() + 1);
-                  }
-                });
+      if (ConstantEventHashInfo.USER_EXTENSION_WRAPPER.stream()
+          .anyMatch(current.getName()::equals)) {
+        current.getChildren().forEach(stack::push);
       } else {
         // For all other fields except sensorElementList & SensorElement
-        node.getChildren()
-            .forEach(
-                element -> {
-                  if (!element.getChildren().isEmpty()) {
-                    if (addExtensionWrapperTag(element)) {
-                      found.set(found.get() + 1);
-                    }
-                  } else if (element.getChildren().isEmpty()
-                      && element.getName() != null
-                      && !isEpcisField(element)) {
-                    found.set(found.get() + 1);
-                  }
-                });
+        for (final ContextNode element : current.getChildren()) {
+          if (!element.getChildren().isEmpty()) {
+            stack.push(element);
+          } else if (element.getName() != null && !isEpcisField(element)) {
+            return true;
+          }
+        }
       }
-      return found.get() > 0;
     }
     return false;
   }
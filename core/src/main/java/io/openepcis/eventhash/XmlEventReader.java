@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.eventhash.exception.EventHashException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Pull based reader of the events of an EPCIS XML document. The document is read with StAX and
+ * every XML element is passed to the SaxHandler, so the events are converted to exactly the same
+ * ContextNodes as during SAX parsing. The document is only read until the next event is complete.
+ */
+final class XmlEventReader implements Iterator<ContextNode>, Closeable {
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+  static {
+    // Do not allow any DTD or external entities in the XML documents.
+    XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private final Closeable input;
+  private final XMLStreamReader reader;
+  private final SaxHandler saxHandler = new SaxHandler();
+  private final Deque<ContextNode> events = new ArrayDeque<>();
+
+  XmlEventReader(final InputStream xmlStream) {
+    this.input = xmlStream;
+    try {
+      this.reader = XML_INPUT_FACTORY.createXMLStreamReader(xmlStream);
+    } catch (XMLStreamException e) {
+      throw readException(e);
+    }
+    saxHandler.setEventConsumer(events::add);
+  }
+
+  XmlEventReader(final Reader xmlReader) {
+    this.input = xmlReader;
+    try {
+      this.reader = XML_INPUT_FACTORY.createXMLStreamReader(xmlReader);
+    } catch (XMLStreamException e) {
+      throw readException(e);
+    }
+    saxHandler.setEventConsumer(events::add);
+  }
+
+  // Set the number of EPCs of an EPC list held in memory before the first event is read.
+  void epcListSpillThreshold(final int threshold) {
+    saxHandler.setEpcListSpillThreshold(threshold);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (events.isEmpty()) {
+      final ParseEvent parseEvent = new ParseEvent();
+      parseEvent.begin();
+      try {
+        while (events.isEmpty() && reader.hasNext()) {
+          readNext();
+        }
+      } catch (XMLStreamException e) {
+        throw readException(e);
+      }
+      if (!events.isEmpty()) {
+        parseEvent.commit(events.peek());
+      }
+    }
+    return !events.isEmpty();
+  }
+
+  @Override
+  public ContextNode next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return events.poll();
+  }
+
+  // Read the next XML element and pass it to the SaxHandler.
+  private void readNext() throws XMLStreamException {
+    switch (reader.next()) {
+      case XMLStreamConstants.START_ELEMENT -> {
+        final AttributesImpl attributes = new AttributesImpl();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+          final String prefix = reader.getNamespacePrefix(i);
+          attributes.addAttribute(
+              "",
+              "",
+              prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+              "CDATA",
+              reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+          attributes.addAttribute(
+              "",
+              "",
+              qName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+              "CDATA",
+              reader.getAttributeValue(i));
+        }
+        saxHandler.startElement(
+            "", "", qName(reader.getPrefix(), reader.getLocalName()), attributes);
+      }
+      case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+          saxHandler.characters(
+              reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      case XMLStreamConstants.END_ELEMENT ->
+          saxHandler.endElement("", "", qName(reader.getPrefix(), reader.getLocalName()));
+      case XMLStreamConstants.DTD ->
+          throw new XMLStreamException("DOCTYPE is not allowed", reader.getLocation());
+      default -> {
+        // Comments, processing instructions and the document boundaries are not required.
+      }
+    }
+  }
+
+  private static EventHashException readException(final XMLStreamException e) {
+    return new EventHashException(
+        "Exception occurred during reading of XML document : " + e.getMessage(), e);
+  }
+
+  private static String qName(final String prefix, final String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    } finally {
+      input.close();
+    }
+  }
+
+  // Close the reader after all events are read or the subscription is cancelled.
+  void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      // ignored, the events are already processed
+    }
+  }
+}
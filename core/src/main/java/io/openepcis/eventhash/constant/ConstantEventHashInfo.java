@@ -79,6 +79,7 @@ public class ConstantEventHashInfo {
               "rdfs:comment",
               "#text",
               "comment"));
+  public static final int DEFAULT_MAX_DEPTH = 1024;
   public static final DateTimeFormatter DATE_FORMATTER =
       new DateTimeFormatterBuilder().appendInstant(3).toFormatter();
 
@@ -167,6 +168,15 @@ public class ConstantEventHashInfo {
   public final List<String> FIELDS_TO_EXCLUDE_IN_PREHASH =
       new ArrayList<>(DEFAULT_FIELDS_TO_EXCLUDE_IN_PREHASH);
 
+  // Default number of EPCs of an epcList, childEPCs, inputEPCList or outputEPCList kept in memory
+  // by new EventHashGenerators. Larger lists are sorted in chunks which are written to temporary
+  // files.
+  private volatile int epcListSpillThreshold = Integer.MAX_VALUE;
+
+  // Default maximum depth of nested elements within an EPCIS event of new EventHashGenerators,
+  // mainly to limit deeply nested user extensions.
+  private volatile int maxDepth = DEFAULT_MAX_DEPTH;
+
   static {
     BARE_STRING_FIELD_PARENT_CHILD.put(EPCIS.BIZ_STEP, EPCIS.BIZ_STEP);
     BARE_STRING_FIELD_PARENT_CHILD.put(EPCIS.DISPOSITION, EPCIS.DISPOSITION);
@@ -204,4 +214,20 @@ public class ConstantEventHashInfo {
   public List<String> getFieldsToExcludeInPrehash() {
     return FIELDS_TO_EXCLUDE_IN_PREHASH;
   }
+
+  public int getEpcListSpillThreshold() {
+    return epcListSpillThreshold;
+  }
+
+  public void setEpcListSpillThreshold(final int epcListSpillThreshold) {
+    this.epcListSpillThreshold = epcListSpillThreshold;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public void setMaxDepth(final int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.exception;
+
+import java.time.Duration;
+
+/** Thrown if a document is not admitted because the limits of the documents in flight are hit. */
+public class AdmissionException extends EventHashException {
+
+  private final transient Duration retryAfter;
+
+  public AdmissionException(String msg, Duration retryAfter) {
+    super(msg);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return time after which the client may retry the request
+   */
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
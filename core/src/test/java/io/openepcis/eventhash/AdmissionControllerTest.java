@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.exception.AdmissionException;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure documents over the limits are rejected until the documents in flight complete.
+public class AdmissionControllerTest {
+
+  private static final int EVENTS = 10;
+
+  @Test
+  public void documentLimitTest() throws IOException {
+    final AdmissionController admission = new AdmissionController();
+    admission.maxDocuments(2);
+    admission.retryAfter(Duration.ofSeconds(5));
+
+    final AssertSubscriber<Map<String, String>> first =
+        admit(admission).subscribe().withSubscriber(AssertSubscriber.create(1));
+    final AssertSubscriber<Map<String, String>> second =
+        admit(admission).subscribe().withSubscriber(AssertSubscriber.create(1));
+    assertEquals(2, admission.documents());
+    assertTrue(admission.saturated());
+    final AdmissionException rejected =
+        assertThrows(AdmissionException.class, () -> admit(admission));
+    assertEquals(Duration.ofSeconds(5), rejected.getRetryAfter());
+    assertEquals(2, admission.documents());
+
+    first.request(EVENTS).awaitCompletion();
+    assertEquals(1, admission.documents());
+    assertFalse(admission.saturated());
+    admit(admission).subscribe().withSubscriber(AssertSubscriber.create(EVENTS)).awaitCompletion();
+
+    second.cancel();
+    assertEquals(0, admission.documents());
+    assertEquals(0, admission.bytes());
+    assertEquals(0, admission.events());
+  }
+
+  @Test
+  public void bytesAndEventsLimitTest() throws IOException {
+    final AdmissionController admission = new AdmissionController();
+    admission.maxBytes(1);
+    final AssertSubscriber<Map<String, String>> inFlight =
+        admit(admission).subscribe().withSubscriber(AssertSubscriber.create(1));
+    inFlight.awaitItems(1);
+    assertTrue(admission.bytes() > 0);
+    assertThrows(AdmissionException.class, () -> admit(admission));
+    assertThrows(AdmissionException.class, admission::check);
+    inFlight.cancel();
+    admission.check();
+
+    admission.maxBytes(Long.MAX_VALUE);
+    admission.maxEvents(EVENTS);
+    final AssertSubscriber<Map<String, String>> events =
+        admit(admission).subscribe().withSubscriber(AssertSubscriber.create(EVENTS - 1));
+    events.awaitItems(EVENTS - 1);
+    assertEquals(EVENTS - 1, admission.events());
+    admit(admission).subscribe().withSubscriber(AssertSubscriber.create(1)).awaitItems(1);
+    assertTrue(admission.saturated());
+    assertThrows(AdmissionException.class, () -> admit(admission));
+  }
+
+  @Test
+  public void inFlightTest() {
+    final AdmissionController admission = new AdmissionController();
+    admission.maxDocuments(1);
+    final AdmissionController.InFlight inFlight = admission.admit();
+    assertThrows(AdmissionException.class, admission::admit);
+    inFlight.read(100);
+    inFlight.hashed();
+    assertEquals(100, admission.bytes());
+    assertEquals(1, admission.events());
+
+    inFlight.release();
+    inFlight.release();
+    inFlight.read(100);
+    assertEquals(0, admission.documents());
+    assertEquals(0, admission.bytes());
+    assertEquals(0, admission.events());
+    admission.admit().release();
+  }
+
+  private static Multi<Map<String, String>> admit(final AdmissionController admission)
+      throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(EVENTS);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    return admission.admit(
+        new ByteArrayInputStream(generator.toByteArray(WorkloadGenerator.Format.JSON)),
+        document -> eventHashGenerator.fromJson(document, "sha-256", "sha3-256"));
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.workload.EventType;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the bytes allocated per hashed event do not exceed the budgets recorded in
+// allocation-budget.properties. Allocation is the main source of GC pressure in production, so a
+// change to ContextNode or HashNodeComparator must not raise it unnoticed. The documents are hashed
+// through the synchronous Stream API, after a warm-up, and the bytes allocated by all threads are
+// taken from ThreadMXBean.getThreadAllocatedBytes. Fixtures without a budget fail. The budgets
+// depend on the JVM, so the test runs with the allocation-tests profile only, on the JVM the
+// budgets were recorded with. Record them again after an intended change or a new fixture with:
+// mvn test -Pallocation-tests -pl core -Dtest=AllocationBudgetTest
+// -Deventhash.allocation.record=src/test/resources/allocation-budget.properties
+@Slf4j
+@Tag("allocation")
+public class AllocationBudgetTest {
+
+  private static final String RECORD = "eventhash.allocation.record";
+
+  private static final String BUDGETS = "allocation-budget.properties";
+
+  // Allowed allocation above the budget, for differences between the runs of the JIT.
+  private static final double TOLERANCE = 0.1;
+
+  private static final int WARMUP = 50;
+
+  private static final int ITERATIONS = 10;
+
+  private static final List<String> DOCUMENTS =
+      List.of(
+          "AggregationEvent",
+          "AggregationEvent_all_possible_fields",
+          "AggregationEvent_with_userExtensions",
+          "Combination_of_different_event",
+          "CurieString_document",
+          "JumbledFieldsOrder",
+          "ObjectEvent",
+          "ObjectEvent_all_possible_fields",
+          "ObjectEvent_with_error_declaration",
+          "ObjectEvent_with_sensorData",
+          "ObjectEvent_with_userExtensions",
+          "SensorData_with_combined_events",
+          "TransactionEvent_all_possible_fields",
+          "TransactionEvent_with_userExtensions",
+          "TransformationEvent_all_possible_fields",
+          "TransformationEvent_with_userExtensions");
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final Properties budgets = new Properties();
+  private static final Map<String, Long> recorded = new TreeMap<>();
+
+  private final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+
+  @BeforeAll
+  public static void loadBudgets() throws IOException {
+    try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/" + BUDGETS)) {
+      budgets.load(in);
+    }
+  }
+
+  @AfterAll
+  public static void recordBudgets() throws IOException {
+    final String record = System.getProperty(RECORD);
+    if (record != null) {
+      final List<String> lines = new ArrayList<>();
+      lines.add("# bytes allocated per hashed event, recorded with Java " + Runtime.version());
+      recorded.forEach((fixture, bytes) -> lines.add(fixture + "=" + bytes));
+      Files.write(Path.of(record), lines);
+    }
+  }
+
+  @Test
+  public void captureDocumentsTest() throws IOException {
+    final List<String> failures = new ArrayList<>();
+    for (String document : DOCUMENTS) {
+      for (String format : List.of("json", "xml")) {
+        final String resource =
+            "2.0/EPCIS/" + format.toUpperCase() + "/Capture/Documents/" + document + "." + format;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+          assertNotNull(in, resource);
+          check(resource, format, in.readAllBytes(), failures);
+        }
+      }
+    }
+    assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+  }
+
+  @Test
+  public void workloadTest() throws IOException {
+    final List<String> failures = new ArrayList<>();
+    final Map<String, WorkloadGenerator> workloads = new TreeMap<>();
+    workloads.put("simple", workload(10, EventType.OBJECT_EVENT, 3, 0, 0));
+    workloads.put("sensor", workload(1, EventType.OBJECT_EVENT, 1, 20, 0));
+    workloads.put("extension", workload(10, EventType.OBJECT_EVENT, 1, 0, 4));
+    workloads.put("aggregation", workload(1, EventType.AGGREGATION_EVENT, 10_000, 0, 0));
+    for (Map.Entry<String, WorkloadGenerator> workload : workloads.entrySet()) {
+      check(
+          "workload/" + workload.getKey() + ".json",
+          "json",
+          workload.getValue().toByteArray(WorkloadGenerator.Format.JSON),
+          failures);
+      check(
+          "workload/" + workload.getKey() + ".xml",
+          "xml",
+          workload.getValue().toByteArray(WorkloadGenerator.Format.XML),
+          failures);
+    }
+    assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+  }
+
+  private static WorkloadGenerator workload(
+      final long events,
+      final EventType type,
+      final int epcs,
+      final int sensorElements,
+      final int extensionDepth) {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(events);
+    generator.eventMix(Map.of(type, 1));
+    generator.epcs(epcs);
+    generator.sensors(sensorElements, 10);
+    generator.extensions(10, extensionDepth);
+    return generator;
+  }
+
+  // Measure the bytes allocated per event and compare them with the budget of the fixture. The
+  // minimum of several iterations is taken, as other threads of the JVM may allocate meanwhile.
+  private void check(
+      final String fixture, final String format, final byte[] document, final List<String> failures)
+      throws IOException {
+    for (int i = 0; i < WARMUP; i++) {
+      hash(format, document);
+    }
+    long events = 0;
+    long bytes = Long.MAX_VALUE;
+    for (int i = 0; i < ITERATIONS; i++) {
+      final Map<Long, Long> before = allocatedBytes();
+      events = hash(format, document);
+      bytes = Math.min(bytes, allocatedSince(before));
+    }
+    final long perEvent = bytes / events;
+    recorded.put(fixture, perEvent);
+
+    final String budget = budgets.getProperty(fixture);
+    if (System.getProperty(RECORD) != null) {
+      log.info("{}: {} bytes per event recorded", fixture, perEvent);
+    } else if (budget == null) {
+      failures.add(fixture + ": no budget recorded, " + perEvent + " bytes per event");
+    } else if (perEvent > Long.parseLong(budget) * (1 + TOLERANCE)) {
+      failures.add(
+          fixture + ": " + perEvent + " bytes per event exceed the budget of " + budget + " bytes");
+    }
+  }
+
+  private long hash(final String format, final byte[] document) throws IOException {
+    try (Stream<HashResult> results =
+        format.equals("json")
+            ? eventHashGenerator.streamFromJson(new ByteArrayInputStream(document), "sha-256")
+            : eventHashGenerator.streamFromXml(new ByteArrayInputStream(document), "sha-256")) {
+      return results.count();
+    }
+  }
+
+  // Bytes allocated so far by each live thread.
+  private static Map<Long, Long> allocatedBytes() {
+    final long[] ids = THREADS.getAllThreadIds();
+    final long[] allocated = THREADS.getThreadAllocatedBytes(ids);
+    final Map<Long, Long> bytes = new HashMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      if (allocated[i] >= 0) {
+        bytes.put(ids[i], allocated[i]);
+      }
+    }
+    return bytes;
+  }
+
+  // Bytes allocated by the threads which are still alive, e.g. when sorting large EPC lists in
+  // parallel, since the given snapshot.
+  private static long allocatedSince(final Map<Long, Long> before) {
+    long bytes = 0;
+    for (Map.Entry<Long, Long> thread : allocatedBytes().entrySet()) {
+      bytes += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import io.openepcis.eventhash.exception.EventHashException;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure compressed documents create the same hashes as the uncompressed documents.
+public class ContentEncodingTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  @Test
+  public void decodeTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(3);
+    generator.events(200);
+    generator.extensions(2, 2);
+    final byte[] json = generator.toByteArray(WorkloadGenerator.Format.JSON);
+    final byte[] xml = generator.toByteArray(WorkloadGenerator.Format.XML);
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<Map<String, String>> expectedJson = json(eventHashGenerator, stream(json));
+    final List<Map<String, String>> expectedXml = xml(eventHashGenerator, stream(xml));
+    assertEquals(200, expectedJson.size());
+
+    for (final String encoding : List.of("gzip", "x-gzip", "deflate", "zstd", "deflate, GZIP")) {
+      assertTrue(ContentEncoding.isSupported(encoding));
+      assertEquals(
+          expectedJson,
+          json(
+              eventHashGenerator, ContentEncoding.decode(stream(encode(json, encoding)), encoding)),
+          encoding);
+      assertEquals(
+          expectedXml,
+          xml(eventHashGenerator, ContentEncoding.decode(stream(encode(xml, encoding)), encoding)),
+          encoding);
+    }
+  }
+
+  @Test
+  public void unsupportedTest() {
+    final InputStream document = stream(new byte[0]);
+    assertSame(document, ContentEncoding.decode(document, null));
+    assertSame(document, ContentEncoding.decode(document, "identity"));
+    assertFalse(ContentEncoding.isEncoded("identity"));
+    assertFalse(ContentEncoding.isSupported("br"));
+    assertFalse(ContentEncoding.isSupported("gzip, br"));
+    assertThrows(EventHashException.class, () -> ContentEncoding.decode(document, "gzip, br"));
+  }
+
+  @Test
+  public void fileNameTest() {
+    assertEquals(ContentEncoding.GZIP, ContentEncoding.ofFileName("events.XML.GZ"));
+    assertEquals(ContentEncoding.ZSTD, ContentEncoding.ofFileName("https://example.com/e.zst"));
+    assertNull(ContentEncoding.ofFileName("events.json"));
+    assertEquals("events.xml", ContentEncoding.stripExtension("events.xml.gz"));
+    assertEquals("events.json", ContentEncoding.stripExtension("events.json.zst"));
+    assertEquals("events.json", ContentEncoding.stripExtension("events.json"));
+  }
+
+  // Encode the document with the encodings in the order they are listed.
+  private static byte[] encode(final byte[] document, final String contentEncoding)
+      throws IOException {
+    byte[] encoded = document;
+    for (final String encoding : contentEncoding.split(",")) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (OutputStream out =
+          switch (encoding.trim().toLowerCase()) {
+            case "gzip", "x-gzip" -> new GZIPOutputStream(bytes);
+            case "deflate" -> new DeflaterOutputStream(bytes);
+            default -> new ZstdOutputStream(bytes);
+          }) {
+        out.write(encoded);
+      }
+      encoded = bytes.toByteArray();
+    }
+    return encoded;
+  }
+
+  private static InputStream stream(final byte[] bytes) {
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static List<Map<String, String>> json(
+      final EventHashGenerator eventHashGenerator, final InputStream document) throws IOException {
+    return eventHashGenerator
+        .<Map<String, String>>fromJson(document, HASH_ALGORITHMS)
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+
+  private static List<Map<String, String>> xml(
+      final EventHashGenerator eventHashGenerator, final InputStream document) {
+    return eventHashGenerator
+        .<Map<String, String>>fromXml(document, HASH_ALGORITHMS)
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.constants.CBVVersion;
+import io.openepcis.eventhash.exception.EventHashException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure deeply nested user extensions do not end in a StackOverflowError.
+public class DeepExtensionTest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final int DEPTH = 1000;
+
+  // Stack size of the thread generating the hashes, far too small for a recursive traversal of
+  // DEPTH nested elements.
+  private static final long STACK_SIZE = 256 * 1024;
+
+  @Test
+  public void deepJsonAndXmlExtensionTest() throws Throwable {
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Thread thread =
+        new Thread(
+            null,
+            () -> {
+              try {
+                compareJsonAndXml();
+              } catch (Throwable t) {
+                failure.set(t);
+              }
+            },
+            "deep-extension",
+            STACK_SIZE);
+    thread.start();
+    thread.join();
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  private static void compareJsonAndXml() {
+    for (final CBVVersion cbvVersion :
+        List.of(CBVVersion.VERSION_2_0_0, CBVVersion.VERSION_2_1_0)) {
+      final EventHashGenerator eventHashGenerator = new EventHashGenerator(cbvVersion);
+
+      final String jsonHashId =
+          eventHashGenerator.fromObjectNode(
+              jsonEvent(DEPTH), Map.of("ex", "https://ns.example.com/epcis"), "sha-256");
+      final List<String> xmlHashIds =
+          eventHashGenerator
+              .fromXml(
+                  new ByteArrayInputStream(xmlDocument(DEPTH).getBytes(StandardCharsets.UTF_8)),
+                  "sha-256")
+              .subscribe()
+              .asStream()
+              .toList();
+
+      assertEquals(List.of(jsonHashId), xmlHashIds);
+    }
+  }
+
+  @Test
+  public void maxDepthExceededTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.maxDepth(100);
+    assertNotNull(eventHashGenerator.fromObjectNode(jsonEvent(90), "sha-256"));
+    assertThrows(
+        EventHashException.class,
+        () -> eventHashGenerator.fromObjectNode(jsonEvent(200), "sha-256"));
+
+    // The limit applies to this generator only.
+    assertNotNull(new EventHashGenerator().fromObjectNode(jsonEvent(200), "sha-256"));
+  }
+
+  private static ObjectNode jsonEvent(final int depth) {
+    final ObjectNode event = OBJECT_MAPPER.createObjectNode();
+    event.put("type", "ObjectEvent");
+    event.put("eventTime", "2024-01-01T10:00:00.000Z");
+    event.put("eventTimeZoneOffset", "+01:00");
+    event.putArray("epcList").add("urn:epc:id:sgtin:4012345.011111.1");
+    event.put("action", "OBSERVE");
+
+    ObjectNode extension = event.putObject("ex:level");
+    for (int i = 1; i < depth; i++) {
+      extension.put("ex:value", String.valueOf(i));
+      extension = extension.putObject("ex:level");
+    }
+    extension.put("ex:value", "last");
+    return event;
+  }
+
+  private static String xmlDocument(final int depth) {
+    final StringBuilder xml =
+        new StringBuilder(
+            "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\""
+                + " xmlns:ex=\"https://ns.example.com/epcis\" schemaVersion=\"2.0\""
+                + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList><ObjectEvent>"
+                + "<eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+                + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+                + "<epcList><epc>urn:epc:id:sgtin:4012345.011111.1</epc></epcList>"
+                + "<action>OBSERVE</action>");
+    for (int i = 1; i < depth; i++) {
+      xml.append("<ex:level><ex:value>").append(i).append("</ex:value>");
+    }
+    xml.append("<ex:level><ex:value>last</ex:value></ex:level>");
+    xml.append("</ex:level>".repeat(depth - 1));
+    xml.append("</ObjectEvent></EventList></EPCISBody></epcis:EPCISDocument>");
+    return xml.toString();
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.constants.CBVVersion;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import io.openepcis.resources.util.ResourceFinder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the hashes of both CBV versions created from a single read of the events are
+// identical to the hashes created separately for each CBV version.
+public class DualCbvVersionTest {
+
+  private static final String[] HASH_ALGORITHMS = {"prehash", "sha-256"};
+
+  private static final String XML_DOCUMENT =
+      "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\""
+          + " xmlns:ex=\"https://ns.example.com/epcis\" schemaVersion=\"2.0\""
+          + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList><ObjectEvent>"
+          + "<eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<epcList><epc>urn:epc:id:sgtin:4012345.011111.2</epc>"
+          + "<epc>urn:epc:id:sgtin:4012345.011111.1</epc></epcList>"
+          + "<action>OBSERVE</action><bizStep>shipping</bizStep>"
+          + "<readPoint><id>urn:epc:id:sgln:4012345.00001.0</id><ex:b>2</ex:b><ex:a>1</ex:a>"
+          + "</readPoint><ex:c><ex:d>3</ex:d><ex:a>4</ex:a></ex:c>"
+          + "</ObjectEvent></EventList></EPCISBody></epcis:EPCISDocument>";
+
+  @Test
+  public void dualCbvVersionTest() throws IOException {
+    final List<InputStream> documents = new ArrayList<>();
+    documents.add(new ByteArrayInputStream(XML_DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+    final WorkloadGenerator generator = new WorkloadGenerator(31);
+    generator.events(50);
+    generator.sensors(2, 2);
+    generator.extensions(2, 2);
+    documents.add(generator.inputStream(WorkloadGenerator.Format.XML));
+    for (final URL url : ResourceFinder.searchResource("2.0", "xml", "capture/documents", null)) {
+      documents.add(url.openStream());
+    }
+
+    for (final InputStream document : documents) {
+      final byte[] bytes;
+      try (document) {
+        bytes = document.readAllBytes();
+      }
+      for (final CBVVersion cbvVersion :
+          List.of(CBVVersion.VERSION_2_0_0, CBVVersion.VERSION_2_1_0)) {
+        final CBVVersion additionalCbvVersion =
+            CBVVersion.VERSION_2_0_0.equals(cbvVersion)
+                ? CBVVersion.VERSION_2_1_0
+                : CBVVersion.VERSION_2_0_0;
+        final String suffix = HashIdGenerator.versionSuffix(additionalCbvVersion);
+
+        final List<Map<String, String>> expected = new ArrayList<>();
+        final List<Map<String, String>> primary = hashes(cbvVersion, false, bytes);
+        final List<Map<String, String>> additional = hashes(additionalCbvVersion, false, bytes);
+        for (int i = 0; i < primary.size(); i++) {
+          final Map<String, String> map = new HashMap<>(primary.get(i));
+          additional.get(i).forEach((key, value) -> map.put(key + suffix, value));
+          expected.add(map);
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, hashes(cbvVersion, true, bytes));
+      }
+    }
+  }
+
+  @Test
+  public void sharedFieldsTest() throws IOException {
+    final ContextNode event;
+    try (XmlEventReader reader =
+        new XmlEventReader(
+            new ByteArrayInputStream(XML_DOCUMENT.getBytes(StandardCharsets.UTF_8)))) {
+      event = reader.next();
+    }
+
+    // Fields with user extensions differ between the CBV versions and are created per version.
+    assertTrue(child(event, "epcList").isCbvVersionIndependent());
+    assertTrue(child(event, "bizStep").isCbvVersionIndependent());
+    assertFalse(child(event, "readPoint").isCbvVersionIndependent());
+    assertFalse(child(event, "ex:c").isCbvVersionIndependent());
+  }
+
+  @Test
+  public void dualCbvVersionStringTypeTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.dualCbvVersion(true);
+    final InputStream xmlStream =
+        new ByteArrayInputStream(XML_DOCUMENT.getBytes(StandardCharsets.UTF_8));
+    assertThrows(
+        RuntimeException.class,
+        () -> eventHashGenerator.fromXml(xmlStream, "sha-256").subscribe().asStream().toList());
+  }
+
+  private static ContextNode child(final ContextNode node, final String name) {
+    return node.getChildren().stream()
+        .filter(c -> name.equals(c.getName()))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static List<Map<String, String>> hashes(
+      final CBVVersion cbvVersion, final boolean dualCbvVersion, final byte[] document) {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator(cbvVersion);
+    eventHashGenerator.prehashJoin("\\n");
+    eventHashGenerator.dualCbvVersion(dualCbvVersion);
+    return eventHashGenerator
+        .fromXml(new ByteArrayInputStream(document), HASH_ALGORITHMS)
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+}
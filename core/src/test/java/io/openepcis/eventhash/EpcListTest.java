@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.constants.CBVVersion;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the compact EPC lists create the same pre-hash string as one node per EPC.
+public class EpcListTest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Test
+  public void smallEpcListTest() {
+    compareWithGenericEngine(25);
+  }
+
+  @Test
+  public void largeEpcListTest() {
+    // Large enough to sort and format the EPCs in parallel.
+    compareWithGenericEngine(EpcList.PARALLEL_THRESHOLD * 3);
+  }
+
+  @Test
+  public void nestedEpcListTest() {
+    // Only the EPC lists directly within the event are stored in compact form.
+    final ObjectNode event = event("ObjectEvent", "epcList", epcs(5));
+    event.putObject("ex:extension").putArray("epcList").add("b").add("a");
+    final ContextNode node = new ContextNode(event.fields(), new HashMap<>());
+
+    assertEquals(5, child(node, "epcList").getEpcs().size());
+    final ContextNode nested = child(child(node, "ex:extension"), "epcList");
+    assertNull(nested.getEpcs());
+    assertEquals(2, nested.getChildren().size());
+
+    // The EPCs of the user extension are part of the pre-hash string.
+    final String preHash = node.toShortenedString(CBVVersion.VERSION_2_0_0);
+    assertTrue(preHash.contains("epc=a"));
+    assertTrue(preHash.contains("epc=b"));
+  }
+
+  @Test
+  public void xmlAndJsonEpcListTest() throws IOException {
+    final List<String> epcs = epcs(EpcList.PARALLEL_THRESHOLD + 1);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+
+    final List<String> xmlHashIds =
+        eventHashGenerator.fromXml(xmlDocument(epcs), "sha-256").subscribe().asStream().toList();
+    final List<String> jsonHashIds =
+        eventHashGenerator.fromJson(jsonDocument(epcs), "sha-256").subscribe().asStream().toList();
+
+    assertEquals(1, xmlHashIds.size());
+    assertEquals(xmlHashIds, jsonHashIds);
+  }
+
+  @Test
+  public void spilledEpcListTest() throws IOException {
+    final List<String> epcs = epcs(10_000);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.prehashJoin("\\n");
+
+    final List<Map<String, String>> inMemory =
+        eventHashGenerator
+            .fromXml(xmlDocument(epcs), "prehash", "sha-256", "md5")
+            .subscribe()
+            .asStream()
+            .toList();
+
+    final long tempFiles = tempFiles();
+    eventHashGenerator.epcListSpillThreshold(1_500);
+    final List<Map<String, String>> xmlSpilled =
+        eventHashGenerator
+            .fromXml(xmlDocument(epcs), "prehash", "sha-256", "md5")
+            .subscribe()
+            .asStream()
+            .toList();
+    final List<Map<String, String>> jsonSpilled =
+        eventHashGenerator
+            .fromJson(jsonDocument(epcs), "prehash", "sha-256", "md5")
+            .subscribe()
+            .asStream()
+            .toList();
+    final List<String> singleHash =
+        eventHashGenerator.fromXml(xmlDocument(epcs), "sha-256").subscribe().asStream().toList();
+
+    assertEquals(1, inMemory.size());
+    assertEquals(inMemory, xmlSpilled);
+    assertEquals(inMemory, jsonSpilled);
+    assertEquals(inMemory.get(0).get("sha-256"), singleHash.get(0));
+
+    // All temporary files are removed after the hash generation.
+    assertEquals(tempFiles, tempFiles());
+  }
+
+  @Test
+  public void spillThresholdPreHashTest() throws IOException {
+    // The pre-hash string is the same just below and just above the spill threshold, also if the
+    // EPC list is the last element of the event.
+    final List<String> epcs = epcs(100);
+    for (final String prehashJoin : List.of("", "\\n")) {
+      final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+      eventHashGenerator.prehashJoin(prehashJoin);
+      for (final boolean last : List.of(false, true)) {
+        eventHashGenerator.epcListSpillThreshold(epcs.size());
+        final List<Map<String, String>> inMemory = preHashes(eventHashGenerator, epcs, last);
+        eventHashGenerator.epcListSpillThreshold(epcs.size() - 1);
+        final List<Map<String, String>> spilled = preHashes(eventHashGenerator, epcs, last);
+
+        assertEquals(1, inMemory.size());
+        assertEquals(inMemory.get(0).get("prehash"), spilled.get(0).get("prehash"));
+        assertEquals(inMemory, spilled);
+      }
+    }
+  }
+
+  // The pre-hash string and hash of an event with the EPC list in the middle or as last element.
+  private static List<Map<String, String>> preHashes(
+      final EventHashGenerator eventHashGenerator, final List<String> epcs, final boolean last)
+      throws IOException {
+    if (!last) {
+      return eventHashGenerator
+          .fromXml(xmlDocument(epcs), "prehash", "sha-256")
+          .subscribe()
+          .asStream()
+          .toList();
+    }
+    final ObjectNode event = event("ObjectEvent", "epcList", epcs);
+    event.remove(List.of("action", "bizStep", "disposition"));
+    return eventHashGenerator
+        .fromJson(jsonDocument(event), "prehash", "sha-256")
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+
+  private static void compareWithGenericEngine(final int count) {
+    final ObjectNode event = event("ObjectEvent", "epcList", epcs(count));
+    for (final CBVVersion cbvVersion :
+        List.of(CBVVersion.VERSION_2_0_0, CBVVersion.VERSION_2_1_0)) {
+      final ContextNode compact = new ContextNode(event.fields(), new HashMap<>());
+      final ContextNode epcList = child(compact, "epcList");
+      assertTrue(epcList.getChildren().isEmpty());
+      assertEquals(count, epcList.getEpcs().size());
+
+      final ContextNode generic = new ContextNode(event.fields(), new HashMap<>());
+      child(generic, "epcList").inflateEpcs();
+      assertEquals(count, child(generic, "epcList").getChildren().size());
+
+      assertEquals(
+          generic.toShortenedString(cbvVersion, false),
+          compact.toShortenedString(cbvVersion, false));
+      assertEquals(
+          generic.toShortenedString(cbvVersion, true), compact.toShortenedString(cbvVersion, true));
+    }
+  }
+
+  private static InputStream xmlDocument(final List<String> epcs) {
+    final StringBuilder xml =
+        new StringBuilder(
+            "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\" schemaVersion=\"2.0\""
+                + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList>"
+                + "<AggregationEvent><eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+                + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+                + "<parentID>urn:epc:id:sscc:4012345.0000000001</parentID><childEPCs>");
+    epcs.forEach(epc -> xml.append("<epc>").append(epc).append("</epc>"));
+    xml.append(
+        "</childEPCs><action>ADD</action><bizStep>packing</bizStep></AggregationEvent>"
+            + "</EventList></EPCISBody></epcis:EPCISDocument>");
+    return new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static InputStream jsonDocument(final List<String> epcs) throws IOException {
+    final ObjectNode event = event("AggregationEvent", "childEPCs", epcs);
+    event.remove("disposition");
+    event.put("parentID", "urn:epc:id:sscc:4012345.0000000001");
+    return jsonDocument(event);
+  }
+
+  private static InputStream jsonDocument(final ObjectNode event) throws IOException {
+    final ObjectNode document = OBJECT_MAPPER.createObjectNode();
+    document
+        .putArray("@context")
+        .add("https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld");
+    document.put("type", "EPCISDocument");
+    document.put("schemaVersion", "2.0");
+    document.put("creationDate", "2024-01-01T00:00:00Z");
+    document.putObject("epcisBody").putArray("eventList").add(event);
+    return new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(document));
+  }
+
+  private static long tempFiles() throws IOException {
+    try (final Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+      return files.filter(f -> f.getFileName().toString().startsWith("openepcis-epcs-")).count();
+    }
+  }
+
+  private static ContextNode child(final ContextNode node, final String name) {
+    return node.getChildren().stream()
+        .filter(c -> name.equals(c.getName()))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static ObjectNode event(
+      final String type, final String listName, final List<String> epcs) {
+    final ObjectNode event = OBJECT_MAPPER.createObjectNode();
+    event.put("type", type);
+    event.put("eventTime", "2024-01-01T10:00:00.000Z");
+    event.put("eventTimeZoneOffset", "+01:00");
+    final ArrayNode list = event.putArray(listName);
+    epcs.forEach(list::add);
+    event.put("action", "ADD");
+    event.put("bizStep", "packing");
+    event.put("disposition", "in_progress");
+    return event;
+  }
+
+  // Mix of URN, Web URI and duplicate EPCs in random order.
+  private static List<String> epcs(final int count) {
+    final Random random = new Random(count);
+    final List<String> epcs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final long serial = random.nextInt(count);
+      epcs.add(
+          switch (i % 3) {
+            case 0 -> "urn:epc:id:sgtin:4012345.011111." + serial;
+            case 1 -> "https://id.gs1.org/01/04012345111118/21/" + serial;
+            default -> "urn:epc:id:sscc:4012345." + String.format("%010d", serial);
+          });
+    }
+    Collections.shuffle(epcs, random);
+    return epcs;
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Test to ensure files, ByteBuffers and Readers create the same hashes as InputStreams.
+public class EventHashInputTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  private static final String XML_DOCUMENT =
+      "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\""
+          + " xmlns:ex=\"https://ns.example.com/epcis\" schemaVersion=\"2.0\""
+          + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList><ObjectEvent>"
+          + "<eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<epcList><epc>urn:epc:id:sgtin:4012345.011111.1</epc></epcList>"
+          + "<action>OBSERVE</action><bizStep>shipping</bizStep><ex:a>Gr\u00fc\u00dfe</ex:a>"
+          + "</ObjectEvent></EventList></EPCISBody></epcis:EPCISDocument>";
+
+  private static final String JSON_DOCUMENT =
+      "{\"@context\":[\"https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld\","
+          + "{\"ex\":\"https://ns.example.com/epcis\"}],"
+          + "\"type\":\"EPCISDocument\",\"schemaVersion\":\"2.0\","
+          + "\"creationDate\":\"2024-01-01T00:00:00Z\",\"epcisBody\":{\"eventList\":["
+          + "{\"type\":\"ObjectEvent\",\"eventTime\":\"2024-01-01T10:00:00.000Z\","
+          + "\"eventTimeZoneOffset\":\"+01:00\","
+          + "\"epcList\":[\"urn:epc:id:sgtin:4012345.011111.1\"],\"action\":\"OBSERVE\","
+          + "\"bizStep\":\"shipping\",\"ex:a\":\"Gr\u00fc\u00dfe\"}]}}";
+
+  @Test
+  public void xmlInputTest(@TempDir final Path directory) throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final byte[] bytes = XML_DOCUMENT.getBytes(StandardCharsets.UTF_8);
+    final List<Map<String, String>> expected =
+        eventHashGenerator
+            .fromXml(new ByteArrayInputStream(bytes), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(1, expected.size());
+
+    final Path file = Files.write(directory.resolve("document.xml"), bytes);
+    assertEquals(
+        expected,
+        eventHashGenerator.fromXml(file, HASH_ALGORITHMS).subscribe().asStream().toList());
+
+    for (final ByteBuffer buffer : buffers(bytes)) {
+      final int position = buffer.position();
+      assertEquals(
+          expected,
+          eventHashGenerator.fromXml(buffer, HASH_ALGORITHMS).subscribe().asStream().toList());
+      assertEquals(position, buffer.position());
+    }
+
+    assertEquals(
+        expected,
+        eventHashGenerator
+            .fromXml(new StringReader(XML_DOCUMENT), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList());
+    assertEquals(
+        expected.get(0).get("sha-256"),
+        eventHashGenerator.fromXml(file, "sha-256").subscribe().asStream().findFirst().get());
+  }
+
+  @Test
+  public void jsonInputTest(@TempDir final Path directory) throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final byte[] bytes = JSON_DOCUMENT.getBytes(StandardCharsets.UTF_8);
+    final List<Map<String, String>> expected =
+        eventHashGenerator
+            .fromJson(new ByteArrayInputStream(bytes), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(1, expected.size());
+
+    final Path file = Files.write(directory.resolve("document.json"), bytes);
+    assertEquals(
+        expected,
+        eventHashGenerator.fromJson(file, HASH_ALGORITHMS).subscribe().asStream().toList());
+
+    for (final ByteBuffer buffer : buffers(bytes)) {
+      final int position = buffer.position();
+      assertEquals(
+          expected,
+          eventHashGenerator.fromJson(buffer, HASH_ALGORITHMS).subscribe().asStream().toList());
+      assertEquals(position, buffer.position());
+    }
+
+    assertEquals(
+        expected,
+        eventHashGenerator
+            .fromJson(new StringReader(JSON_DOCUMENT), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList());
+    assertEquals(
+        expected.get(0).get("sha-256"),
+        eventHashGenerator.fromJson(file, "sha-256").subscribe().asStream().findFirst().get());
+  }
+
+  @Test
+  public void jsonEventListTest() throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<Map<String, String>> expected =
+        eventHashGenerator
+            .fromJson(
+                new ByteArrayInputStream(JSON_DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+
+    // The namespace of the extension is defined in the @context of the event itself.
+    final String eventList =
+        "[{\"@context\":[{\"ex\":\"https://ns.example.com/epcis\"}],"
+            + JSON_DOCUMENT
+                .substring(JSON_DOCUMENT.indexOf("{\"type\":\"ObjectEvent\"") + 1)
+                .replace("]}}", "]");
+    assertEquals(
+        expected,
+        eventHashGenerator
+            .fromJsonEventList(
+                new ByteArrayInputStream(eventList.getBytes(StandardCharsets.UTF_8)),
+                HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList());
+
+    final IOException exception =
+        assertThrows(
+            IOException.class,
+            () ->
+                eventHashGenerator.fromJsonEventList(
+                    new ByteArrayInputStream(JSON_DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+                    HASH_ALGORITHMS));
+    assertEquals("Expecting input as JSON array", exception.getMessage());
+  }
+
+  // Heap buffer, direct buffer, heap buffer with a non-zero position and a slice of it.
+  private static List<ByteBuffer> buffers(final byte[] bytes) {
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    final ByteBuffer offset = ByteBuffer.allocate(bytes.length + 8).position(4).put(bytes);
+    offset.flip().position(4);
+    return List.of(ByteBuffer.wrap(bytes), direct, offset, offset.slice());
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.eventhash.constant.ConstantEventHashInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure memoized events return the same hashes as events which are hashed again.
+public class EventHashMemoTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  private static final String EVENT =
+      """
+      {"type":"ObjectEvent","eventID":"ni:///sha-256;%s?ver=CBV2.0",\
+      "eventTime":"2024-01-01T10:00:00.000Z","eventTimeZoneOffset":"+01:00",\
+      "recordTime":"2024-01-01T10:00:%02d.000Z",\
+      "epcList":["urn:epc:id:sgtin:4012345.011111.%d"],"action":"OBSERVE",\
+      "bizStep":"shipping","readPoint":{"id":"urn:epc:id:sgln:4012345.00001.0"}}""";
+
+  @Test
+  public void repeatedEventsTest() throws IOException {
+    // 30 observations of the same two EPCs which differ in eventID and recordTime only.
+    final StringBuilder events = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      events.append(i > 0 ? "," : "").append(EVENT.formatted("event-" + i, i, i % 2));
+    }
+    final byte[] document =
+        ("{\"@context\":[\"https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld\"],"
+                + "\"type\":\"EPCISDocument\",\"schemaVersion\":\"2.0\","
+                + "\"creationDate\":\"2024-01-01T10:00:00.000Z\","
+                + "\"epcisBody\":{\"eventList\":["
+                + events
+                + "]}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    final List<HashResult> expected = hash(new EventHashGenerator(), document);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.eventMemoization(100);
+    assertEquals(expected, hash(eventHashGenerator, document));
+    assertEquals(28, eventHashGenerator.memoHits());
+    assertEquals(2, eventHashGenerator.memoMisses());
+    assertEquals(expected.get(0).hashes(), expected.get(2).hashes());
+    assertEquals("ni:///sha-256;event-29?ver=CBV2.0", expected.get(29).eventId());
+
+    // Other hash algorithms are hashed again.
+    final List<HashResult> sha3 =
+        eventHashGenerator
+            .hashResultsFromJson(new ByteArrayInputStream(document), "sha3-256")
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(
+        new EventHashGenerator()
+            .hashResultsFromJson(new ByteArrayInputStream(document), "sha3-256")
+            .subscribe()
+            .asStream()
+            .toList(),
+        sha3);
+    assertEquals(56, eventHashGenerator.memoHits());
+    assertEquals(4, eventHashGenerator.memoMisses());
+  }
+
+  @Test
+  public void repeatedXmlEventsTest() {
+    // The EPCs of every other pair of events are in another order, which is the same event.
+    final String[] epcs = {
+      "urn:epc:id:sgtin:4012345.011111.1", "urn:epc:id:sgtin:4012345.011111.2"
+    };
+    final StringBuilder events = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      events
+          .append("<ObjectEvent><eventTime>2024-01-01T10:00:00.000Z</eventTime>")
+          .append("<recordTime>2024-01-01T10:00:%02d.000Z</recordTime>".formatted(i))
+          .append("<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>")
+          .append("<eventID>ni:///sha-256;event-%d?ver=CBV2.0</eventID><epcList>".formatted(i))
+          .append("<epc>")
+          .append(epcs[i % 4 < 2 ? 0 : 1])
+          .append("</epc>")
+          .append("<epc>")
+          .append(epcs[i % 4 < 2 ? 1 : 0])
+          .append("</epc>")
+          .append("</epcList><action>OBSERVE</action><bizStep>shipping</bizStep>")
+          .append("<readPoint><id>urn:epc:id:sgln:4012345.00001.0</id></readPoint>")
+          .append("<ex:c ex:unit=\"m\"><ex:d>%d</ex:d></ex:c></ObjectEvent>".formatted(i % 2));
+    }
+    final byte[] document =
+        ("<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\""
+                + " xmlns:ex=\"https://ns.example.com/epcis\" schemaVersion=\"2.0\""
+                + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList>"
+                + events
+                + "</EventList></EPCISBody></epcis:EPCISDocument>")
+            .getBytes(StandardCharsets.UTF_8);
+
+    final List<HashResult> expected = hashXml(new EventHashGenerator(), document);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.eventMemoization(100);
+    assertEquals(expected, hashXml(eventHashGenerator, document));
+    assertEquals(28, eventHashGenerator.memoHits());
+    assertEquals(2, eventHashGenerator.memoMisses());
+    assertEquals(expected.get(0).hashes(), expected.get(2).hashes());
+    assertNotEquals(expected.get(0).hashes(), expected.get(1).hashes());
+    assertEquals("ni:///sha-256;event-29?ver=CBV2.0", expected.get(29).eventId());
+  }
+
+  @Test
+  public void collisionTest() throws IOException {
+    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectNode event = (ObjectNode) mapper.readTree(EVENT.formatted("a", 1, 1));
+    final ObjectNode repeated = (ObjectNode) mapper.readTree(EVENT.formatted("b", 2, 1));
+    final ObjectNode other = (ObjectNode) mapper.readTree(EVENT.formatted("a", 1, 2));
+    final List<String> excluded = ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash();
+
+    final long fingerprint = EventHashMemo.fingerprint(event, excluded);
+    assertEquals(fingerprint, EventHashMemo.fingerprint(repeated, excluded));
+    assertNotEquals(fingerprint, EventHashMemo.fingerprint(other, excluded));
+
+    // Events with the same fingerprint but other fields are not the same event.
+    final EventHashMemo memo = new EventHashMemo(10);
+    final HashResult result = new HashResult(0, "a", "ObjectEvent", List.of("sha-256"), List.of());
+    memo.put(new EventHashMemo.Key(fingerprint, event, excluded, Map.of(), List.of()), result);
+    assertSame(
+        result,
+        memo.get(new EventHashMemo.Key(fingerprint, repeated, excluded, Map.of(), List.of())));
+    assertNull(memo.get(new EventHashMemo.Key(fingerprint, other, excluded, Map.of(), List.of())));
+    assertNull(
+        memo.get(
+            new EventHashMemo.Key(fingerprint, repeated, excluded, Map.of("a", "b"), List.of())));
+    assertEquals(1, memo.hits());
+    assertEquals(2, memo.misses());
+
+    // The least recently used events are evicted.
+    final EventHashMemo small = new EventHashMemo(1);
+    small.put(EventHashMemo.key(event, excluded, Map.of(), List.of()), result);
+    small.put(EventHashMemo.key(other, excluded, Map.of(), List.of()), result);
+    assertEquals(1, small.size());
+    assertNull(small.get(EventHashMemo.key(repeated, excluded, Map.of(), List.of())));
+  }
+
+  private static List<HashResult> hashXml(
+      final EventHashGenerator eventHashGenerator, final byte[] document) {
+    return eventHashGenerator
+        .hashResultsFromXml(new ByteArrayInputStream(document), HASH_ALGORITHMS)
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+
+  private static List<HashResult> hash(
+      final EventHashGenerator eventHashGenerator, final byte[] document) throws IOException {
+    return eventHashGenerator
+        .hashResultsFromJson(new ByteArrayInputStream(document), HASH_ALGORITHMS)
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+}
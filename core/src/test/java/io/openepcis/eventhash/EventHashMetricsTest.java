@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.openepcis.constants.CBVVersion;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the metrics of a request are recorded once the hashes are consumed.
+public class EventHashMetricsTest {
+
+  private static final int EVENTS = 25;
+
+  @Test
+  public void documentMetricsTest() throws IOException {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final EventHashMetrics metrics = new EventHashMetrics(registry);
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(EVENTS);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator(CBVVersion.VERSION_2_1_0);
+    final String[] hashAlgorithms = {"prehash", "SHA-256", "sha3-512"};
+    final List<Map<String, String>> hashes =
+        metrics
+            .observe(
+                "document",
+                eventHashGenerator,
+                hashAlgorithms,
+                new ByteArrayInputStream(document),
+                in -> eventHashGenerator.fromJson(in, hashAlgorithms))
+            .collect()
+            .asList()
+            .await()
+            .indefinitely();
+    assertEquals(EVENTS, hashes.size());
+
+    final String cbvVersion = CBVVersion.VERSION_2_1_0.getVersion();
+    assertEquals(
+        EVENTS,
+        registry
+            .get("eventhash.events.hashed")
+            .tags("endpoint", "document", "algorithm", "sha-256", "cbvVersion", cbvVersion)
+            .counter()
+            .count());
+    assertEquals(
+        EVENTS,
+        registry
+            .get("eventhash.events.hashed")
+            .tags("algorithm", "sha3-512", "cbvVersion", cbvVersion)
+            .counter()
+            .count());
+    assertTrue(
+        registry.find("eventhash.events.hashed").tag("algorithm", "prehash").meters().isEmpty());
+    assertEquals(document.length, registry.get("eventhash.document.size").summary().totalAmount());
+    assertEquals(EVENTS, registry.get("eventhash.request.events").summary().totalAmount());
+    assertEquals(1, registry.get("eventhash.first.hash").timer().count());
+    assertEquals(
+        EVENTS,
+        registry.get("eventhash.canonicalization").tag("cbvVersion", cbvVersion).timer().count());
+    assertEquals(0, registry.get("eventhash.requests.active").longTaskTimer().activeTasks());
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the synchronous Stream API returns the same HashResults as the Multi based API,
+// reads the events lazily and closes the input stream.
+public class EventHashStreamTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  private static final String XML_DOCUMENT =
+      "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\" schemaVersion=\"2.0\""
+          + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList>"
+          + "<ObjectEvent><eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<eventID>urn:uuid:6d7d5b8e-0a2c-4c35-9c5c-6e3f1a3f2c01</eventID>"
+          + "<epcList><epc>urn:epc:id:sgtin:4012345.011111.1</epc></epcList>"
+          + "<action>OBSERVE</action><bizStep>shipping</bizStep></ObjectEvent>"
+          + "<AggregationEvent><eventTime>2024-01-01T11:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<parentID>urn:epc:id:sscc:4012345.0000000001</parentID>"
+          + "<childEPCs><epc>urn:epc:id:sgtin:4012345.011111.1</epc></childEPCs>"
+          + "<action>ADD</action><bizStep>packing</bizStep></AggregationEvent>"
+          + "</EventList></EPCISBody></epcis:EPCISDocument>";
+
+  private static final String JSON_DOCUMENT =
+      "{\"@context\":[\"https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld\","
+          + "{\"ex\":\"https://ns.example.com/epcis/\"}],"
+          + "\"type\":\"EPCISDocument\",\"schemaVersion\":\"2.0\","
+          + "\"creationDate\":\"2024-01-01T00:00:00Z\",\"epcisBody\":{\"eventList\":["
+          + "{\"type\":\"ObjectEvent\",\"eventTime\":\"2024-01-01T10:00:00.000Z\","
+          + "\"eventTimeZoneOffset\":\"+01:00\","
+          + "\"eventID\":\"urn:uuid:6d7d5b8e-0a2c-4c35-9c5c-6e3f1a3f2c01\","
+          + "\"epcList\":[\"urn:epc:id:sgtin:4012345.011111.1\"],\"action\":\"OBSERVE\","
+          + "\"bizStep\":\"shipping\",\"ex:a\":\"1\"},"
+          + "{\"type\":\"AggregationEvent\",\"eventTime\":\"2024-01-01T11:00:00.000Z\","
+          + "\"eventTimeZoneOffset\":\"+01:00\",\"parentID\":\"urn:epc:id:sscc:4012345.0000000001\","
+          + "\"childEPCs\":[\"urn:epc:id:sgtin:4012345.011111.1\"],\"action\":\"ADD\","
+          + "\"bizStep\":\"packing\"}]}}";
+
+  @Test
+  public void xmlStreamTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> expected =
+        eventHashGenerator
+            .hashResultsFromXml(stream(XML_DOCUMENT), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+
+    try (Stream<HashResult> results =
+        eventHashGenerator.streamFromXml(stream(XML_DOCUMENT), HASH_ALGORITHMS)) {
+      assertEquals(2, expected.size());
+      assertEquals(expected, results.toList());
+    }
+  }
+
+  @Test
+  public void jsonStreamTest() throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> expected =
+        eventHashGenerator
+            .hashResultsFromJson(stream(JSON_DOCUMENT), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+
+    try (Stream<HashResult> results =
+        eventHashGenerator.streamFromJson(stream(JSON_DOCUMENT), HASH_ALGORITHMS)) {
+      assertEquals(2, expected.size());
+      assertTrue(expected.get(0).preHash().contains("{https://ns.example.com/epcis/}a=1"));
+      assertEquals(expected, results.toList());
+    }
+  }
+
+  @Test
+  public void jsonEventListStreamTest() throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final String eventList =
+        JSON_DOCUMENT.substring(
+            JSON_DOCUMENT.indexOf("[{\"type\""), JSON_DOCUMENT.lastIndexOf(']') + 1);
+
+    try (Stream<HashResult> results =
+        eventHashGenerator.streamFromJson(stream(eventList), "sha-256")) {
+      final List<HashResult> list = results.toList();
+      assertEquals(2, list.size());
+      assertEquals("ObjectEvent", list.get(0).eventType());
+      assertEquals("AggregationEvent", list.get(1).eventType());
+      assertEquals(1, list.get(1).ordinal());
+    }
+  }
+
+  @Test
+  public void lazyStreamTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    // The input fails after the first event, which can only be hashed if the events are pulled.
+    final String firstEvent =
+        XML_DOCUMENT.substring(0, XML_DOCUMENT.indexOf("<eventTime>2024-01-01T11:00"));
+    final TrackingInputStream xmlStream =
+        new TrackingInputStream(
+            new SequenceInputStream(stream(firstEvent), new FailingInputStream()));
+
+    final Stream<HashResult> results = eventHashGenerator.streamFromXml(xmlStream, "sha-256");
+    final Iterator<HashResult> iterator = results.iterator();
+    assertEquals("ObjectEvent", iterator.next().eventType());
+    assertFalse(xmlStream.closed);
+    assertThrows(RuntimeException.class, iterator::hasNext);
+
+    results.close();
+    assertTrue(xmlStream.closed);
+  }
+
+  private static InputStream stream(final String document) {
+    return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Input stream which records whether it was closed.
+  private static final class TrackingInputStream extends FilterInputStream {
+
+    private boolean closed;
+
+    private TrackingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+
+  // Input stream which fails on every read.
+  private static final class FailingInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      throw new IOException("input not expected to be read");
+    }
+  }
+}
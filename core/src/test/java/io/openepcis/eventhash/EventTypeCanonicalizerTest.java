@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.constants.CBVVersion;
+import io.openepcis.resources.util.ResourceFinder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Differential test to ensure the specialized canonicalizer creates exactly the same pre-hash
+// strings and hashes as the generic engine.
+public class EventTypeCanonicalizerTest {
+
+  private static final String[] HASH_ALGORITHMS = {"prehash", "sha-256"};
+
+  private static final List<CBVVersion> CBV_VERSIONS =
+      List.of(CBVVersion.VERSION_2_0_0, CBVVersion.VERSION_2_1_0);
+
+  @Test
+  public void jsonDocumentsMatchGenericEngineTest() throws IOException {
+    for (final CBVVersion cbvVersion : CBV_VERSIONS) {
+      for (final URL url : documents("json")) {
+        final List<Map<String, String>> generic;
+        final List<Map<String, String>> specialized;
+        try (final InputStream in = url.openStream()) {
+          generic =
+              eventHashGenerator(cbvVersion, false)
+                  .fromJson(in, HASH_ALGORITHMS)
+                  .subscribe()
+                  .asStream()
+                  .toList();
+        }
+        try (final InputStream in = url.openStream()) {
+          specialized =
+              eventHashGenerator(cbvVersion, true)
+                  .fromJson(in, HASH_ALGORITHMS)
+                  .subscribe()
+                  .asStream()
+                  .toList();
+        }
+        assertFalse(generic.isEmpty(), url.getFile());
+        assertEquals(generic, specialized, cbvVersion + " " + url.getFile());
+      }
+    }
+  }
+
+  @Test
+  public void xmlDocumentsMatchGenericEngineTest() throws IOException {
+    for (final CBVVersion cbvVersion : CBV_VERSIONS) {
+      for (final URL url : documents("xml")) {
+        final List<Map<String, String>> generic;
+        final List<Map<String, String>> specialized;
+        try (final InputStream in = url.openStream()) {
+          generic =
+              eventHashGenerator(cbvVersion, false)
+                  .fromXml(in, HASH_ALGORITHMS)
+                  .subscribe()
+                  .asStream()
+                  .toList();
+        }
+        try (final InputStream in = url.openStream()) {
+          specialized =
+              eventHashGenerator(cbvVersion, true)
+                  .fromXml(in, HASH_ALGORITHMS)
+                  .subscribe()
+                  .asStream()
+                  .toList();
+        }
+        assertFalse(generic.isEmpty(), url.getFile());
+        assertEquals(generic, specialized, cbvVersion + " " + url.getFile());
+      }
+    }
+  }
+
+  private static List<URL> documents(final String format) {
+    return ResourceFinder.searchResource("2.0", format, "capture/documents", null);
+  }
+
+  private static EventHashGenerator eventHashGenerator(
+      final CBVVersion cbvVersion, final boolean specialized) {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator(cbvVersion);
+    eventHashGenerator.prehashJoin("\\n");
+    eventHashGenerator.specializedCanonicalization(specialized);
+    return eventHashGenerator;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the JFR events of the parse, canonicalize and digest stages are recorded with the
+// details of the EPCIS events.
+public class FlightRecorderEventsTest {
+
+  private static final List<String> EVENTS =
+      List.of(
+          "io.openepcis.eventhash.Parse",
+          "io.openepcis.eventhash.Canonicalize",
+          "io.openepcis.eventhash.Digest");
+
+  @Test
+  public void recordingTest() throws Exception {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(3);
+    generator.epcs(5);
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+
+    final Path file = Files.createTempFile("eventhash", ".jfr");
+    try (Recording recording = new Recording()) {
+      EVENTS.forEach(event -> recording.enable(event).withThreshold(Duration.ZERO));
+      recording.start();
+      eventHashGenerator
+          .fromJson(generator.inputStream(WorkloadGenerator.Format.JSON), "sha-256", "sha-1")
+          .collect()
+          .asList()
+          .await()
+          .indefinitely();
+      eventHashGenerator
+          .fromXml(generator.inputStream(WorkloadGenerator.Format.XML), "sha-256", "sha-1")
+          .collect()
+          .asList()
+          .await()
+          .indefinitely();
+      recording.stop();
+      recording.dump(file);
+
+      final Map<String, List<RecordedEvent>> events =
+          RecordingFile.readAllEvents(file).stream()
+              .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+
+      final List<RecordedEvent> parse = events.get("io.openepcis.eventhash.Parse");
+      assertEquals(6, parse.size());
+      assertEquals(
+          Map.of("json", 3L, "xml", 3L),
+          parse.stream()
+              .collect(Collectors.groupingBy(e -> e.getString("format"), Collectors.counting())));
+      parse.forEach(e -> assertEquals("ObjectEvent", e.getString("eventType")));
+
+      final List<RecordedEvent> canonicalize = events.get("io.openepcis.eventhash.Canonicalize");
+      assertEquals(6, canonicalize.size());
+      canonicalize.forEach(
+          e -> {
+            assertEquals("ObjectEvent", e.getString("eventType"));
+            assertTrue(e.getInt("nodeCount") > 5, "node count includes the EPCs");
+            assertTrue(e.getLong("preHashLength") > 0);
+          });
+
+      final List<RecordedEvent> digest = events.get("io.openepcis.eventhash.Digest");
+      assertEquals(12, digest.size());
+      assertEquals(
+          Map.of("sha-256", 6L, "sha-1", 6L),
+          digest.stream()
+              .collect(
+                  Collectors.groupingBy(e -> e.getString("algorithm"), Collectors.counting())));
+      digest.forEach(e -> assertTrue(e.getLong("digestedBytes") > 0));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the HashResults contain the same hashes as the Map based methods together with the
+// position, eventID and type of every event.
+public class HashResultTest {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash", "md5"};
+
+  private static final String XML_DOCUMENT =
+      "<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\" schemaVersion=\"2.0\""
+          + " creationDate=\"2024-01-01T00:00:00Z\"><EPCISBody><EventList>"
+          + "<ObjectEvent><eventTime>2024-01-01T10:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<eventID>urn:uuid:6d7d5b8e-0a2c-4c35-9c5c-6e3f1a3f2c01</eventID>"
+          + "<epcList><epc>urn:epc:id:sgtin:4012345.011111.1</epc></epcList>"
+          + "<action>OBSERVE</action><bizStep>shipping</bizStep></ObjectEvent>"
+          + "<AggregationEvent><eventTime>2024-01-01T11:00:00.000Z</eventTime>"
+          + "<eventTimeZoneOffset>+01:00</eventTimeZoneOffset>"
+          + "<parentID>urn:epc:id:sscc:4012345.0000000001</parentID>"
+          + "<childEPCs><epc>urn:epc:id:sgtin:4012345.011111.1</epc></childEPCs>"
+          + "<action>ADD</action><bizStep>packing</bizStep></AggregationEvent>"
+          + "</EventList></EPCISBody></epcis:EPCISDocument>";
+
+  @Test
+  public void xmlHashResultTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> results =
+        eventHashGenerator
+            .hashResultsFromXml(xmlStream(), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    final List<Map<String, String>> maps =
+        eventHashGenerator.fromXml(xmlStream(), HASH_ALGORITHMS).subscribe().asStream().toList();
+
+    assertResults(results, maps);
+  }
+
+  @Test
+  public void jsonHashResultTest() throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> results =
+        eventHashGenerator
+            .hashResultsFromJson(jsonStream(), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    final List<Map<String, String>> maps =
+        eventHashGenerator.fromJson(jsonStream(), HASH_ALGORITHMS).subscribe().asStream().toList();
+
+    assertResults(results, maps);
+
+    // XML and JSON representation of the events create the same hashes.
+    assertEquals(
+        results.stream().map(HashResult::toMap).toList(),
+        eventHashGenerator
+            .hashResultsFromXml(xmlStream(), HASH_ALGORITHMS)
+            .map(HashResult::toMap)
+            .subscribe()
+            .asStream()
+            .toList());
+  }
+
+  @Test
+  public void dualCbvVersionHashResultTest() {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.dualCbvVersion(true);
+    final HashResult result =
+        eventHashGenerator
+            .hashResultsFromXml(xmlStream(), "sha-256")
+            .subscribe()
+            .asStream()
+            .findFirst()
+            .orElseThrow();
+
+    assertEquals(List.of("sha-256", "sha-256?ver=CBV2.1"), result.hashAlgorithms());
+    assertTrue(result.hash("sha-256").endsWith("?ver=CBV2.0"));
+    assertTrue(result.hash("sha-256?ver=CBV2.1").endsWith("?ver=CBV2.1"));
+    assertNull(result.preHash());
+  }
+
+  private static void assertResults(
+      final List<HashResult> results, final List<Map<String, String>> maps) {
+    assertEquals(2, results.size());
+    assertEquals(maps, results.stream().map(HashResult::toMap).toList());
+
+    assertEquals(0, results.get(0).ordinal());
+    assertEquals("urn:uuid:6d7d5b8e-0a2c-4c35-9c5c-6e3f1a3f2c01", results.get(0).eventId());
+    assertEquals("ObjectEvent", results.get(0).eventType());
+    assertEquals(maps.get(0).get("prehash"), results.get(0).preHash());
+    assertEquals(maps.get(0).get("md5"), results.get(0).hash("MD5"));
+
+    assertEquals(1, results.get(1).ordinal());
+    assertNull(results.get(1).eventId());
+    assertEquals("AggregationEvent", results.get(1).eventType());
+
+    // The eventID is not part of the pre-hash string.
+    assertFalse(results.get(0).preHash().contains("eventID"));
+  }
+
+  private static InputStream xmlStream() {
+    return new ByteArrayInputStream(XML_DOCUMENT.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static InputStream jsonStream() throws IOException {
+    final ObjectNode objectEvent = OBJECT_MAPPER.createObjectNode();
+    objectEvent.put("type", "ObjectEvent");
+    objectEvent.put("eventTime", "2024-01-01T10:00:00.000Z");
+    objectEvent.put("eventTimeZoneOffset", "+01:00");
+    objectEvent.put("eventID", "urn:uuid:6d7d5b8e-0a2c-4c35-9c5c-6e3f1a3f2c01");
+    objectEvent.putArray("epcList").add("urn:epc:id:sgtin:4012345.011111.1");
+    objectEvent.put("action", "OBSERVE");
+    objectEvent.put("bizStep", "shipping");
+
+    final ObjectNode aggregationEvent = OBJECT_MAPPER.createObjectNode();
+    aggregationEvent.put("type", "AggregationEvent");
+    aggregationEvent.put("eventTime", "2024-01-01T11:00:00.000Z");
+    aggregationEvent.put("eventTimeZoneOffset", "+01:00");
+    aggregationEvent.put("parentID", "urn:epc:id:sscc:4012345.0000000001");
+    aggregationEvent.putArray("childEPCs").add("urn:epc:id:sgtin:4012345.011111.1");
+    aggregationEvent.put("action", "ADD");
+    aggregationEvent.put("bizStep", "packing");
+
+    final ObjectNode document = OBJECT_MAPPER.createObjectNode();
+    document
+        .putArray("@context")
+        .add("https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld");
+    document.put("type", "EPCISDocument");
+    document.put("schemaVersion", "2.0");
+    document.put("creationDate", "2024-01-01T00:00:00Z");
+    final ArrayNode eventList = document.putObject("epcisBody").putArray("eventList");
+    eventList.add(objectEvent);
+    eventList.add(aggregationEvent);
+    return new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(document));
+  }
+}
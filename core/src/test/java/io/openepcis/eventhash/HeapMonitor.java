@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Tracks the peak of the heap in use after garbage collection while the results of a synthetic
+ * document are consumed. Used by the memory tests to verify that the hash generation streams the
+ * events, i.e. that the peak heap does not depend on the size of the document.
+ *
+ * <p>The number of events is set with the system property eventhash.memory.events, the memory tests
+ * run with the Maven profile memory-tests and a small maximum heap.
+ */
+public final class HeapMonitor {
+
+  /** Number of events of the full size synthetic document. */
+  public static final long EVENTS = Long.getLong("eventhash.memory.events", 100_000);
+
+  /** Maximum heap of separately started processes, such as the CLI. */
+  public static final String MAX_HEAP = System.getProperty("eventhash.memory.xmx", "64m");
+
+  // Growth of the peak heap allowed between a document of a tenth and of the full size.
+  private static final long TOLERANCE = 16L * 1024 * 1024;
+
+  private static final int SAMPLE_INTERVAL = 10_000;
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private long results;
+  private long peak;
+
+  /** Hashing of a synthetic document reporting every result to the monitor. */
+  @FunctionalInterface
+  public interface Run {
+    void run(long events, HeapMonitor monitor) throws Exception;
+  }
+
+  /**
+   * Run the hashing of a synthetic document with a tenth and with the full number of events and
+   * assert that every event is hashed and that the peak heap does not grow with the document.
+   *
+   * @param run hashing of a synthetic document
+   * @throws Exception if the hashing fails
+   */
+  public static void assertBounded(final Run run) throws Exception {
+    final long small = peak(run, EVENTS / 10);
+    final long large = peak(run, EVENTS);
+    assertTrue(
+        large - small < TOLERANCE,
+        () ->
+            String.format(
+                "peak heap grew from %d MB with %d events to %d MB with %d events",
+                small >> 20, EVENTS / 10, large >> 20, EVENTS));
+  }
+
+  private static long peak(final Run run, final long events) throws Exception {
+    final HeapMonitor monitor = new HeapMonitor();
+    monitor.sample();
+    run.run(events, monitor);
+    monitor.sample();
+    assertEquals(events, monitor.results, "number of hashed events");
+    return monitor.peak;
+  }
+
+  /** Count a result of the hash generation and sample the heap in regular intervals. */
+  public void result() {
+    if (++results % SAMPLE_INTERVAL == 0) {
+      sample();
+    }
+  }
+
+  private void sample() {
+    System.gc();
+    peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+  }
+}
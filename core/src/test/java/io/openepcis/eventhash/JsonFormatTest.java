@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.eventhash.exception.EventHashException;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Test to ensure CBOR and Smile documents create the same hashes as the textual JSON documents.
+public class JsonFormatTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  @Test
+  public void documentTest(@TempDir final Path directory) throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(23);
+    generator.events(100);
+    generator.sensors(2, 3);
+    generator.extensions(2, 2);
+    final byte[] json = generator.toByteArray(WorkloadGenerator.Format.JSON);
+    final List<Map<String, String>> expected =
+        new EventHashGenerator()
+            .<Map<String, String>>fromJson(new ByteArrayInputStream(json), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(100, expected.size());
+
+    for (final JsonFormat format : List.of(JsonFormat.CBOR, JsonFormat.SMILE)) {
+      final byte[] document = encode(json, format);
+      final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+      eventHashGenerator.jsonFormat(format);
+      assertEquals(
+          expected,
+          eventHashGenerator
+              .<Map<String, String>>fromJson(new ByteArrayInputStream(document), HASH_ALGORITHMS)
+              .subscribe()
+              .asStream()
+              .toList(),
+          format.name());
+      assertEquals(
+          expected,
+          eventHashGenerator
+              .<Map<String, String>>fromJson(ByteBuffer.wrap(document), HASH_ALGORITHMS)
+              .subscribe()
+              .asStream()
+              .toList(),
+          format.name());
+      final Path file = Files.write(directory.resolve(format.name()), document);
+      assertEquals(
+          expected,
+          eventHashGenerator
+              .<Map<String, String>>fromJson(file, HASH_ALGORITHMS)
+              .subscribe()
+              .asStream()
+              .toList(),
+          format.name());
+
+      // Characters and chunks fed without blocking are textual JSON only.
+      assertThrows(
+          EventHashException.class,
+          () -> eventHashGenerator.fromJson(new StringReader("{}"), HASH_ALGORITHMS));
+      assertThrows(EventHashException.class, () -> eventHashGenerator.jsonFeeder(HASH_ALGORITHMS));
+    }
+  }
+
+  @Test
+  public void eventListTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(29);
+    generator.events(20);
+    final byte[] eventList = generator.toByteArray(WorkloadGenerator.Format.JSON_EVENT_LIST);
+    final List<Map<String, String>> expected =
+        new EventHashGenerator()
+            .<Map<String, String>>fromJsonEventList(
+                new ByteArrayInputStream(eventList), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(20, expected.size());
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    eventHashGenerator.jsonFormat(JsonFormat.CBOR);
+    assertEquals(
+        expected,
+        eventHashGenerator
+            .<Map<String, String>>fromJsonEventList(
+                new ByteArrayInputStream(encode(eventList, JsonFormat.CBOR)), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList());
+  }
+
+  @Test
+  public void contentTypeTest() {
+    assertEquals(JsonFormat.CBOR, JsonFormat.ofContentType("application/cbor"));
+    assertEquals(
+        JsonFormat.SMILE, JsonFormat.ofContentType("Application/X-Jackson-Smile; charset=x"));
+    assertEquals(JsonFormat.JSON, JsonFormat.ofContentType("application/ld+json"));
+    assertEquals(JsonFormat.JSON, JsonFormat.ofContentType(null));
+  }
+
+  // Encode the textual JSON document in the binary format, as a producer would.
+  private static byte[] encode(final byte[] json, final JsonFormat format) throws IOException {
+    final JsonNode tree = new ObjectMapper().readTree(json);
+    return new ObjectMapper(format.factory()).writeValueAsBytes(tree);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the non-blocking hash generation returns the same HashResults as the InputStream
+// based API, however the document is split into chunks.
+public class JsonHashFeederTest {
+
+  private static final String[] HASH_ALGORITHMS = {"sha-256", "prehash"};
+
+  @Test
+  public void documentTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(7);
+    generator.events(50);
+    generator.extensions(2, 3);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> expected =
+        eventHashGenerator
+            .hashResultsFromJson(new ByteArrayInputStream(document), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(50, expected.size());
+
+    for (int chunk : new int[] {1, 7, 8192, document.length}) {
+      try (JsonHashFeeder feeder = eventHashGenerator.jsonFeeder(HASH_ALGORITHMS)) {
+        assertEquals(expected, feed(feeder, document, chunk), "chunks of " + chunk + " bytes");
+        assertTrue(feeder.isFinished());
+      }
+    }
+  }
+
+  @Test
+  public void eventListTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(11);
+    generator.events(10);
+    final String document =
+        new String(generator.toByteArray(WorkloadGenerator.Format.JSON), StandardCharsets.UTF_8);
+    final byte[] eventList =
+        document
+            .substring(document.indexOf("\"eventList\"") + 12, document.lastIndexOf(']') + 1)
+            .getBytes(StandardCharsets.UTF_8);
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<HashResult> expected =
+        eventHashGenerator
+            .hashResultsFromJsonEventList(new ByteArrayInputStream(eventList), HASH_ALGORITHMS)
+            .subscribe()
+            .asStream()
+            .toList();
+    assertEquals(10, expected.size());
+    try (JsonHashFeeder feeder = eventHashGenerator.jsonEventListFeeder(HASH_ALGORITHMS)) {
+      assertEquals(expected, feed(feeder, eventList, 13));
+    }
+
+    // A document is no event list, which is detected with its first token.
+    try (JsonHashFeeder feeder = eventHashGenerator.jsonEventListFeeder(HASH_ALGORITHMS)) {
+      final byte[] invalid = document.getBytes(StandardCharsets.UTF_8);
+      feeder.feed(invalid, 0, 1);
+      assertThrows(IOException.class, feeder::next);
+    }
+  }
+
+  @Test
+  public void incrementalTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(3);
+    generator.events(2);
+    final String document =
+        new String(generator.toByteArray(WorkloadGenerator.Format.JSON), StandardCharsets.UTF_8);
+    final byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+    // The first event is hashed as soon as it is complete, before the rest of the document is fed.
+    final int firstEventEnd = document.indexOf("\n{", document.indexOf("\n{") + 1);
+
+    try (JsonHashFeeder feeder = new EventHashGenerator().jsonFeeder("sha-256")) {
+      feeder.feed(bytes, 0, firstEventEnd);
+      final HashResult first = feeder.next();
+      assertNotNull(first);
+      assertEquals(0, first.ordinal());
+      assertNull(feeder.next());
+      assertTrue(feeder.needsInput());
+      assertFalse(feeder.isFinished());
+
+      feeder.feed(bytes, firstEventEnd, bytes.length - firstEventEnd);
+      assertEquals(1, feeder.next().ordinal());
+      assertNull(feeder.next());
+      feeder.endOfInput();
+      assertNull(feeder.next());
+      assertTrue(feeder.isFinished());
+    }
+  }
+
+  private static List<HashResult> feed(
+      final JsonHashFeeder feeder, final byte[] document, final int chunk) throws IOException {
+    final List<HashResult> results = new ArrayList<>();
+    for (int offset = 0; offset < document.length; offset += chunk) {
+      assertTrue(feeder.needsInput());
+      feeder.feed(document, offset, Math.min(chunk, document.length - offset));
+      for (HashResult result = feeder.next(); result != null; result = feeder.next()) {
+        results.add(result);
+      }
+    }
+    feeder.endOfInput();
+    for (HashResult result = feeder.next(); result != null; result = feeder.next()) {
+      results.add(result);
+    }
+    return results;
+  }
+}
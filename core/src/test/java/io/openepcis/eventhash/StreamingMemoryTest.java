@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.smallrye.mutiny.Multi;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure every entry point of the EventHashGenerator streams the events of large documents
+// with bounded memory, also if the results are consumed slower than the events are read.
+// Run with: mvn test -Pmemory-tests [-Deventhash.memory.events=5000000]
+@Tag("memory")
+public class StreamingMemoryTest {
+
+  @Test
+  public void xmlMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) -> {
+          final SyntheticEpcisDocument document = SyntheticEpcisDocument.xml(events);
+          consume(new EventHashGenerator().fromXml(document, "sha-256"), document, monitor);
+        });
+  }
+
+  @Test
+  public void jsonMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) -> {
+          final SyntheticEpcisDocument document = SyntheticEpcisDocument.json(events);
+          consume(new EventHashGenerator().fromJson(document, "sha-256"), document, monitor);
+        });
+  }
+
+  @Test
+  public void jsonEventListMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) -> {
+          final SyntheticEpcisDocument document = SyntheticEpcisDocument.jsonEventList(events);
+          consume(
+              new EventHashGenerator().fromJsonEventList(document, "sha-256"), document, monitor);
+        });
+  }
+
+  @Test
+  public void xmlStreamMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) -> {
+          final SyntheticEpcisDocument document = SyntheticEpcisDocument.xml(events);
+          consume(new EventHashGenerator().streamFromXml(document, "sha-256"), document, monitor);
+        });
+  }
+
+  @Test
+  public void jsonStreamMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) -> {
+          final SyntheticEpcisDocument document = SyntheticEpcisDocument.json(events);
+          consume(new EventHashGenerator().streamFromJson(document, "sha-256"), document, monitor);
+        });
+  }
+
+  private static void consume(
+      final Multi<?> hashes, final SyntheticEpcisDocument document, final HeapMonitor monitor)
+      throws InterruptedException {
+    consume(hashes.subscribe().asStream(), document, monitor);
+  }
+
+  // Hold back the first hash until the document is no longer read, then consume the remaining.
+  private static void consume(
+      final Stream<?> hashes, final SyntheticEpcisDocument document, final HeapMonitor monitor)
+      throws InterruptedException {
+    try (hashes) {
+      final Iterator<?> iterator = hashes.iterator();
+      if (iterator.hasNext()) {
+        iterator.next();
+        monitor.result();
+        document.awaitIdle();
+      }
+      while (iterator.hasNext()) {
+        iterator.next();
+        monitor.result();
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Synthetic EPCIS document with any number of events, which is generated by the {@link
+ * WorkloadGenerator} while it is read. Documents of several GB can be hashed without storing them
+ * in memory or on disk. Tracks how far the document is read, to hold back the consumer of the
+ * hashes.
+ */
+public final class SyntheticEpcisDocument extends InputStream {
+
+  private static final long IDLE_MILLIS = 500;
+
+  private final InputStream document;
+  private volatile long bytesRead;
+  private volatile boolean end;
+
+  private SyntheticEpcisDocument(final WorkloadGenerator.Format format, final long events) {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(events);
+    generator.extensions(1, 1);
+    this.document = generator.inputStream(format);
+  }
+
+  /**
+   * XML EPCIS document with the given number of ObjectEvents.
+   *
+   * @param events number of events
+   * @return input stream generating the document while it is read
+   */
+  public static SyntheticEpcisDocument xml(final long events) {
+    return new SyntheticEpcisDocument(WorkloadGenerator.Format.XML, events);
+  }
+
+  /**
+   * JSON EPCIS document with the given number of ObjectEvents.
+   *
+   * @param events number of events
+   * @return input stream generating the document while it is read
+   */
+  public static SyntheticEpcisDocument json(final long events) {
+    return new SyntheticEpcisDocument(WorkloadGenerator.Format.JSON, events);
+  }
+
+  /**
+   * JSON array of ObjectEvents, each with its own @context, as accepted by the events endpoints.
+   *
+   * @param events number of events
+   * @return input stream generating the array while it is read
+   */
+  public static SyntheticEpcisDocument jsonEventList(final long events) {
+    return new SyntheticEpcisDocument(WorkloadGenerator.Format.JSON_EVENT_LIST, events);
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    final int n = document.read(b, off, len);
+    if (n == -1) {
+      end = true;
+    } else {
+      bytesRead += n;
+    }
+    return n;
+  }
+
+  /**
+   * Wait until the document is completely read or is no longer read, like a slow consumer of the
+   * hashes. An implementation which streams stops reading the document as soon as it has hashed the
+   * requested events, one which buffers reads the whole document.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void awaitIdle() throws InterruptedException {
+    long read;
+    do {
+      read = bytesRead;
+      Thread.sleep(IDLE_MILLIS);
+    } while (!end && read != bytesRead);
+  }
+}
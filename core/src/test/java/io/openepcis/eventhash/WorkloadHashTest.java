@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openepcis.eventhash.workload.EventType;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the JSON, XML and JSON event list documents of the workload generator result in
+// the same hashes, so load tests of the different formats hash the same events.
+public class WorkloadHashTest {
+
+  @Test
+  public void eventTypesTest() throws IOException {
+    for (EventType type : EventType.values()) {
+      final WorkloadGenerator generator = new WorkloadGenerator(type.ordinal());
+      generator.events(20);
+      generator.eventMix(Map.of(type, 1));
+      generator.sensors(2, 3);
+      generator.extensions(3, 3);
+      assertSameHashes(generator);
+    }
+  }
+
+  @Test
+  public void deepExtensionTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.extensions(1, 500);
+    assertSameHashes(generator);
+  }
+
+  private static void assertSameHashes(final WorkloadGenerator generator) throws IOException {
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator();
+    final List<String> json =
+        eventHashGenerator
+            .fromJson(generator.inputStream(WorkloadGenerator.Format.JSON), "sha-256")
+            .collect()
+            .asList()
+            .await()
+            .indefinitely();
+    assertEquals(
+        json,
+        eventHashGenerator
+            .fromXml(generator.inputStream(WorkloadGenerator.Format.XML), "sha-256")
+            .collect()
+            .asList()
+            .await()
+            .indefinitely());
+    assertEquals(
+        json,
+        eventHashGenerator
+            .fromJsonEventList(
+                generator.inputStream(WorkloadGenerator.Format.JSON_EVENT_LIST), "sha-256")
+            .collect()
+            .asList()
+            .await()
+            .indefinitely());
+  }
+}
@@ -15,14 +15,52 @@
  */
 package io.openepcis.eventhash.runtime;
 
+import io.openepcis.eventhash.AdmissionController;
 import io.openepcis.eventhash.EventHashGenerator;
+import io.openepcis.eventhash.constant.ConstantEventHashInfo;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.Produces;
+import java.time.Duration;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @ApplicationScoped
 public class EventHashGeneratorProducer {
 
+  @ConfigProperty(name = "openepcis.event-hash.epc-list-spill-threshold")
+  Optional<Integer> epcListSpillThreshold;
+
+  @ConfigProperty(name = "openepcis.event-hash.admission.max-documents")
+  Optional<Integer> maxDocuments;
+
+  @ConfigProperty(name = "openepcis.event-hash.admission.max-bytes")
+  Optional<Long> maxBytes;
+
+  @ConfigProperty(name = "openepcis.event-hash.admission.max-events")
+  Optional<Long> maxEvents;
+
+  @ConfigProperty(name = "openepcis.event-hash.admission.retry-after")
+  Optional<Duration> retryAfter;
+
+  // The REST and servlet endpoints create an EventHashGenerator per request, so the spill threshold
+  // is applied as default of all EventHashGenerators before the first request.
+  void configureEventHashGenerator(@Observes final StartupEvent startupEvent) {
+    epcListSpillThreshold.ifPresent(ConstantEventHashInfo.getContext()::setEpcListSpillThreshold);
+  }
+
+  // The limits of the admission control are shared by the REST and servlet endpoints, so they are
+  // applied to the default AdmissionController before the first request.
+  void configureAdmission(@Observes final StartupEvent startupEvent) {
+    final AdmissionController admission = AdmissionController.getDefault();
+    maxDocuments.ifPresent(admission::maxDocuments);
+    maxBytes.ifPresent(admission::maxBytes);
+    maxEvents.ifPresent(admission::maxEvents);
+    retryAfter.ifPresent(admission::retryAfter);
+  }
+
   @Produces
   @RequestScoped
   public EventHashGenerator createEventHashGenerator() {
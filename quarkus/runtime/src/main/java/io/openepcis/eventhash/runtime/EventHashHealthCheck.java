@@ -15,6 +15,7 @@
  */
 package io.openepcis.eventhash.runtime;
 
+import io.openepcis.eventhash.AdmissionController;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
@@ -31,13 +32,19 @@ public class EventHashHealthCheck implements HealthCheck {
     this.eventHashGeneratorProducer = eventHashGeneratorProducer;
   }
 
+  // Reports DOWN while the admission control rejects documents, so the load balancer drains the
+  // instance until the documents in flight complete.
   @Override
   public HealthCheckResponse call() {
+    final AdmissionController admission = AdmissionController.getDefault();
     HealthCheckResponseBuilder builder =
-        HealthCheckResponse.named("OpenEPCIS Event Hash Generator health check").up();
+        HealthCheckResponse.named("OpenEPCIS Event Hash Generator health check")
+            .status(!admission.saturated());
     builder
-        .up()
-        .withData("eventHashGeneratorProducer", eventHashGeneratorProducer.getClass().getName());
+        .withData("eventHashGeneratorProducer", eventHashGeneratorProducer.getClass().getName())
+        .withData("documents", admission.documents())
+        .withData("bytes", admission.bytes())
+        .withData("events", admission.events());
     return builder.build();
   }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.exception;
+
+import io.openepcis.eventhash.exception.AdmissionException;
+import io.openepcis.model.rest.ProblemResponseBody;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.RestResponse;
+
+@Provider
+public class AdmissionExceptionMapper implements ExceptionMapper<AdmissionException> {
+
+  @Override
+  public Response toResponse(AdmissionException exception) {
+    // Documents over the limits of the admission control are rejected before they are read, the
+    // client retries after the given seconds, possibly with another instance.
+    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Math.max(1, exception.getRetryAfter().toSeconds()))
+        .entity(
+            ProblemResponseBody.fromException(exception, RestResponse.Status.SERVICE_UNAVAILABLE))
+        .build();
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.exception;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import io.openepcis.eventhash.exception.EventHashException;
+import io.openepcis.model.rest.ProblemResponseBody;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import javax.xml.stream.XMLStreamException;
+import org.jboss.resteasy.reactive.RestResponse;
+
+@Provider
+public class EventHashExceptionMapper implements ExceptionMapper<EventHashException> {
+
+  @Override
+  public Response toResponse(EventHashException exception) {
+    // Documents which can not be parsed while streaming the events are reported like the parse
+    // exceptions thrown before reading the first event.
+    if (exception.getCause() instanceof XMLStreamException
+        || exception.getCause() instanceof JsonParseException) {
+      return Response.status(Response.Status.UNSUPPORTED_MEDIA_TYPE)
+          .entity(
+              ProblemResponseBody.fromException(
+                  exception, RestResponse.Status.UNSUPPORTED_MEDIA_TYPE))
+          .build();
+    }
+    return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+        .entity(
+            ProblemResponseBody.fromException(exception, RestResponse.Status.INTERNAL_SERVER_ERROR))
+        .build();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+
+/**
+ * EPCIS document of a bulk request, which is a part of a multipart request or an entry of a zip
+ * file. JSON and XML documents can be mixed, the format is detected from the content.
+ *
+ * @param name file name of the part or name of the zip entry, used to tag the results
+ * @param content opens the content of the document
+ */
+record BulkPart(String name, Content content) {
+
+  /** Content of a part, which can be opened once. */
+  @FunctionalInterface
+  interface Content {
+    InputStream open() throws IOException;
+  }
+
+  /**
+   * @param uploads parts of a multipart request, stored in temporary files
+   * @return documents of the parts
+   */
+  static List<BulkPart> of(final List<FileUpload> uploads) {
+    return uploads.stream()
+        .map(
+            upload ->
+                new BulkPart(
+                    upload.fileName() != null ? upload.fileName() : upload.name(),
+                    () -> Files.newInputStream(upload.uploadedFile())))
+        .toList();
+  }
+
+  /**
+   * Read the entries of a zip file as they are iterated, directories are skipped. The entries are
+   * read sequentially from the zip file, so every entry is held in memory until it is hashed. An
+   * entry larger than the maximum size is not read into memory, its content fails to open instead.
+   *
+   * @param zip input stream of the zip file
+   * @param maxEntrySize maximum number of bytes of an uncompressed entry
+   * @return documents of the entries
+   */
+  static Iterable<BulkPart> ofZip(final InputStream zip, final int maxEntrySize) {
+    return () -> new ZipEntries(new ZipInputStream(zip), maxEntrySize);
+  }
+
+  /**
+   * @param document content of a document
+   * @return true if the first character other than white space or a byte order mark is &lt;
+   * @throws IOException if the document cannot be read
+   */
+  static boolean isXml(final BufferedInputStream document) throws IOException {
+    document.mark(64);
+    try {
+      int c;
+      do {
+        c = document.read();
+      } while (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == 0xEF || c == 0xBB
+          || c == 0xBF);
+      return c == '<';
+    } finally {
+      document.reset();
+    }
+  }
+
+  private static final class ZipEntries implements Iterator<BulkPart> {
+
+    private final ZipInputStream zip;
+    private final int maxEntrySize;
+    private BulkPart next;
+
+    private ZipEntries(final ZipInputStream zip, final int maxEntrySize) {
+      this.zip = zip;
+      this.maxEntrySize = maxEntrySize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        ZipEntry entry;
+        while (next == null && (entry = zip.getNextEntry()) != null) {
+          if (!entry.isDirectory()) {
+            next = part(entry);
+          }
+        }
+        return next != null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    // The rest of an entry over the maximum size is skipped by the next entry without being held.
+    private BulkPart part(final ZipEntry entry) throws IOException {
+      if (entry.getSize() <= maxEntrySize) {
+        final byte[] content = zip.readNBytes((int) Math.min(maxEntrySize + 1L, Integer.MAX_VALUE));
+        if (content.length <= maxEntrySize) {
+          return new BulkPart(entry.getName(), () -> new ByteArrayInputStream(content));
+        }
+      }
+      return new BulkPart(
+          entry.getName(),
+          () -> {
+            throw new IOException(
+                "Zip entry " + entry.getName() + " exceeds " + maxEntrySize + " bytes");
+          });
+    }
+
+    @Override
+    public BulkPart next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final BulkPart part = next;
+      next = null;
+      return part;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.openepcis.eventhash.HashResult;
+import java.io.IOException;
+
+/**
+ * Result of an event of a bulk request tagged by the name of its part, or the failure of a part
+ * which could not be hashed. Written as one line of the response, such as:
+ *
+ * <pre>
+ * {"part":"a.json","ordinal":0,"eventType":"ObjectEvent","hashes":{"sha-256":"ni:///sha-256;..."}}
+ * {"part":"b.xml","error":"..."}
+ * </pre>
+ *
+ * @param part name of the part
+ * @param result result of an event, null if the part failed
+ * @param error message of the failure of the part, null if the event is hashed
+ */
+record BulkResult(String part, HashResult result, String error) {
+
+  static BulkResult of(final String part, final HashResult result) {
+    return new BulkResult(part, result, null);
+  }
+
+  static BulkResult failure(final String part, final Throwable failure) {
+    return new BulkResult(
+        part, null, failure.getMessage() != null ? failure.getMessage() : failure.toString());
+  }
+
+  static void write(final JsonGenerator generator, final BulkResult bulkResult) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("part", bulkResult.part());
+    if (bulkResult.result() != null) {
+      HashResultJson.writeFields(generator, bulkResult.result());
+    } else {
+      generator.writeStringField("error", bulkResult.error());
+    }
+    generator.writeEndObject();
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import io.openepcis.eventhash.ContentEncoding;
+import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Decompresses request bodies with a gzip, deflate or zstd Content-Encoding while the endpoints
+ * parse them, so compressed documents are never buffered. The admission control and the response
+ * cache see the decompressed document. Unsupported encodings are rejected with 415 Unsupported
+ * Media Type.
+ */
+@Provider
+public class ContentEncodingFilter implements ContainerRequestFilter {
+
+  @Override
+  public void filter(final ContainerRequestContext requestContext) {
+    final String contentEncoding = requestContext.getHeaderString(HttpHeaders.CONTENT_ENCODING);
+    if (!ContentEncoding.isEncoded(contentEncoding)) {
+      return;
+    }
+    if (!ContentEncoding.isSupported(contentEncoding)) {
+      throw new NotSupportedException("unsupported content encoding: " + contentEncoding);
+    }
+    requestContext.setEntityStream(
+        ContentEncoding.decode(requestContext.getEntityStream(), contentEncoding));
+    requestContext.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+  }
+}
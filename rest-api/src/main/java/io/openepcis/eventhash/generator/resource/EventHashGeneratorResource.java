@@ -15,24 +15,42 @@
  */
 package io.openepcis.eventhash.generator.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.openepcis.constants.CBVVersion;
-import io.openepcis.eventhash.DocumentWrapperSupport;
+import io.openepcis.eventhash.AdmissionController;
 import io.openepcis.eventhash.EventHashGenerator;
+import io.openepcis.eventhash.EventHashMetrics;
+import io.openepcis.eventhash.HashResult;
+import io.openepcis.eventhash.JsonFormat;
+import io.openepcis.eventhash.constant.ConstantEventHashInfo;
 import io.openepcis.model.epcis.EPCISDocument;
 import io.openepcis.model.epcis.EPCISEvent;
 import io.openepcis.model.rest.ProblemResponseBody;
 import io.openepcis.resources.oas.EPCISExampleOASFilter;
+import io.quarkus.virtual.threads.VirtualThreads;
 import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.context.ManagedExecutor;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
@@ -45,6 +63,8 @@ import org.eclipse.microprofile.openapi.annotations.parameters.RequestBodySchema
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
 
 @Path("/api")
 @Tag(
@@ -54,13 +74,39 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 public class EventHashGeneratorResource {
 
   private static final String SHA_256 = "sha-256";
+  private static final String APPLICATION_ZIP = "application/zip";
+  private static final String APPLICATION_CBOR = "application/cbor";
+  private static final String APPLICATION_SMILE = "application/x-jackson-smile";
+  private static final int BULK_CONCURRENCY = Runtime.getRuntime().availableProcessors();
+  private static final ObjectReader EVENT_READER = new ObjectMapper().readerFor(ObjectNode.class);
   private final ManagedExecutor managedExecutor;
-  private final DocumentWrapperSupport documentWrapperSupport;
+  private final ResponseCache responseCache;
+  private final EventHashMetrics metrics = new EventHashMetrics();
+  private final AdmissionController admission = AdmissionController.getDefault();
+
+  // Opt-in: the blocking parse and hash loop of a request runs on a virtual thread of its own
+  // instead of the worker pool, so requests do not queue behind slow uploads. Without support of
+  // virtual threads by the JVM, Quarkus falls back to platform threads.
+  @ConfigProperty(name = "openepcis.event-hash.virtual-threads", defaultValue = "false")
+  boolean virtualThreads;
+
+  @Inject @VirtualThreads ExecutorService virtualThreadsExecutor;
+
+  // Maximum size of an uncompressed entry of a bulk zip file, the entries hashed concurrently are
+  // held in memory, so larger entries are rejected instead of being read.
+  @ConfigProperty(name = "openepcis.event-hash.bulk.max-entry-size", defaultValue = "67108864")
+  int bulkMaxEntrySize;
 
   // Method to convert the input XML/JSON EPCIS Document into Hash Ids based on the event
   // information present in them.
   @Path("/generate/event-hash/document")
-  @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    MediaType.TEXT_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
   @Produces({MediaType.APPLICATION_JSON})
   @RequestBody(
       description = "EPCIS 2.0 document in XML or JSON/JSON-LD format.",
@@ -212,6 +258,7 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
     return getMulti(
         contentType,
         inputDocumentStream,
+        false,
         hashAlgorithm,
         prehash,
         beautifyPreHash,
@@ -220,7 +267,12 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
   }
 
   @Path("/generate/event-hash/document")
-  @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
   @Produces({MediaType.TEXT_PLAIN})
   @POST
   public Multi<String> generateHashIdText(
@@ -240,6 +292,7 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
                     getMulti(
                         contentType,
                         inputDocumentStream,
+                        false,
                         hashAlgorithm,
                         prehash,
                         beautifyPreHash,
@@ -264,18 +317,353 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
             });
   }
 
+  // Stream the HashResults of the events as newline delimited JSON, one line per event.
+  @Path("/generate/event-hash/document")
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
+  @Produces({NdjsonStreamingOutput.APPLICATION_NDJSON})
+  @POST
+  public Response generateHashIdNdjson(
+      @HeaderParam("Content-Type") final String contentType,
+      final InputStream inputDocumentStream,
+      @DefaultValue("sha-256") @QueryParam("hashAlgorithm") String hashAlgorithm,
+      @DefaultValue("false") @QueryParam("prehash") Boolean prehash,
+      @DefaultValue("false") @QueryParam("beautifyPreHash") Boolean beautifyPreHash,
+      @DefaultValue("") @QueryParam("ignoreFields") String ignoreFields,
+      @DefaultValue("2.0.0") @QueryParam("cbvVersion") String cbvVersion,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) final String ifNoneMatch)
+      throws IOException {
+    return getNdjson(
+        contentType,
+        inputDocumentStream,
+        false,
+        hashAlgorithm,
+        prehash,
+        beautifyPreHash,
+        ignoreFields,
+        cbvVersion,
+        ifNoneMatch);
+  }
+
   private Multi<Map<String, String>> getMulti(
       String contentType,
       InputStream inputDocumentStream,
+      boolean eventList,
       String hashAlgorithm,
       Boolean prehash,
       Boolean beautifyPreHash,
       String ignoreFields,
       String cbvVersion)
       throws IOException {
-    // List to store the parameters based on the user provided inputs.
-    final List<String> hashParameters = new ArrayList<>();
+    final EventHashGenerator eventHashGenerator =
+        eventHashGenerator(prehash, beautifyPreHash, ignoreFields, cbvVersion);
+    final String[] hashAlgorithms = hashAlgorithms(hashAlgorithm, prehash);
+    final ResponseCache.Lookup lookup =
+        lookup(
+            contentType,
+            inputDocumentStream,
+            eventList,
+            hashAlgorithm,
+            prehash,
+            beautifyPreHash,
+            ignoreFields,
+            cbvVersion);
+
+    return hashResults(lookup, contentType, eventList, eventHashGenerator, hashAlgorithms)
+        .map(HashResult::toMap)
+        .filter(hashes -> !hashes.isEmpty())
+        .runSubscriptionOn(blockingExecutor());
+  }
+
+  // The HashResults are written as newline delimited JSON by the worker thread of the request,
+  // which reads and hashes the events as the lines are written.
+  // The digest of a cached document is its ETag. A POST is no conditional read, so a client which
+  // sends it as If-None-Match fails the precondition with 412 without the results (RFC 9110 13.1.2).
+  private Response getNdjson(
+      String contentType,
+      InputStream inputDocumentStream,
+      boolean eventList,
+      String hashAlgorithm,
+      Boolean prehash,
+      Boolean beautifyPreHash,
+      String ignoreFields,
+      String cbvVersion,
+      String ifNoneMatch)
+      throws IOException {
+    final EventHashGenerator eventHashGenerator =
+        eventHashGenerator(prehash, beautifyPreHash, ignoreFields, cbvVersion);
+    final String[] hashAlgorithms = hashAlgorithms(hashAlgorithm, prehash);
+    final ResponseCache.Lookup lookup =
+        lookup(
+            contentType,
+            inputDocumentStream,
+            eventList,
+            hashAlgorithm,
+            prehash,
+            beautifyPreHash,
+            ignoreFields,
+            cbvVersion);
+
+    final EntityTag entityTag = lookup.key() != null ? new EntityTag(lookup.key()) : null;
+    if (entityTag != null && matches(ifNoneMatch, entityTag, lookup.hit())) {
+      return Response.status(Response.Status.PRECONDITION_FAILED).tag(entityTag).build();
+    }
+    return Response.ok(
+            NdjsonStreamingOutput.of(
+                hashResults(lookup, contentType, eventList, eventHashGenerator, hashAlgorithms)))
+        .tag(entityTag)
+        .build();
+  }
+
+  // Read the document as far as needed to look it up in the response cache, a saturated service
+  // rejects the document before it is read. The fields excluded from the pre-hash are shared by all
+  // generators, so the effective list is part of the cache key next to the ignoreFields parameter.
+  private ResponseCache.Lookup lookup(
+      String contentType,
+      InputStream inputDocumentStream,
+      boolean eventList,
+      String hashAlgorithm,
+      Boolean prehash,
+      Boolean beautifyPreHash,
+      String ignoreFields,
+      String cbvVersion)
+      throws IOException {
+    admission.check();
+    final String excludedFields =
+        String.join(
+            ",", List.copyOf(ConstantEventHashInfo.getContext().getFieldsToExcludeInPrehash()));
+    return responseCache.lookup(
+        inputDocumentStream,
+        eventList ? "events" : "document",
+        isXml(contentType) ? "xml" : JsonFormat.ofContentType(contentType).mediaType(),
+        hashAlgorithm,
+        String.valueOf(prehash),
+        String.valueOf(beautifyPreHash),
+        ignoreFields,
+        excludedFields,
+        cbvVersion);
+  }
+
+  // Replay the cached HashResults of the document, otherwise hash it and cache the HashResults. A
+  // JSON list of events is read directly from the array without a wrapper document, JSON documents
+  // may be sent as CBOR or Smile as well.
+  private Multi<HashResult> hashResults(
+      final ResponseCache.Lookup lookup,
+      final String contentType,
+      final boolean eventList,
+      final EventHashGenerator eventHashGenerator,
+      final String[] hashAlgorithms)
+      throws IOException {
+    if (lookup.hit()) {
+      return lookup.replay();
+    }
+    eventHashGenerator.jsonFormat(JsonFormat.ofContentType(contentType));
+    return responseCache.cache(
+        lookup,
+        observe(
+            eventList ? "events" : "document",
+            eventHashGenerator,
+            hashAlgorithms,
+            lookup.document(),
+            document ->
+                isXml(contentType)
+                    ? eventHashGenerator.hashResultsFromXml(document, hashAlgorithms)
+                    : eventList
+                        ? eventHashGenerator.hashResultsFromJsonEventList(document, hashAlgorithms)
+                        : eventHashGenerator.hashResultsFromJson(document, hashAlgorithms)));
+  }
+
+  private static boolean isXml(final String contentType) {
+    return contentType.contains("application/xml");
+  }
+
+  // If-None-Match is a list of entity tags or *, weak tags match as well. * only matches documents
+  // which are in the cache.
+  private static boolean matches(
+      final String ifNoneMatch, final EntityTag entityTag, final boolean cached) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (final String tag : ifNoneMatch.split(",")) {
+      final String value = StringUtils.removeStart(tag.trim(), "W/");
+      if (value.equals("*") ? cached : value.equals("\"" + entityTag.getValue() + "\"")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Hash a long-lived stream of EPCIS events, sent as newline delimited JSON or as JSON array, and
+  // send the HashResult of every event as server-sent event as soon as the event is read.
+  @Path("/generate/event-hash/stream")
+  @Consumes({NdjsonStreamingOutput.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+  @Produces({MediaType.SERVER_SENT_EVENTS})
+  @POST
+  public Multi<String> generateEventHashIdsStream(
+      final InputStream inputEventStream,
+      @DefaultValue("sha-256") @QueryParam("hashAlgorithm") String hashAlgorithm,
+      @DefaultValue("false") @QueryParam("prehash") Boolean prehash,
+      @DefaultValue("false") @QueryParam("beautifyPreHash") Boolean beautifyPreHash,
+      @DefaultValue("") @QueryParam("ignoreFields") String ignoreFields,
+      @DefaultValue("2.0.0") @QueryParam("cbvVersion") String cbvVersion)
+      throws IOException {
+    final EventHashGenerator eventHashGenerator =
+        eventHashGenerator(prehash, beautifyPreHash, ignoreFields, cbvVersion);
+    final String[] hashAlgorithms = hashAlgorithms(hashAlgorithm, prehash);
 
+    return observe(
+            "stream",
+            eventHashGenerator,
+            hashAlgorithms,
+            inputEventStream,
+            stream ->
+                eventHashGenerator.hashResultsFromEventPublisher(events(stream), hashAlgorithms))
+        .map(HashResultJson::toJson)
+        .runSubscriptionOn(blockingExecutor());
+  }
+
+  // The events of the request body as they are read, a JSON array is read element by element.
+  private static Multi<ObjectNode> events(final InputStream inputEventStream) {
+    return Multi.createFrom()
+        .resource(
+            () -> {
+              try {
+                return EVENT_READER.<ObjectNode>readValues(inputEventStream);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            },
+            events -> Multi.createFrom().iterable(() -> events))
+        .withFinalizer(
+            events -> {
+              try {
+                events.close();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  // Hash the EPCIS documents of a multipart request concurrently and stream the results of their
+  // events tagged by the name of the part as newline delimited JSON.
+  @Path("/generate/event-hash/bulk")
+  @Consumes({MediaType.MULTIPART_FORM_DATA})
+  @Produces({NdjsonStreamingOutput.APPLICATION_NDJSON})
+  @POST
+  public StreamingOutput generateBulkHashIds(
+      @RestForm(FileUpload.ALL) final List<FileUpload> documents,
+      @DefaultValue("sha-256") @QueryParam("hashAlgorithm") String hashAlgorithm,
+      @DefaultValue("false") @QueryParam("prehash") Boolean prehash,
+      @DefaultValue("false") @QueryParam("beautifyPreHash") Boolean beautifyPreHash,
+      @DefaultValue("") @QueryParam("ignoreFields") String ignoreFields,
+      @DefaultValue("2.0.0") @QueryParam("cbvVersion") String cbvVersion) {
+    return bulk(
+        BulkPart.of(documents), hashAlgorithm, prehash, beautifyPreHash, ignoreFields, cbvVersion);
+  }
+
+  // Hash the EPCIS documents of a zip file concurrently and stream the results of their events
+  // tagged by the name of the entry as newline delimited JSON.
+  @Path("/generate/event-hash/bulk")
+  @Consumes({APPLICATION_ZIP})
+  @Produces({NdjsonStreamingOutput.APPLICATION_NDJSON})
+  @POST
+  public StreamingOutput generateBulkHashIdsZip(
+      final InputStream zip,
+      @DefaultValue("sha-256") @QueryParam("hashAlgorithm") String hashAlgorithm,
+      @DefaultValue("false") @QueryParam("prehash") Boolean prehash,
+      @DefaultValue("false") @QueryParam("beautifyPreHash") Boolean beautifyPreHash,
+      @DefaultValue("") @QueryParam("ignoreFields") String ignoreFields,
+      @DefaultValue("2.0.0") @QueryParam("cbvVersion") String cbvVersion) {
+    return bulk(
+        BulkPart.ofZip(zip, bulkMaxEntrySize),
+        hashAlgorithm,
+        prehash,
+        beautifyPreHash,
+        ignoreFields,
+        cbvVersion);
+  }
+
+  // One generator is configured for all documents of the request, it keeps no state between the
+  // documents. At most BULK_CONCURRENCY documents are hashed at the same time on the worker pool.
+  private StreamingOutput bulk(
+      Iterable<BulkPart> parts,
+      String hashAlgorithm,
+      Boolean prehash,
+      Boolean beautifyPreHash,
+      String ignoreFields,
+      String cbvVersion) {
+    // Every part is admitted as a document, a saturated service rejects the request up front.
+    admission.check();
+    final EventHashGenerator eventHashGenerator =
+        eventHashGenerator(prehash, beautifyPreHash, ignoreFields, cbvVersion);
+    final String[] hashAlgorithms = hashAlgorithms(hashAlgorithm, prehash);
+
+    return new NdjsonStreamingOutput<>(
+        Multi.createFrom()
+            .iterable(parts)
+            .onItem()
+            .transformToMulti(part -> bulkResults(eventHashGenerator, hashAlgorithms, part))
+            .merge(BULK_CONCURRENCY),
+        BULK_CONCURRENCY,
+        BulkResult::write);
+  }
+
+  // The results of a document, or its failure, which does not fail the other documents.
+  private Multi<BulkResult> bulkResults(
+      final EventHashGenerator eventHashGenerator,
+      final String[] hashAlgorithms,
+      final BulkPart part) {
+    return Multi.createFrom()
+        .deferred(
+            () -> {
+              try {
+                final BufferedInputStream document = new BufferedInputStream(part.content().open());
+                final boolean xml = BulkPart.isXml(document);
+                return observe(
+                    "bulk",
+                    eventHashGenerator,
+                    hashAlgorithms,
+                    document,
+                    in ->
+                        xml
+                            ? eventHashGenerator.hashResultsFromXml(in, hashAlgorithms)
+                            : eventHashGenerator.hashResultsFromJson(in, hashAlgorithms));
+              } catch (IOException e) {
+                return Multi.createFrom().<HashResult>failure(e);
+              }
+            })
+        .map(result -> BulkResult.of(part.name(), result))
+        .onFailure()
+        .recoverWithItem(failure -> BulkResult.failure(part.name(), failure))
+        .runSubscriptionOn(blockingExecutor());
+  }
+
+  // Admit the document before its first byte is read, documents over the limits are rejected with
+  // 503 Service Unavailable, and record the metrics of the document.
+  private <T> Multi<T> observe(
+      final String endpoint,
+      final EventHashGenerator eventHashGenerator,
+      final String[] hashAlgorithms,
+      final InputStream document,
+      final EventHashMetrics.Hashing<T> hashing)
+      throws IOException {
+    return admission.admit(
+        document,
+        admitted ->
+            metrics.observe(endpoint, eventHashGenerator, hashAlgorithms, admitted, hashing));
+  }
+
+  // Executor of the blocking parse and hash loops, which read the request body as it arrives.
+  private Executor blockingExecutor() {
+    return virtualThreads ? virtualThreadsExecutor : managedExecutor;
+  }
+
+  static EventHashGenerator eventHashGenerator(
+      Boolean prehash, Boolean beautifyPreHash, String ignoreFields, String cbvVersion) {
     // Based on CBV version provided set the respective cbv version, default to 2.0.0
     final CBVVersion targetCbvVersion =
         CBVVersion.VERSION_2_1_0.equals(CBVVersion.of(cbvVersion))
@@ -284,11 +672,8 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
 
     final EventHashGenerator eventHashGenerator = new EventHashGenerator(targetCbvVersion);
 
-    // If Pre-Hash string is requested then add the prehash string to the List
+    // If user has requested for beautification for prehash string then add beautification.
     if (Boolean.TRUE.equals(prehash)) {
-      hashParameters.add("prehash");
-
-      // If user has requested for beautification for prehash string then add beautification.
       if (beautifyPreHash != null && beautifyPreHash) {
         eventHashGenerator.prehashJoin("\\n");
       } else {
@@ -300,20 +685,32 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
     if (!StringUtils.isBlank(ignoreFields)) {
       eventHashGenerator.excludeFieldsInPreHash(ignoreFields);
     }
+    return eventHashGenerator;
+  }
+
+  static String[] hashAlgorithms(String hashAlgorithm, Boolean prehash) {
+    // List to store the parameters based on the user provided inputs.
+    final List<String> hashParameters = new ArrayList<>();
+
+    // If Pre-Hash string is requested then add the prehash string to the List
+    if (Boolean.TRUE.equals(prehash)) {
+      hashParameters.add("prehash");
+    }
 
     // Add the Hash Algorithm type to the List.
     hashParameters.add(hashAlgorithm != null && !hashAlgorithm.isEmpty() ? hashAlgorithm : SHA_256);
-
-    return (contentType.contains("application/xml")
-            ? eventHashGenerator.fromXml(inputDocumentStream, hashParameters.toArray(String[]::new))
-            : eventHashGenerator.fromJson(
-                inputDocumentStream, hashParameters.toArray(String[]::new)))
-        .runSubscriptionOn(managedExecutor);
+    return hashParameters.toArray(String[]::new);
   }
 
   // API end point for the single/List of EPCIS event in JSON format.
   @Path("/generate/event-hash/events")
-  @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    MediaType.TEXT_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
   @Produces({MediaType.APPLICATION_JSON})
   @RequestBody(
       description = "List of EPCIS 2.0 events JSON/JSON-LD format or EPCIS 2.0 XML event.",
@@ -455,9 +852,8 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
       throws IOException {
     return getMulti(
         contentType,
-        contentType.contains("application/xml")
-            ? inputDocumentStream
-            : documentWrapperSupport.generateJsonDocumentWrapper(inputDocumentStream),
+        inputDocumentStream,
+        true,
         hashAlgorithm,
         prehash,
         beautifyPreHash,
@@ -466,7 +862,13 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
   }
 
   @Path("/generate/event-hash/events")
-  @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML})
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    MediaType.TEXT_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
   @Produces({MediaType.TEXT_PLAIN})
   @POST
   public Multi<String> generateEventHashIdsText(
@@ -485,10 +887,8 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
                 Multi<Map<String, String>> m =
                     getMulti(
                         contentType,
-                        contentType.contains("application/xml")
-                            ? inputDocumentStream
-                            : documentWrapperSupport.generateJsonDocumentWrapper(
-                                inputDocumentStream),
+                        inputDocumentStream,
+                        true,
                         hashAlgorithm,
                         prehash,
                         beautifyPreHash,
@@ -512,4 +912,37 @@ ni:///sha-256;2615bc5627c3b3611e3df868aca2312882370ee78af44bcc20433ec028ebfc99?v
               }
             });
   }
+
+  // Stream the HashResults of the events as newline delimited JSON, one line per event.
+  @Path("/generate/event-hash/events")
+  @Consumes({
+    MediaType.APPLICATION_JSON,
+    MediaType.APPLICATION_XML,
+    MediaType.TEXT_XML,
+    APPLICATION_CBOR,
+    APPLICATION_SMILE
+  })
+  @Produces({NdjsonStreamingOutput.APPLICATION_NDJSON})
+  @POST
+  public Response generateEventHashIdsNdjson(
+      @HeaderParam("Content-Type") final String contentType,
+      final InputStream inputDocumentStream,
+      @DefaultValue("sha-256") @QueryParam("hashAlgorithm") String hashAlgorithm,
+      @DefaultValue("false") @QueryParam("prehash") Boolean prehash,
+      @DefaultValue("false") @QueryParam("beautifyPreHash") Boolean beautifyPreHash,
+      @DefaultValue("") @QueryParam("ignoreFields") String ignoreFields,
+      @DefaultValue("2.0.0") @QueryParam("cbvVersion") String cbvVersion,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) final String ifNoneMatch)
+      throws IOException {
+    return getNdjson(
+        contentType,
+        inputDocumentStream,
+        true,
+        hashAlgorithm,
+        prehash,
+        beautifyPreHash,
+        ignoreFields,
+        cbvVersion,
+        ifNoneMatch);
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.eventhash.EventHashGenerator;
+import io.openepcis.eventhash.exception.EventHashException;
+import io.quarkus.websockets.next.HandshakeRequest;
+import io.quarkus.websockets.next.OnTextMessage;
+import io.quarkus.websockets.next.WebSocket;
+import io.smallrye.mutiny.Multi;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.context.ManagedExecutor;
+
+/**
+ * WebSocket endpoint for a long-lived stream of EPCIS events, such as from edge readers. Every text
+ * message carries an EPCIS event or a JSON array of events, the HashResult of every event is sent
+ * back as text message in the order of the events, see {@link HashResultJson}. The hash generation
+ * is configured once per connection with the same query parameters as the REST endpoints, such as
+ * ws://localhost:9000/api/generate/event-hash/websocket?hashAlgorithm=sha-256&cbvVersion=2.1.0.
+ */
+@WebSocket(path = "/api/generate/event-hash/websocket")
+@RequiredArgsConstructor
+public class EventHashGeneratorWebSocket {
+
+  private final ManagedExecutor managedExecutor;
+
+  // Called once per connection with the messages of the connection. The events are hashed on a
+  // worker thread and only requested as the hashes are sent, so a slow client applies backpressure
+  // to the messages read from the connection. The namespaces of the @context of an event remain
+  // known for the following events of the connection.
+  @OnTextMessage
+  public Multi<String> onTextMessage(
+      final Multi<JsonNode> messages, final HandshakeRequest handshakeRequest) {
+    final Map<String, String> parameters = parameters(handshakeRequest.query());
+    final boolean prehash = Boolean.parseBoolean(parameters.get("prehash"));
+    final EventHashGenerator eventHashGenerator =
+        EventHashGeneratorResource.eventHashGenerator(
+            prehash,
+            Boolean.parseBoolean(parameters.get("beautifyPreHash")),
+            parameters.get("ignoreFields"),
+            parameters.getOrDefault("cbvVersion", "2.0.0"));
+    final String[] hashAlgorithms =
+        EventHashGeneratorResource.hashAlgorithms(parameters.get("hashAlgorithm"), prehash);
+
+    return eventHashGenerator
+        .hashResultsFromEventPublisher(
+            messages
+                .emitOn(managedExecutor)
+                .onItem()
+                .transformToIterable(EventHashGeneratorWebSocket::events),
+            hashAlgorithms)
+        .map(HashResultJson::toJson);
+  }
+
+  private static List<ObjectNode> events(final JsonNode message) {
+    if (message.isObject()) {
+      return List.of((ObjectNode) message);
+    }
+    if (message.isArray()) {
+      final List<ObjectNode> events = new ArrayList<>(message.size());
+      message.elements().forEachRemaining(event -> events.addAll(events(event)));
+      return events;
+    }
+    throw new EventHashException("WebSocket message is neither an EPCIS event nor an array");
+  }
+
+  private static Map<String, String> parameters(final String query) {
+    final Map<String, String> parameters = new HashMap<>();
+    if (query != null && !query.isEmpty()) {
+      for (String parameter : query.split("&")) {
+        final int separator = parameter.indexOf('=');
+        if (separator > 0) {
+          parameters.put(
+              URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+              URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    return parameters;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import io.openepcis.eventhash.HashResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * JSON object of a HashResult as written by the streaming endpoints, such as:
+ *
+ * <pre>
+ * {"ordinal":0,"eventId":"ni:///sha-256;...","eventType":"ObjectEvent","hashes":{"sha-256":"ni:///sha-256;..."}}
+ * </pre>
+ */
+final class HashResultJson {
+
+  private static final JsonFactory JSON_FACTORY =
+      JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+  private HashResultJson() {}
+
+  /**
+   * @param output output stream which is not closed with the generator
+   * @return generator writing the JSON objects to the output stream
+   * @throws IOException if the generator cannot be created
+   */
+  static JsonGenerator generator(final OutputStream output) throws IOException {
+    return JSON_FACTORY.createGenerator(output);
+  }
+
+  /**
+   * @param result result of the hash generation of an event
+   * @return JSON object of the result
+   */
+  static String toJson(final HashResult result) {
+    final StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      write(generator, result);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  static void write(final JsonGenerator generator, final HashResult result) throws IOException {
+    generator.writeStartObject();
+    writeFields(generator, result);
+    generator.writeEndObject();
+  }
+
+  // Fields of the result within a JSON object, which may contain further fields.
+  static void writeFields(final JsonGenerator generator, final HashResult result)
+      throws IOException {
+    generator.writeNumberField("ordinal", result.ordinal());
+    if (result.eventId() != null) {
+      generator.writeStringField("eventId", result.eventId());
+    }
+    generator.writeStringField("eventType", result.eventType());
+    generator.writeObjectFieldStart("hashes");
+    for (int i = 0; i < result.hashAlgorithms().size(); i++) {
+      generator.writeStringField(result.hashAlgorithms().get(i), result.hashes().get(i));
+    }
+    generator.writeEndObject();
+  }
+}
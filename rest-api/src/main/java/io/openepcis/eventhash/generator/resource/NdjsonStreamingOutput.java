@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.openepcis.eventhash.HashResult;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one JSON object per line as newline delimited JSON, such as a HashResult per line, see
+ * {@link HashResultJson}.
+ *
+ * <p>The results are requested while the lines are written, so only the prefetched results and the
+ * lines written since the last flush are buffered. The output is flushed in batches of lines, or
+ * earlier if the flush interval elapsed or the next result is not available yet, so clients receive
+ * the hashes of slowly read documents without waiting for the next event.
+ *
+ * @param <T> type of the results written per line
+ */
+final class NdjsonStreamingOutput<T> implements StreamingOutput {
+
+  static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  // Maximum number of lines and time between two flushes of the output.
+  private static final int FLUSH_LINES = 64;
+  private static final long FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final Multi<T> results;
+  private final int prefetch;
+  private final LineWriter<T> lineWriter;
+
+  /**
+   * @param results results of which one is written per line
+   * @param prefetch number of results requested before they are written
+   * @param lineWriter writes the JSON object of a result
+   */
+  NdjsonStreamingOutput(
+      final Multi<T> results, final int prefetch, final LineWriter<T> lineWriter) {
+    this.results = results;
+    this.prefetch = prefetch;
+    this.lineWriter = lineWriter;
+  }
+
+  /**
+   * Request the HashResults one by one, so an event is hashed only when its line is written.
+   *
+   * @param results HashResults of the events
+   * @return output writing a HashResult per line
+   */
+  static NdjsonStreamingOutput<HashResult> of(final Multi<HashResult> results) {
+    return new NdjsonStreamingOutput<>(results, 1, HashResultJson::write);
+  }
+
+  /** Writes the JSON object of a result. */
+  @FunctionalInterface
+  interface LineWriter<T> {
+    void write(JsonGenerator generator, T result) throws IOException;
+  }
+
+  @Override
+  public void write(final OutputStream output) throws IOException {
+    final Lines<T> lines = new Lines<>(prefetch);
+    results.subscribe().withSubscriber(lines);
+    try (JsonGenerator generator = HashResultJson.generator(output)) {
+      generator.setRootValueSeparator(null);
+      int unflushed = 0;
+      long flushed = System.nanoTime();
+      while (true) {
+        Object signal = lines.poll();
+        if (signal == null && unflushed > 0) {
+          // The upload stalls, the lines written so far are sent before waiting for the next one.
+          generator.flush();
+          unflushed = 0;
+          flushed = System.nanoTime();
+        }
+        if (signal == null) {
+          signal = lines.take();
+        }
+        if (signal == Lines.END) {
+          break;
+        }
+        @SuppressWarnings("unchecked")
+        final T result = (T) signal;
+        lineWriter.write(generator, result);
+        generator.writeRaw('\n');
+        lines.request();
+        if (++unflushed == FLUSH_LINES || System.nanoTime() - flushed >= FLUSH_NANOS) {
+          generator.flush();
+          unflushed = 0;
+          flushed = System.nanoTime();
+        }
+      }
+      lines.rethrow();
+    } finally {
+      lines.cancel();
+    }
+  }
+
+  // Subscriber queueing the results until their lines are written, a result is requested for every
+  // line written, so at most prefetch results are queued.
+  private static final class Lines<T> implements Flow.Subscriber<T> {
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final int prefetch;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable failure;
+
+    private Lines(final int prefetch) {
+      this.prefetch = prefetch;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(final T item) {
+      queue.add(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      failure = throwable;
+      queue.add(END);
+    }
+
+    @Override
+    public void onComplete() {
+      queue.add(END);
+    }
+
+    private Object poll() {
+      return queue.poll();
+    }
+
+    private Object take() throws InterruptedIOException {
+      try {
+        return queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while waiting for the next hash");
+      }
+    }
+
+    private void request() {
+      subscription.request(1);
+    }
+
+    private void cancel() {
+      final Flow.Subscription s = subscription;
+      if (s != null) {
+        s.cancel();
+      }
+    }
+
+    private void rethrow() throws IOException {
+      final Throwable t = failure;
+      if (t instanceof IOException e) {
+        throw e;
+      } else if (t instanceof RuntimeException e) {
+        throw e;
+      } else if (t instanceof Error e) {
+        throw e;
+      } else if (t != null) {
+        throw new CompletionException(t);
+      }
+    }
+  }
+}
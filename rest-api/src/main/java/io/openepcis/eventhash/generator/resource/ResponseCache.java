@@ -0,0 +1,258 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.openepcis.eventhash.HashResult;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Content-addressed cache of the HashResults of repeatedly sent documents, such as retried requests
+ * or duplicated EDI messages. A document is identified by the SHA-256 digest of its raw bytes and
+ * the hash parameters of the request, so a cached document is answered without being parsed.
+ *
+ * <p>The cache is disabled by default. Documents up to the maximum document size are read into
+ * memory to compute their digest, larger documents are hashed as stream without being cached. The
+ * least recently used entries are evicted beyond the maximum number of entries or bytes, entries
+ * expire after the time to live. The lookups are counted by the meter eventhash.cache.requests,
+ * tagged with the result hit or miss.
+ */
+@Singleton
+public class ResponseCache {
+
+  // Estimated heap of a cached HashResult besides the characters of its strings.
+  private static final int RESULT_OVERHEAD = 128;
+
+  private final boolean enabled;
+  private final int maxEntries;
+  private final long maxBytes;
+  private final int maxDocumentSize;
+  private final long ttlNanos;
+
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  private final Counter hits;
+  private final Counter misses;
+
+  @Inject
+  public ResponseCache(
+      @ConfigProperty(name = "openepcis.event-hash.cache.enabled", defaultValue = "false")
+          final boolean enabled,
+      @ConfigProperty(name = "openepcis.event-hash.cache.max-entries", defaultValue = "1000")
+          final int maxEntries,
+      @ConfigProperty(name = "openepcis.event-hash.cache.max-bytes", defaultValue = "67108864")
+          final long maxBytes,
+      @ConfigProperty(
+              name = "openepcis.event-hash.cache.max-document-size",
+              defaultValue = "1048576")
+          final int maxDocumentSize,
+      @ConfigProperty(name = "openepcis.event-hash.cache.ttl", defaultValue = "10m")
+          final Duration ttl) {
+    this(enabled, maxEntries, maxBytes, maxDocumentSize, ttl, Metrics.globalRegistry);
+  }
+
+  public ResponseCache(
+      final boolean enabled,
+      final int maxEntries,
+      final long maxBytes,
+      final int maxDocumentSize,
+      final Duration ttl,
+      final MeterRegistry registry) {
+    this.enabled = enabled;
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.maxDocumentSize = maxDocumentSize;
+    this.ttlNanos = ttl.toNanos();
+    this.hits = requests(registry, "hit");
+    this.misses = requests(registry, "miss");
+    Gauge.builder("eventhash.cache.entries", this, ResponseCache::size)
+        .description("Documents in the response cache")
+        .register(registry);
+  }
+
+  private static Counter requests(final MeterRegistry registry, final String result) {
+    return Counter.builder("eventhash.cache.requests")
+        .description("Lookups of documents in the response cache")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * Method used to look up a document before it is hashed. The returned Lookup contains the cached
+   * HashResults on a hit, otherwise the document to hash, which has been read up to the maximum
+   * document size.
+   *
+   * @param document raw bytes of the request body
+   * @param parameters hash parameters of the request which the HashResults depend on
+   * @return lookup of the document
+   * @throws IOException if the document cannot be read
+   */
+  public Lookup lookup(final InputStream document, final String... parameters) throws IOException {
+    if (!enabled) {
+      return new Lookup(null, null, document);
+    }
+    final byte[] bytes = document.readNBytes(maxDocumentSize + 1);
+    if (bytes.length > maxDocumentSize) {
+      return new Lookup(
+          null, null, new SequenceInputStream(new ByteArrayInputStream(bytes), document));
+    }
+
+    final String key = key(bytes, parameters);
+    final List<HashResult> results = get(key);
+    (results != null ? hits : misses).increment();
+    return new Lookup(key, results, new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Method used to cache the HashResults of a looked up document once they are complete.
+   *
+   * @param lookup lookup of the document
+   * @param results HashResults of the document
+   * @return Multi of the HashResults which caches them on completion
+   */
+  public Multi<HashResult> cache(final Lookup lookup, final Multi<HashResult> results) {
+    if (lookup.key() == null) {
+      return results;
+    }
+    final List<HashResult> collected = new ArrayList<>();
+    return results
+        .onItem()
+        .invoke(collected::add)
+        .onCompletion()
+        .invoke(() -> put(lookup.key(), collected));
+  }
+
+  /**
+   * @return number of cached documents, including expired ones which are not yet evicted
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  // The parameters are separated by a zero byte, which is not part of any parameter.
+  private static String key(final byte[] document, final String... parameters) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (final String parameter : parameters) {
+      digest.update(String.valueOf(parameter).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return HexFormat.of().formatHex(digest.digest(document));
+  }
+
+  private synchronized List<HashResult> get(final String key) {
+    final Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.created() > ttlNanos) {
+      remove(key);
+      return null;
+    }
+    return entry.results();
+  }
+
+  private synchronized void put(final String key, final List<HashResult> results) {
+    final long size = size(results);
+    if (size > maxBytes) {
+      return;
+    }
+    remove(key);
+    entries.put(key, new Entry(List.copyOf(results), size, System.nanoTime()));
+    bytes += size;
+
+    // Evict the least recently used entries.
+    final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+      bytes -= eldest.next().getValue().size();
+      eldest.remove();
+    }
+  }
+
+  private void remove(final String key) {
+    final Entry removed = entries.remove(key);
+    if (removed != null) {
+      bytes -= removed.size();
+    }
+  }
+
+  // Estimated heap of the HashResults, two bytes per character of the strings.
+  private static long size(final List<HashResult> results) {
+    long size = 0;
+    for (final HashResult result : results) {
+      size += RESULT_OVERHEAD + 2L * length(result.eventId()) + 2L * length(result.eventType());
+      for (final String hash : result.hashes()) {
+        size += 2L * length(hash);
+      }
+    }
+    return size;
+  }
+
+  private static int length(final String s) {
+    return s == null ? 0 : s.length();
+  }
+
+  private record Entry(List<HashResult> results, long size, long created) {}
+
+  /**
+   * Result of the lookup of a document.
+   *
+   * @param key digest of the document and its hash parameters, null if the document is not cached
+   * @param results cached HashResults of the document, null on a miss
+   * @param document document to hash on a miss
+   */
+  public record Lookup(String key, List<HashResult> results, InputStream document) {
+
+    /**
+     * @return true if the HashResults of the document are cached
+     */
+    public boolean hit() {
+      return results != null;
+    }
+
+    /**
+     * @return cached HashResults of the document
+     */
+    public Multi<HashResult> replay() {
+      return Multi.createFrom().iterable(results);
+    }
+  }
+}
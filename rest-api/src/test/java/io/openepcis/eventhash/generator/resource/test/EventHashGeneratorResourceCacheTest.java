@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource.test;
+
+import io.openepcis.eventhash.generator.resource.EventHashGeneratorResource;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URL;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure repeated documents are answered from the response cache with the same hashes.
+@QuarkusTest
+@TestProfile(EventHashGeneratorResourceCacheTest.CacheProfile.class)
+public class EventHashGeneratorResourceCacheTest {
+
+  private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  @TestHTTPEndpoint(EventHashGeneratorResource.class)
+  @TestHTTPResource
+  URL url;
+
+  @Test
+  public void cachedDocumentTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(13);
+    generator.events(20);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+
+    final Response first = post(document, APPLICATION_NDJSON, "sha-256", null);
+    first.then().assertThat().statusCode(200);
+    final String etag = first.header("ETag");
+    Assertions.assertNotNull(etag);
+    Assertions.assertEquals(20, first.body().asString().lines().count());
+
+    // The cached results are the same, as are the results of the JSON endpoint.
+    final Response second = post(document, APPLICATION_NDJSON, "sha-256", null);
+    Assertions.assertEquals(etag, second.header("ETag"));
+    Assertions.assertEquals(first.body().asString(), second.body().asString());
+    Assertions.assertEquals(
+        post(document, MediaType.APPLICATION_JSON, "sha-256", null).jsonPath().getList("$"),
+        post(document, MediaType.APPLICATION_JSON, "sha-256", null).jsonPath().getList("$"));
+
+    post(document, APPLICATION_NDJSON, "sha-256", etag).then().assertThat().statusCode(412);
+    post(document, APPLICATION_NDJSON, "sha-256", "*").then().assertThat().statusCode(412);
+
+    // * does not match a document which is not cached.
+    generator.events(5);
+    post(generator.toByteArray(WorkloadGenerator.Format.JSON), APPLICATION_NDJSON, "sha-256", "*")
+        .then()
+        .assertThat()
+        .statusCode(200);
+
+    // Other hash parameters are another entity.
+    final Response other = post(document, APPLICATION_NDJSON, "sha3-256", etag);
+    other.then().assertThat().statusCode(200);
+    Assertions.assertNotEquals(etag, other.header("ETag"));
+  }
+
+  private Response post(
+      final byte[] document, final String accept, final String hashAlgorithm, final String etag) {
+    return RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(accept)
+        .headers(etag != null ? Map.of("If-None-Match", etag) : Map.of())
+        .queryParam("hashAlgorithm", hashAlgorithm)
+        .body(document)
+        .post(url + "/generate/event-hash/document");
+  }
+
+  public static class CacheProfile implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of("openepcis.event-hash.cache.enabled", "true");
+    }
+  }
+}
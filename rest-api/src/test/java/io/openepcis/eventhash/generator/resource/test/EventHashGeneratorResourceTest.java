@@ -15,12 +15,30 @@
  */
 package io.openepcis.eventhash.generator.resource.test;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 import io.openepcis.eventhash.generator.resource.EventHashGeneratorResource;
 import io.openepcis.eventhash.generator.test.AbstractEventHashGeneratorTest;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
 import io.quarkus.test.common.http.TestHTTPEndpoint;
 import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 public class EventHashGeneratorResourceTest extends AbstractEventHashGeneratorTest {
@@ -38,4 +56,160 @@ public class EventHashGeneratorResourceTest extends AbstractEventHashGeneratorTe
   protected String eventsApi() {
     return url + "/generate/event-hash/events";
   }
+
+  @Test
+  public void ndjsonTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(200);
+    assertNdjson(
+        documentApi(),
+        MediaType.APPLICATION_XML,
+        generator.toByteArray(WorkloadGenerator.Format.XML));
+    assertNdjson(
+        documentApi(),
+        MediaType.APPLICATION_JSON,
+        generator.toByteArray(WorkloadGenerator.Format.JSON));
+    assertNdjson(
+        eventsApi(),
+        MediaType.APPLICATION_JSON,
+        generator.toByteArray(WorkloadGenerator.Format.JSON_EVENT_LIST));
+  }
+
+  @Test
+  public void serverSentEventsTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(50);
+    final List<Map<String, String>> hashes =
+        RestAssured.given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .body(generator.toByteArray(WorkloadGenerator.Format.JSON_EVENT_LIST))
+            .post(eventsApi())
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getList("$");
+    final List<String> events =
+        RestAssured.given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.SERVER_SENT_EVENTS)
+            .body(generator.toByteArray(WorkloadGenerator.Format.JSON_EVENT_LIST))
+            .post(url + "/generate/event-hash/stream")
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString()
+            .lines()
+            .filter(line -> line.startsWith("data:"))
+            .map(line -> line.substring("data:".length()))
+            .toList();
+    assertEquals(hashes.size(), events.size());
+    for (int i = 0; i < events.size(); i++) {
+      assertEquals(hashes.get(i), JsonPath.from(events.get(i)).getMap("hashes"));
+    }
+  }
+
+  @Test
+  public void bulkTest() throws IOException {
+    final Map<String, byte[]> documents = new TreeMap<>();
+    final Map<String, List<Map<String, String>>> hashes = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      final WorkloadGenerator generator = new WorkloadGenerator(i);
+      generator.events(5 + i);
+      final boolean xml = i % 2 == 0;
+      final String name = "document" + i + (xml ? ".xml" : ".json");
+      documents.put(
+          name,
+          generator.toByteArray(
+              xml ? WorkloadGenerator.Format.XML : WorkloadGenerator.Format.JSON));
+      hashes.put(
+          name,
+          RestAssured.given()
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .body(generator.toByteArray(WorkloadGenerator.Format.JSON))
+              .post(documentApi())
+              .then()
+              .statusCode(200)
+              .extract()
+              .jsonPath()
+              .getList("$"));
+    }
+
+    RequestSpecification multipart = RestAssured.given().accept("application/x-ndjson");
+    for (Map.Entry<String, byte[]> document : documents.entrySet()) {
+      multipart = multipart.multiPart("documents", document.getKey(), document.getValue());
+    }
+    assertBulk(hashes, multipart.post(url + "/generate/event-hash/bulk"));
+
+    final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(zip)) {
+      for (Map.Entry<String, byte[]> document : documents.entrySet()) {
+        out.putNextEntry(new ZipEntry(document.getKey()));
+        out.write(document.getValue());
+        out.closeEntry();
+      }
+    }
+    assertBulk(
+        hashes,
+        RestAssured.given()
+            .contentType("application/zip")
+            .accept("application/x-ndjson")
+            .body(zip.toByteArray())
+            .post(url + "/generate/event-hash/bulk"));
+  }
+
+  // The results of the parts are interleaved, but in the order of the events within a part.
+  private static void assertBulk(
+      final Map<String, List<Map<String, String>>> hashes, final Response response) {
+    final Map<String, List<Map<String, String>>> parts = new HashMap<>();
+    response
+        .then()
+        .statusCode(200)
+        .extract()
+        .asString()
+        .lines()
+        .map(JsonPath::from)
+        .forEach(
+            line -> {
+              final List<Map<String, String>> part =
+                  parts.computeIfAbsent(line.getString("part"), name -> new ArrayList<>());
+              assertEquals(part.size(), line.getInt("ordinal"));
+              part.add(line.getMap("hashes"));
+            });
+    assertEquals(hashes, parts);
+  }
+
+  // The lines of the NDJSON response carry the hashes of the JSON array response in the same order.
+  private static void assertNdjson(final String url, final String contentType, final byte[] body) {
+    final List<Map<String, String>> hashes =
+        RestAssured.given()
+            .contentType(contentType)
+            .accept(MediaType.APPLICATION_JSON)
+            .body(body)
+            .post(url)
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getList("$");
+    final String[] lines =
+        RestAssured.given()
+            .contentType(contentType)
+            .accept("application/x-ndjson")
+            .body(body)
+            .post(url)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString()
+            .split("\n");
+    assertEquals(hashes.size(), lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      final JsonPath line = JsonPath.from(lines[i]);
+      assertEquals(i, line.getLong("ordinal"));
+      assertEquals(hashes.get(i), line.getMap("hashes"));
+    }
+  }
 }
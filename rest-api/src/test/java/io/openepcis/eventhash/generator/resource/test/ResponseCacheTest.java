@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.resource.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.openepcis.eventhash.EventHashGenerator;
+import io.openepcis.eventhash.HashResult;
+import io.openepcis.eventhash.generator.resource.ResponseCache;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure repeated documents are answered from the cache within its bounds.
+public class ResponseCacheTest {
+
+  @Test
+  public void hitTest() throws IOException {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final ResponseCache cache =
+        new ResponseCache(true, 10, Long.MAX_VALUE, 1 << 20, Duration.ofMinutes(1), registry);
+    final byte[] document = document(1);
+
+    final ResponseCache.Lookup miss = cache.lookup(new ByteArrayInputStream(document), "sha-256");
+    assertFalse(miss.hit());
+    final List<HashResult> expected = hash(cache, miss);
+    assertEquals(10, expected.size());
+
+    final ResponseCache.Lookup hit = cache.lookup(new ByteArrayInputStream(document), "sha-256");
+    assertTrue(hit.hit());
+    assertEquals(miss.key(), hit.key());
+    assertEquals(expected, hit.replay().subscribe().asStream().toList());
+
+    // Other parameters, such as another hash algorithm, are another document.
+    final ResponseCache.Lookup other = cache.lookup(new ByteArrayInputStream(document), "sha3-256");
+    assertFalse(other.hit());
+    assertNotEquals(miss.key(), other.key());
+
+    assertEquals(
+        1, registry.get("eventhash.cache.requests").tag("result", "hit").counter().count());
+    assertEquals(
+        2, registry.get("eventhash.cache.requests").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  public void boundsTest() throws IOException {
+    final ResponseCache cache =
+        new ResponseCache(
+            true, 2, Long.MAX_VALUE, 1 << 20, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    for (int seed = 0; seed < 3; seed++) {
+      hash(cache, cache.lookup(new ByteArrayInputStream(document(seed)), "sha-256"));
+    }
+    assertEquals(2, cache.size());
+    // The least recently used document is evicted.
+    assertFalse(cache.lookup(new ByteArrayInputStream(document(0)), "sha-256").hit());
+    assertTrue(cache.lookup(new ByteArrayInputStream(document(2)), "sha-256").hit());
+
+    // Documents over the maximum size are hashed as stream without being cached.
+    final byte[] document = document(3);
+    final ResponseCache small =
+        new ResponseCache(
+            true, 2, Long.MAX_VALUE, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    final ResponseCache.Lookup large = small.lookup(new ByteArrayInputStream(document), "sha-256");
+    assertNull(large.key());
+    assertArrayEquals(document, large.document().readAllBytes());
+
+    // Expired documents are hashed again.
+    final ResponseCache expiring =
+        new ResponseCache(
+            true, 2, Long.MAX_VALUE, 1 << 20, Duration.ZERO, new SimpleMeterRegistry());
+    hash(expiring, expiring.lookup(new ByteArrayInputStream(document), "sha-256"));
+    assertFalse(expiring.lookup(new ByteArrayInputStream(document), "sha-256").hit());
+  }
+
+  private static byte[] document(final long seed) {
+    final WorkloadGenerator generator = new WorkloadGenerator(seed);
+    generator.events(10);
+    return generator.toByteArray(WorkloadGenerator.Format.JSON);
+  }
+
+  private static List<HashResult> hash(final ResponseCache cache, final ResponseCache.Lookup lookup)
+      throws IOException {
+    return cache
+        .cache(lookup, new EventHashGenerator().hashResultsFromJson(lookup.document(), "sha-256"))
+        .subscribe()
+        .asStream()
+        .toList();
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.test;
+
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Posts a document from thousands of concurrent slow clients, which send the document in small
+ * chunks with a delay between them, and reports the p99 latency of the responses. The thread
+ * reading a document waits for every chunk, so requests queue once all threads of a bounded pool
+ * wait for slow uploads. Once the worker pool and virtual threads were both measured in the same
+ * JVM, both p99 latencies are logged. The latencies depend on the load of the machine, so the test
+ * only fails on a clear regression, a p99 latency with virtual threads above twice the one of the
+ * worker pool, which is only checked on Java 21 or later. Run with: mvn test -Pload-tests
+ * [-Deventhash.load.clients=2000]
+ */
+@QuarkusTest
+@Tag("load")
+@Slf4j
+public abstract class AbstractEventHashGeneratorLoadTest {
+
+  private static final int CLIENTS = Integer.getInteger("eventhash.load.clients", 2000);
+  private static final int EVENTS = Integer.getInteger("eventhash.load.events", 20);
+  private static final Duration DELAY =
+      Duration.ofMillis(Long.getLong("eventhash.load.delay-ms", 100));
+  private static final int CHUNK = 1024;
+  private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+  // Factor by which the p99 latency with virtual threads may exceed the one of the worker pool
+  // before it is considered a regression rather than noise of the machine.
+  private static final int REGRESSION = 2;
+
+  // Execution models of the endpoints under test.
+  protected static final String WORKER_POOL = "worker pool";
+  protected static final String VIRTUAL_THREADS = "virtual threads";
+
+  // p99 latency per execution model measured in this JVM.
+  private static final Map<String, Duration> P99 = new ConcurrentSkipListMap<>();
+
+  protected abstract String documentApi();
+
+  // Name of the execution model of the endpoint under test, such as WORKER_POOL.
+  protected abstract String executionModel();
+
+  @Test
+  public void slowClientsLatencyTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.events(EVENTS);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    final List<CompletableFuture<Long>> responses = new ArrayList<>(CLIENTS);
+    for (int i = 0; i < CLIENTS; i++) {
+      final long start = System.nanoTime();
+      responses.add(
+          client
+              .sendAsync(
+                  HttpRequest.newBuilder(URI.create(documentApi()))
+                      .header("Content-Type", MediaType.APPLICATION_JSON)
+                      .header("Accept", MediaType.APPLICATION_JSON)
+                      .timeout(TIMEOUT)
+                      .POST(
+                          HttpRequest.BodyPublishers.fromPublisher(
+                              slowly(document), document.length))
+                      .build(),
+                  HttpResponse.BodyHandlers.ofString())
+              .thenApply(
+                  response -> {
+                    Assertions.assertEquals(200, response.statusCode(), response.body());
+                    return System.nanoTime() - start;
+                  }));
+    }
+
+    final long[] latencies =
+        responses.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+    final Duration p99 = Duration.ofNanos(latencies[(int) Math.ceil(latencies.length * 0.99) - 1]);
+    P99.put(executionModel(), p99);
+    log.info(
+        "{} slow clients, {}: p50 {} ms, p99 {} ms, max {} ms",
+        CLIENTS,
+        executionModel(),
+        Duration.ofNanos(latencies[latencies.length / 2]).toMillis(),
+        p99.toMillis(),
+        Duration.ofNanos(latencies[latencies.length - 1]).toMillis());
+  }
+
+  @AfterAll
+  public static void compareLatencies() {
+    P99.forEach(
+        (executionModel, p99) ->
+            log.info("p99 latency with {}: {} ms", executionModel, p99.toMillis()));
+    if (!P99.containsKey(WORKER_POOL) || !P99.containsKey(VIRTUAL_THREADS)) {
+      return;
+    }
+    // Without virtual threads Quarkus falls back to platform threads, so there is no relation.
+    Assumptions.assumeTrue(
+        Runtime.version().feature() >= 21,
+        "p99 latencies not compared, virtual threads require Java 21 or later, running on Java "
+            + Runtime.version().feature());
+    Assertions.assertTrue(
+        P99.get(VIRTUAL_THREADS).compareTo(P99.get(WORKER_POOL).multipliedBy(REGRESSION)) <= 0,
+        () ->
+            "p99 latency with virtual threads "
+                + P99.get(VIRTUAL_THREADS).toMillis()
+                + " ms exceeds "
+                + REGRESSION
+                + " times the worker pool "
+                + P99.get(WORKER_POOL).toMillis()
+                + " ms");
+  }
+
+  // The document in chunks, each sent after the delay. The chunks are requested by the HTTP client
+  // as it writes them, so a client sends at most one chunk per delay.
+  private static Multi<ByteBuffer> slowly(final byte[] document) {
+    return Multi.createFrom()
+        .range(0, (document.length + CHUNK - 1) / CHUNK)
+        .onItem()
+        .call(chunk -> Uni.createFrom().voidItem().onItem().delayIt().by(DELAY))
+        .map(
+            chunk ->
+                ByteBuffer.wrap(
+                    document, chunk * CHUNK, Math.min(CHUNK, document.length - chunk * CHUNK)));
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.openepcis.eventhash.HeapMonitor;
+import io.openepcis.eventhash.SyntheticEpcisDocument;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.core.MediaType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongFunction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Posts multi-GB synthetic EPCIS documents to the endpoints and asserts that the peak heap of the
+ * application does not depend on the size of the document. The hashes of the response are held back
+ * until the document is no longer read, so an endpoint which buffers the document or the hashes
+ * exhausts the heap. Run with: mvn test -Pmemory-tests [-Deventhash.memory.events=5000000]
+ */
+@QuarkusTest
+@Tag("memory")
+public abstract class AbstractEventHashGeneratorMemoryTest {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  protected abstract String documentApi();
+
+  protected abstract String eventsApi();
+
+  @Test
+  public void xmlDocumentMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) ->
+            post(
+                documentApi(),
+                MediaType.APPLICATION_XML,
+                SyntheticEpcisDocument::xml,
+                events,
+                monitor));
+  }
+
+  @Test
+  public void jsonDocumentMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) ->
+            post(
+                documentApi(),
+                MediaType.APPLICATION_JSON,
+                SyntheticEpcisDocument::json,
+                events,
+                monitor));
+  }
+
+  @Test
+  public void jsonEventListMemoryTest() throws Exception {
+    HeapMonitor.assertBounded(
+        (events, monitor) ->
+            post(
+                eventsApi(),
+                MediaType.APPLICATION_JSON,
+                SyntheticEpcisDocument::jsonEventList,
+                events,
+                monitor));
+  }
+
+  // Post the document and count the hash objects of the JSON array in the response. The HTTP
+  // clients of the JDK read the response only after the request body is sent, which blocks as soon
+  // as an endpoint streams the hashes while reading the document, so the request is written to the
+  // socket by a separate thread while the response is read.
+  private static void post(
+      final String url,
+      final String contentType,
+      final LongFunction<SyntheticEpcisDocument> documents,
+      final long events,
+      final HeapMonitor monitor)
+      throws Exception {
+    final SyntheticEpcisDocument document = documents.apply(events);
+    final URI uri = URI.create(url);
+    try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+      final OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+      final Thread writer =
+          new Thread(
+              () -> {
+                try (document) {
+                  out.write(
+                      ascii(
+                          "POST "
+                              + uri.getRawPath()
+                              + " HTTP/1.1\r\nHost: "
+                              + uri.getAuthority()
+                              + "\r\nContent-Type: "
+                              + contentType
+                              + "\r\nAccept: "
+                              + MediaType.APPLICATION_JSON
+                              + "\r\nTransfer-Encoding: chunked\r\nConnection: close\r\n\r\n"));
+                  final byte[] buffer = new byte[8192];
+                  int n;
+                  while ((n = document.read(buffer)) != -1) {
+                    out.write(ascii(Integer.toHexString(n) + "\r\n"));
+                    out.write(buffer, 0, n);
+                    out.write(ascii("\r\n"));
+                  }
+                  out.write(ascii("0\r\n\r\n"));
+                  out.flush();
+                } catch (IOException e) {
+                  // the endpoint closed the connection, the response tells why
+                }
+              });
+      writer.start();
+
+      final InputStream in = new BufferedInputStream(socket.getInputStream());
+      final String status = line(in);
+      Assertions.assertTrue(status.startsWith("HTTP/1.1 200"), status);
+      boolean chunked = false;
+      for (String header = line(in); !header.isEmpty(); header = line(in)) {
+        chunked |= header.toLowerCase().replace(" ", "").equals("transfer-encoding:chunked");
+      }
+      try (JsonParser parser =
+          JSON_FACTORY.createParser(chunked ? new ChunkedInputStream(in) : in)) {
+        Assertions.assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+        boolean first = true;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          monitor.result();
+          if (first) {
+            first = false;
+            document.awaitIdle();
+          }
+        }
+      }
+      writer.join();
+    }
+  }
+
+  private static byte[] ascii(final String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static String line(final InputStream in) throws IOException {
+    final StringBuilder line = new StringBuilder();
+    for (int c = in.read(); c != '\n'; c = in.read()) {
+      if (c == -1) {
+        throw new EOFException("connection closed by endpoint");
+      }
+      if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+    return line.toString();
+  }
+
+  // Body of a response with chunked transfer encoding.
+  private static final class ChunkedInputStream extends InputStream {
+
+    private final InputStream in;
+    private long remaining;
+    private boolean end;
+
+    private ChunkedInputStream(final InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (end) {
+        return -1;
+      }
+      if (remaining == 0) {
+        remaining = Long.parseLong(line(in).split(";")[0].trim(), 16);
+        if (remaining == 0) {
+          end = true;
+          return -1;
+        }
+      }
+      final int n = in.read(b, off, (int) Math.min(len, remaining));
+      if (n == -1) {
+        throw new EOFException("connection closed by endpoint");
+      }
+      remaining -= n;
+      if (remaining == 0) {
+        line(in);
+      }
+      return n;
+    }
+  }
+}
@@ -15,18 +15,30 @@
  */
 package io.openepcis.eventhash.generator.test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import io.openepcis.eventhash.AdmissionController;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
 import io.openepcis.resources.util.Commons;
 import io.openepcis.resources.util.ResourceFinder;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.Matchers;
@@ -68,6 +80,115 @@ public abstract class AbstractEventHashGeneratorTest {
             });
   }
 
+  @Test
+  public void admissionTest() {
+    final AdmissionController admission = AdmissionController.getDefault();
+    admission.maxDocuments(0);
+    admission.retryAfter(Duration.ofSeconds(3));
+    try {
+      Stream.of(documentApi(), eventsApi())
+          .forEach(
+              url ->
+                  RestAssured.given()
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .accept(ContentType.JSON)
+                      .body("[]")
+                      .post(url)
+                      .then()
+                      .assertThat()
+                      .statusCode(503)
+                      .header("Retry-After", "3"));
+    } finally {
+      admission.maxDocuments(Integer.MAX_VALUE);
+      admission.retryAfter(Duration.ofSeconds(1));
+    }
+    Assertions.assertEquals(0, admission.documents());
+  }
+
+  @Test
+  public void contentEncodingTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(17);
+    generator.events(100);
+    for (final WorkloadGenerator.Format format :
+        List.of(WorkloadGenerator.Format.JSON, WorkloadGenerator.Format.XML)) {
+      final String contentType =
+          format == WorkloadGenerator.Format.XML
+              ? MediaType.APPLICATION_XML
+              : MediaType.APPLICATION_JSON;
+      final byte[] document = generator.toByteArray(format);
+      final List<Map<String, String>> expected = hashes(contentType, null, document);
+      Assertions.assertEquals(100, expected.size());
+
+      // Compressed documents are decompressed while they are parsed.
+      for (final String encoding : List.of("gzip", "zstd")) {
+        Assertions.assertEquals(
+            expected, hashes(contentType, encoding, encode(document, encoding)), encoding);
+      }
+    }
+
+    RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.CONTENT_ENCODING, "br")
+        .body(new byte[] {0})
+        .post(documentApi())
+        .then()
+        .assertThat()
+        .statusCode(415);
+  }
+
+  @Test
+  public void binaryJsonTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(19);
+    generator.events(100);
+    generator.sensors(2, 2);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+    final List<Map<String, String>> expected = hashes(MediaType.APPLICATION_JSON, null, document);
+    Assertions.assertEquals(100, expected.size());
+
+    // CBOR and Smile documents carry the same JSON-LD, so they create the same hashes.
+    final ObjectMapper json = new ObjectMapper();
+    Assertions.assertEquals(
+        expected,
+        hashes(
+            "application/cbor",
+            null,
+            new ObjectMapper(new CBORFactory()).writeValueAsBytes(json.readTree(document))));
+    Assertions.assertEquals(
+        expected,
+        hashes(
+            "application/x-jackson-smile",
+            null,
+            new ObjectMapper(new SmileFactory()).writeValueAsBytes(json.readTree(document))));
+  }
+
+  private List<Map<String, String>> hashes(
+      final String contentType, final String contentEncoding, final byte[] document) {
+    return RestAssured.given()
+        .contentType(contentType)
+        .accept(ContentType.JSON)
+        .headers(
+            contentEncoding != null
+                ? Map.of(HttpHeaders.CONTENT_ENCODING, contentEncoding)
+                : Map.of())
+        .body(document)
+        .post(documentApi())
+        .then()
+        .assertThat()
+        .statusCode(200)
+        .extract()
+        .jsonPath()
+        .getList("$");
+  }
+
+  private static byte[] encode(final byte[] document, final String encoding) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out =
+        "gzip".equals(encoding) ? new GZIPOutputStream(bytes) : new ZstdOutputStream(bytes)) {
+      out.write(document);
+    }
+    return bytes.toByteArray();
+  }
+
   @Test
   public void hashGeneratorDocumentComparisonTest() {
     List<URL> jsonCaptureFiles =
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.servlet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.openepcis.eventhash.AdmissionController;
+import io.openepcis.eventhash.HashResult;
+import io.openepcis.eventhash.JsonHashFeeder;
+import io.openepcis.model.rest.servlet.ServletSupport;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Non-blocking hash generation of a request, which reads the document with a ReadListener, feeds it
+ * to a JsonHashFeeder and writes the hashes with a WriteListener as soon as an event is complete.
+ * No thread is held while the client sends the document or reads the hashes, the container calls
+ * the listeners whenever input is available or output is possible.
+ *
+ * <p>Input is only read while the hashes of the input read before are written, so a slow client
+ * suspends the reading of its document instead of buffering its hashes. The output is started with
+ * the first hash, errors before are responded like by the blocking servlets. A request which is not
+ * complete within the timeout fails, and the document is released however the request ends.
+ */
+final class AsyncHashing implements ReadListener, WriteListener, AsyncListener {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final int BUFFER_SIZE = 8192;
+  private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+  private final AsyncContext asyncContext;
+  private final ServletInputStream input;
+  private final HttpServletResponse resp;
+  private final ServletSupport servletSupport;
+  private final JsonHashFeeder feeder;
+  private final AdmissionController.InFlight inFlight;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  // The hashes are serialized to the pending bytes, which are written when output is possible.
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private final JsonGenerator json;
+  private ServletOutputStream output;
+  private boolean started;
+  private boolean allDataRead;
+  private boolean endOfInput;
+  private boolean completed;
+
+  private AsyncHashing(
+      final AsyncContext asyncContext,
+      final ServletInputStream input,
+      final HttpServletResponse resp,
+      final ServletSupport servletSupport,
+      final JsonHashFeeder feeder,
+      final AdmissionController.InFlight inFlight)
+      throws IOException {
+    this.asyncContext = asyncContext;
+    this.input = input;
+    this.resp = resp;
+    this.servletSupport = servletSupport;
+    this.feeder = feeder;
+    this.inFlight = inFlight;
+    this.json = JSON_FACTORY.createGenerator(pending);
+    json.writeStartArray();
+  }
+
+  // Put the request into asynchronous mode, the document is read as soon as input is available.
+  static void start(
+      final HttpServletRequest req,
+      final HttpServletResponse resp,
+      final ServletSupport servletSupport,
+      final JsonHashFeeder feeder,
+      final AdmissionController.InFlight inFlight)
+      throws IOException {
+    final ServletInputStream input = req.getInputStream();
+    final AsyncContext asyncContext = req.startAsync();
+    final AsyncHashing hashing =
+        new AsyncHashing(asyncContext, input, resp, servletSupport, feeder, inFlight);
+    asyncContext.setTimeout(TIMEOUT.toMillis());
+    asyncContext.addListener(hashing);
+    input.setReadListener(hashing);
+  }
+
+  @Override
+  public void onDataAvailable() {
+    resume();
+  }
+
+  @Override
+  public void onAllDataRead() {
+    synchronized (this) {
+      allDataRead = true;
+    }
+    resume();
+  }
+
+  @Override
+  public void onWritePossible() {
+    resume();
+  }
+
+  @Override
+  public void onError(final Throwable t) {
+    fail(t);
+  }
+
+  @Override
+  public void onStartAsync(final AsyncEvent event) {
+    // The listener is added after the request went asynchronous.
+  }
+
+  @Override
+  public void onTimeout(final AsyncEvent event) {
+    fail(
+        new WebApplicationException(
+            "document not hashed within " + TIMEOUT.toSeconds() + " seconds",
+            Response.Status.REQUEST_TIMEOUT));
+  }
+
+  @Override
+  public void onError(final AsyncEvent event) {
+    fail(event.getThrowable());
+  }
+
+  @Override
+  public void onComplete(final AsyncEvent event) {
+    release();
+  }
+
+  private void resume() {
+    try {
+      pump();
+    } catch (IOException | RuntimeException e) {
+      fail(e);
+    }
+  }
+
+  // Write the pending hashes, then read and hash the available input until either the output or
+  // the input is not ready. The container calls the listener again once it is ready.
+  private synchronized void pump() throws IOException {
+    while (!completed && flush()) {
+      if (allDataRead) {
+        finish();
+        return;
+      }
+      if (input.isFinished() || !input.isReady()) {
+        return;
+      }
+      final int n = input.read(buffer);
+      if (n > 0) {
+        inFlight.read(n);
+        feeder.feed(buffer, 0, n);
+        hash();
+      }
+    }
+  }
+
+  // Serialize the hashes of the events completed by the input, which also consumes the buffer.
+  private void hash() throws IOException {
+    for (HashResult result = feeder.next(); result != null; result = feeder.next()) {
+      inFlight.hashed();
+      final Map<String, String> hashes = result.toMap();
+      if (!hashes.isEmpty()) {
+        started = true;
+        json.writeStartObject();
+        for (final Map.Entry<String, String> hash : hashes.entrySet()) {
+          json.writeStringField(hash.getKey(), hash.getValue());
+        }
+        json.writeEndObject();
+      }
+    }
+    json.flush();
+  }
+
+  // Write the pending bytes, true if further output is possible.
+  private boolean flush() throws IOException {
+    if (!started || pending.size() == 0) {
+      return true;
+    }
+    if (output == null) {
+      resp.setContentType(MediaType.APPLICATION_JSON);
+      output = resp.getOutputStream();
+      output.setWriteListener(this);
+    }
+    if (!output.isReady()) {
+      return false;
+    }
+    pending.writeTo(output);
+    pending.reset();
+    return output.isReady();
+  }
+
+  private void finish() throws IOException {
+    if (!endOfInput) {
+      endOfInput = true;
+      feeder.endOfInput();
+      hash();
+      started = true;
+      json.writeEndArray();
+      json.flush();
+    }
+    if (flush()) {
+      complete();
+    }
+  }
+
+  // Errors after the first hash cannot change the response anymore, the response is incomplete.
+  private synchronized void fail(final Throwable t) {
+    if (completed) {
+      return;
+    }
+    if (output == null && !resp.isCommitted()) {
+      final WebApplicationException webApplicationException =
+          t instanceof WebApplicationException e ? e : new WebApplicationException(t);
+      servletSupport.writeException(webApplicationException, MediaType.APPLICATION_JSON, resp);
+    }
+    complete();
+  }
+
+  private void complete() {
+    release();
+    asyncContext.complete();
+  }
+
+  // Release the document once, also if the container completes the request, such as after the
+  // client disconnected.
+  private synchronized void release() {
+    if (completed) {
+      return;
+    }
+    completed = true;
+    inFlight.release();
+    try {
+      feeder.close();
+    } catch (IOException e) {
+      // The feeder reads no resource which could fail to close.
+    }
+  }
+}
@@ -16,17 +16,26 @@
 package io.openepcis.eventhash.generator.servlet;
 
 import io.openepcis.constants.CBVVersion;
-import io.openepcis.eventhash.DocumentWrapperSupport;
+import io.openepcis.eventhash.AdmissionController;
+import io.openepcis.eventhash.ContentEncoding;
 import io.openepcis.eventhash.EventHashGenerator;
+import io.openepcis.eventhash.EventHashMetrics;
+import io.openepcis.eventhash.JsonFormat;
+import io.openepcis.eventhash.exception.AdmissionException;
 import io.openepcis.model.rest.servlet.ServletSupport;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.NotSupportedException;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +43,125 @@ import org.apache.commons.lang3.StringUtils;
 
 public class EventHashGeneratorServlets {
   private static final String SHA_256 = "sha-256";
+  private static final EventHashMetrics METRICS = new EventHashMetrics();
+  private static final AdmissionController ADMISSION = AdmissionController.getDefault();
+
+  // Admit the document before its first byte is read and record the metrics of the document.
+  private static <T> Multi<T> observe(
+      final String endpoint,
+      final EventHashGenerator eventHashGenerator,
+      final String[] hashAlgorithms,
+      final InputStream document,
+      final EventHashMetrics.Hashing<T> hashing)
+      throws IOException {
+    return ADMISSION.admit(
+        document,
+        admitted ->
+            METRICS.observe(endpoint, eventHashGenerator, hashAlgorithms, admitted, hashing));
+  }
+
+  // Decompress the document of the request with its Content-Encoding while it is parsed.
+  private static InputStream document(final HttpServletRequest req) throws IOException {
+    final String contentEncoding = req.getHeader(HttpHeaders.CONTENT_ENCODING);
+    if (!ContentEncoding.isSupported(contentEncoding)) {
+      throw new NotSupportedException("unsupported content encoding: " + contentEncoding);
+    }
+    return ContentEncoding.decode(req.getInputStream(), contentEncoding);
+  }
+
+  // Create the generator of the request and add the requested hash algorithms to the parameters.
+  private static EventHashGenerator eventHashGenerator(
+      final HttpServletRequest req, final List<String> hashParameters) {
+    // Add provided CBV version else default to CBV 2.0.0
+    final String cbvVersion =
+        Optional.ofNullable(req.getParameter("cbvVersion"))
+            .orElse(CBVVersion.VERSION_2_0_0.getVersion());
+    final CBVVersion targetCbvVersion = CBVVersion.of(cbvVersion);
+
+    final EventHashGenerator eventHashGenerator = new EventHashGenerator(targetCbvVersion);
+
+    // If Pre-Hash string is requested then add the prehash string to the List
+    if (Boolean.parseBoolean(Optional.ofNullable(req.getParameter("prehash")).orElse("false"))) {
+      hashParameters.add("prehash");
+
+      // If user has requested for beautification for prehash string then add beautification.
+      if (Boolean.parseBoolean(
+          Optional.ofNullable(req.getParameter("beautifyPreHash")).orElse("false"))) {
+        eventHashGenerator.prehashJoin("\\n");
+      } else {
+        eventHashGenerator.prehashJoin("");
+      }
+    }
+
+    // If user has provided fields to ignore during hash generation then add them
+    final String ignoreFields = req.getParameter("ignoreFields");
+    if (!StringUtils.isBlank(ignoreFields)) {
+      eventHashGenerator.excludeFieldsInPreHash(ignoreFields);
+    }
+
+    // Add the Hash Algorithm type to the List.
+    final String hashAlgorithm = req.getParameter("hashAlgorithm");
+    hashParameters.add(hashAlgorithm != null && !hashAlgorithm.isEmpty() ? hashAlgorithm : SHA_256);
+    return eventHashGenerator;
+  }
+
+  // Hash the JSON document of the request without blocking, XML and compressed documents are not
+  // supported as there is no non-blocking XML parser or decompressor. The document is admitted
+  // before the request goes asynchronous.
+  private static void hashAsync(
+      final ServletSupport servletSupport,
+      final HttpServletRequest req,
+      final HttpServletResponse resp,
+      final boolean eventList)
+      throws IOException {
+    // List to store the parameters based on the user provided inputs.
+    final List<String> hashParameters = new ArrayList<>();
+    final EventHashGenerator eventHashGenerator = eventHashGenerator(req, hashParameters);
+
+    Optional<String> accept =
+        servletSupport.accept(List.of(MediaType.APPLICATION_JSON, MediaType.WILDCARD), req, resp);
+    if (accept.isEmpty()) {
+      return;
+    }
+    Optional<String> contentType =
+        servletSupport.contentType(List.of(MediaType.APPLICATION_JSON), accept.get(), req, resp);
+    if (contentType.isEmpty()) {
+      return;
+    }
+    // The non-blocking parser is fed with the raw bytes of the request, which are not decompressed.
+    if (ContentEncoding.isEncoded(req.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+      throw new NotSupportedException("compressed documents are not supported asynchronously");
+    }
+    final String[] hashAlgorithms = hashParameters.toArray(String[]::new);
+    final AdmissionController.InFlight inFlight = ADMISSION.admit();
+    try {
+      AsyncHashing.start(
+          req,
+          resp,
+          servletSupport,
+          eventList
+              ? eventHashGenerator.jsonEventListFeeder(hashAlgorithms)
+              : eventHashGenerator.jsonFeeder(hashAlgorithms),
+          inFlight);
+    } catch (IOException | RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  // Documents over the limits of the admission control are rejected with 503 Service Unavailable,
+  // the client retries after the given seconds, possibly with another instance.
+  private static void reject(
+      final ServletSupport servletSupport,
+      final AdmissionException e,
+      final HttpServletResponse resp) {
+    resp.setHeader(
+        HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+    servletSupport.writeException(
+        new WebApplicationException(e, Response.Status.SERVICE_UNAVAILABLE),
+        MediaType.APPLICATION_JSON,
+        resp);
+  }
 
   @WebServlet(
       name = "EventHashGeneratorServlets.EPCISDocument",
@@ -47,39 +175,7 @@ public class EventHashGeneratorServlets {
       try {
         // List to store the parameters based on the user provided inputs.
         final List<String> hashParameters = new ArrayList<>();
-
-        // Add provided CBV version else default to CBV 2.0.0
-        final String cbvVersion =
-            Optional.ofNullable(req.getParameter("cbvVersion"))
-                .orElse(CBVVersion.VERSION_2_0_0.getVersion());
-        final CBVVersion targetCbvVersion = CBVVersion.of(cbvVersion);
-
-        final EventHashGenerator eventHashGenerator = new EventHashGenerator(targetCbvVersion);
-
-        // If Pre-Hash string is requested then add the prehash string to the List
-        if (Boolean.parseBoolean(
-            Optional.ofNullable(req.getParameter("prehash")).orElse("false"))) {
-          hashParameters.add("prehash");
-
-          // If user has requested for beautification for prehash string then add beautification.
-          if (Boolean.parseBoolean(
-              Optional.ofNullable(req.getParameter("beautifyPreHash")).orElse("false"))) {
-            eventHashGenerator.prehashJoin("\\n");
-          } else {
-            eventHashGenerator.prehashJoin("");
-          }
-        }
-
-        // If user has provided fields to ignore during hash generation then add them
-        final String ignoreFields = req.getParameter("ignoreFields");
-        if (!StringUtils.isBlank(ignoreFields)) {
-          eventHashGenerator.excludeFieldsInPreHash(ignoreFields);
-        }
-
-        // Add the Hash Algorithm type to the List.
-        final String hashAlgorithm = req.getParameter("hashAlgorithm");
-        hashParameters.add(
-            hashAlgorithm != null && !hashAlgorithm.isEmpty() ? hashAlgorithm : SHA_256);
+        final EventHashGenerator eventHashGenerator = eventHashGenerator(req, hashParameters);
 
         Optional<String> accept =
             servletSupport.accept(
@@ -89,7 +185,11 @@ public class EventHashGeneratorServlets {
         }
         Optional<String> contentType =
             servletSupport.contentType(
-                List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML),
+                List.of(
+                    MediaType.APPLICATION_JSON,
+                    MediaType.APPLICATION_XML,
+                    JsonFormat.CBOR.mediaType(),
+                    JsonFormat.SMILE.mediaType()),
                 accept.get(),
                 req,
                 resp);
@@ -97,13 +197,21 @@ public class EventHashGeneratorServlets {
           return;
         }
         resp.setContentType(MediaType.APPLICATION_JSON);
+        eventHashGenerator.jsonFormat(JsonFormat.ofContentType(contentType.get()));
+        final String[] hashAlgorithms = hashParameters.toArray(String[]::new);
         servletSupport.writeJson(
             resp,
-            contentType.get().contains("application/xml")
-                ? eventHashGenerator.fromXml(
-                    req.getInputStream(), hashParameters.toArray(String[]::new))
-                : eventHashGenerator.fromJson(
-                    req.getInputStream(), hashParameters.toArray(String[]::new)));
+            observe(
+                "document",
+                eventHashGenerator,
+                hashAlgorithms,
+                document(req),
+                document ->
+                    contentType.get().contains("application/xml")
+                        ? eventHashGenerator.fromXml(document, hashAlgorithms)
+                        : eventHashGenerator.fromJson(document, hashAlgorithms)));
+      } catch (AdmissionException e) {
+        reject(servletSupport, e, resp);
       } catch (Exception e) {
         final WebApplicationException webApplicationException =
             WebApplicationException.class.isAssignableFrom(e.getClass())
@@ -120,46 +228,12 @@ public class EventHashGeneratorServlets {
   public static final class EPCISEvents extends HttpServlet {
     @Inject ServletSupport servletSupport;
 
-    @Inject DocumentWrapperSupport documentWrapperSupport;
-
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
       try {
         // List to store the parameters based on the user provided inputs.
         final List<String> hashParameters = new ArrayList<>();
-
-        // Add provided CBV version else default to CBV 2.0.0
-        final String cbvVersion =
-            Optional.ofNullable(req.getParameter("cbvVersion"))
-                .orElse(CBVVersion.VERSION_2_0_0.getVersion());
-        final CBVVersion targetCbvVersion = CBVVersion.of(cbvVersion);
-
-        final EventHashGenerator eventHashGenerator = new EventHashGenerator(targetCbvVersion);
-
-        // If Pre-Hash string is requested then add the prehash string to the List
-        if (Boolean.parseBoolean(
-            Optional.ofNullable(req.getParameter("prehash")).orElse("false"))) {
-          hashParameters.add("prehash");
-
-          // If user has requested for beautification for prehash string then add beautification.
-          if (Boolean.parseBoolean(
-              Optional.ofNullable(req.getParameter("beautifyPreHash")).orElse("false"))) {
-            eventHashGenerator.prehashJoin("\\n");
-          } else {
-            eventHashGenerator.prehashJoin("");
-          }
-        }
-
-        // If user has provided fields to ignore during hash generation then add them
-        final String ignoreFields = req.getParameter("ignoreFields");
-        if (!StringUtils.isBlank(ignoreFields)) {
-          eventHashGenerator.excludeFieldsInPreHash(ignoreFields);
-        }
-
-        // Add the Hash Algorithm type to the List.
-        final String hashAlgorithm = req.getParameter("hashAlgorithm");
-        hashParameters.add(
-            hashAlgorithm != null && !hashAlgorithm.isEmpty() ? hashAlgorithm : SHA_256);
+        final EventHashGenerator eventHashGenerator = eventHashGenerator(req, hashParameters);
 
         Optional<String> accept =
             servletSupport.accept(
@@ -169,7 +243,12 @@ public class EventHashGeneratorServlets {
         }
         Optional<String> contentType =
             servletSupport.contentType(
-                List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, MediaType.TEXT_XML),
+                List.of(
+                    MediaType.APPLICATION_JSON,
+                    MediaType.APPLICATION_XML,
+                    MediaType.TEXT_XML,
+                    JsonFormat.CBOR.mediaType(),
+                    JsonFormat.SMILE.mediaType()),
                 accept.get(),
                 req,
                 resp);
@@ -177,14 +256,67 @@ public class EventHashGeneratorServlets {
           return;
         }
         resp.setContentType(MediaType.APPLICATION_JSON);
+        eventHashGenerator.jsonFormat(JsonFormat.ofContentType(contentType.get()));
+        final String[] hashAlgorithms = hashParameters.toArray(String[]::new);
         servletSupport.writeJson(
             resp,
-            contentType.get().contains("application/xml")
-                ? eventHashGenerator.fromXml(
-                    req.getInputStream(), hashParameters.toArray(String[]::new))
-                : eventHashGenerator.fromJson(
-                    documentWrapperSupport.generateJsonDocumentWrapper(req.getInputStream()),
-                    hashParameters.toArray(String[]::new)));
+            observe(
+                "events",
+                eventHashGenerator,
+                hashAlgorithms,
+                document(req),
+                document ->
+                    contentType.get().contains("application/xml")
+                        ? eventHashGenerator.fromXml(document, hashAlgorithms)
+                        : eventHashGenerator.fromJsonEventList(document, hashAlgorithms)));
+      } catch (AdmissionException e) {
+        reject(servletSupport, e, resp);
+      } catch (Exception e) {
+        final WebApplicationException webApplicationException =
+            WebApplicationException.class.isAssignableFrom(e.getClass())
+                ? (WebApplicationException) e
+                : new WebApplicationException(e);
+        servletSupport.writeException(webApplicationException, MediaType.APPLICATION_JSON, resp);
+      }
+    }
+  }
+
+  @WebServlet(
+      name = "EventHashGeneratorServlets.AsyncEPCISDocument",
+      urlPatterns = "/api/generate/event-hash/async/document",
+      asyncSupported = true)
+  public static final class AsyncEPCISDocument extends HttpServlet {
+    @Inject ServletSupport servletSupport;
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+      try {
+        hashAsync(servletSupport, req, resp, false);
+      } catch (AdmissionException e) {
+        reject(servletSupport, e, resp);
+      } catch (Exception e) {
+        final WebApplicationException webApplicationException =
+            WebApplicationException.class.isAssignableFrom(e.getClass())
+                ? (WebApplicationException) e
+                : new WebApplicationException(e);
+        servletSupport.writeException(webApplicationException, MediaType.APPLICATION_JSON, resp);
+      }
+    }
+  }
+
+  @WebServlet(
+      name = "EventHashGeneratorServlets.AsyncEPCISEvents",
+      urlPatterns = "/api/generate/event-hash/async/events",
+      asyncSupported = true)
+  public static final class AsyncEPCISEvents extends HttpServlet {
+    @Inject ServletSupport servletSupport;
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+      try {
+        hashAsync(servletSupport, req, resp, true);
+      } catch (AdmissionException e) {
+        reject(servletSupport, e, resp);
       } catch (Exception e) {
         final WebApplicationException webApplicationException =
             WebApplicationException.class.isAssignableFrom(e.getClass())
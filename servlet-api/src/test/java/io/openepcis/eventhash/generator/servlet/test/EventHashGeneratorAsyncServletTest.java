@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.generator.servlet.test;
+
+import io.openepcis.eventhash.AdmissionController;
+import io.openepcis.eventhash.generator.servlet.EventHashGeneratorServlets;
+import io.openepcis.eventhash.workload.WorkloadGenerator;
+import io.openepcis.resources.util.Commons;
+import io.quarkus.test.common.http.TestHTTPEndpoint;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+// Test to ensure the asynchronous servlets respond the same hashes as the blocking servlets.
+@QuarkusTest
+public class EventHashGeneratorAsyncServletTest {
+
+  @TestHTTPEndpoint(EventHashGeneratorServlets.EPCISDocument.class)
+  @TestHTTPResource
+  URL epcisDocumentUrl;
+
+  @TestHTTPEndpoint(EventHashGeneratorServlets.EPCISEvents.class)
+  @TestHTTPResource
+  URL epcisEventsUrl;
+
+  @TestHTTPEndpoint(EventHashGeneratorServlets.AsyncEPCISDocument.class)
+  @TestHTTPResource
+  URL asyncDocumentUrl;
+
+  @TestHTTPEndpoint(EventHashGeneratorServlets.AsyncEPCISEvents.class)
+  @TestHTTPResource
+  URL asyncEventsUrl;
+
+  @Test
+  public void documentTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(5);
+    generator.events(500);
+    generator.extensions(2, 2);
+    final byte[] document = generator.toByteArray(WorkloadGenerator.Format.JSON);
+
+    final List<Map<String, String>> expected = hashes(epcisDocumentUrl, document);
+    Assertions.assertEquals(500, expected.size());
+    Assertions.assertEquals(expected, hashes(asyncDocumentUrl, document));
+  }
+
+  @Test
+  public void eventsTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(9);
+    generator.events(50);
+    final String document =
+        new String(generator.toByteArray(WorkloadGenerator.Format.JSON), StandardCharsets.UTF_8);
+    final byte[] eventList =
+        document
+            .substring(document.indexOf("\"eventList\"") + 12, document.lastIndexOf(']') + 1)
+            .getBytes(StandardCharsets.UTF_8);
+
+    final List<Map<String, String>> expected = hashes(epcisEventsUrl, eventList);
+    Assertions.assertEquals(50, expected.size());
+    Assertions.assertEquals(expected, hashes(asyncEventsUrl, eventList));
+  }
+
+  @Test
+  public void invalidDocumentTest() {
+    RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(ContentType.JSON)
+        .body("{\"type\":\"EPCISDocument\",\"epcisBody\":{\"eventList\":[{")
+        .post(asyncDocumentUrl)
+        .then()
+        .assertThat()
+        .statusCode(500);
+    RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(ContentType.JSON)
+        .body("{}")
+        .post(asyncEventsUrl)
+        .then()
+        .assertThat()
+        .statusCode(500);
+    Assertions.assertEquals(0, AdmissionController.getDefault().documents());
+  }
+
+  @Test
+  public void notSupportedTest() {
+    RestAssured.given()
+        .contentType(MediaType.APPLICATION_XML)
+        .body(Commons.getInputStream("2.0/EPCIS/XML/Capture/Documents/AggregationEvent.xml"))
+        .post(asyncDocumentUrl)
+        .then()
+        .assertThat()
+        .statusCode(415);
+
+    // The non-blocking parser is fed with the raw bytes, compressed documents are not supported.
+    RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .header("Content-Encoding", "gzip")
+        .body(new byte[] {0})
+        .post(asyncDocumentUrl)
+        .then()
+        .assertThat()
+        .statusCode(415);
+  }
+
+  @Test
+  public void admissionTest() {
+    final AdmissionController admission = AdmissionController.getDefault();
+    admission.maxDocuments(0);
+    admission.retryAfter(Duration.ofSeconds(3));
+    try {
+      RestAssured.given()
+          .contentType(MediaType.APPLICATION_JSON)
+          .accept(ContentType.JSON)
+          .body("[]")
+          .post(asyncEventsUrl)
+          .then()
+          .assertThat()
+          .statusCode(503)
+          .header("Retry-After", "3");
+    } finally {
+      admission.maxDocuments(Integer.MAX_VALUE);
+      admission.retryAfter(Duration.ofSeconds(1));
+    }
+    Assertions.assertEquals(0, admission.documents());
+  }
+
+  private static List<Map<String, String>> hashes(final URL url, final byte[] document) {
+    return RestAssured.given()
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(ContentType.JSON)
+        .queryParam("hashAlgorithm", "sha3-256")
+        .queryParam("prehash", "true")
+        .body(document)
+        .post(url)
+        .then()
+        .assertThat()
+        .statusCode(200)
+        .extract()
+        .jsonPath()
+        .getList("$");
+  }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.workload;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Writes the parts of an EPCIS document in JSON or XML. The WorkloadGenerator describes each event
+// once through these methods, so the JSON and the XML document of the same seed contain the same
+// events and result in the same hashes.
+abstract class DocumentWriter {
+
+  static final String CONTEXT = "https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld";
+
+  final StringBuilder out = new StringBuilder();
+
+  static DocumentWriter of(final WorkloadGenerator.Format format) {
+    return format == WorkloadGenerator.Format.XML
+        ? new Xml()
+        : new Json(format == WorkloadGenerator.Format.JSON_EVENT_LIST);
+  }
+
+  // Remove and return the text written so far.
+  String take() {
+    final String s = out.toString();
+    out.setLength(0);
+    return s;
+  }
+
+  abstract void header(Map<String, String> namespaces);
+
+  abstract void footer();
+
+  abstract void startEvent(String type);
+
+  abstract void endEvent(String type);
+
+  abstract void field(String name, String value);
+
+  abstract void startObject(String name);
+
+  abstract void endObject(String name);
+
+  // List of values or objects, wrapped determines whether XML has an element around the items.
+  abstract void startList(String name, boolean wrapped);
+
+  abstract void endList(String name, boolean wrapped);
+
+  abstract void listValue(String itemName, String value);
+
+  abstract void listTypedValue(String itemName, String type, String value);
+
+  abstract void startListObject(String itemName);
+
+  abstract void endListObject(String itemName);
+
+  // Object of simple values, written as XML element with attributes.
+  abstract void attributes(String name, Object... keyValues);
+
+  abstract void listAttributes(String itemName, Object... keyValues);
+
+  // Term of the GS1 vocabulary, which is prefixed in XML attributes.
+  abstract String vocabulary(String term);
+
+  private static final class Json extends DocumentWriter {
+
+    private final boolean eventList;
+    private String context;
+    private boolean first = true;
+
+    private Json(final boolean eventList) {
+      this.eventList = eventList;
+    }
+
+    @Override
+    void header(final Map<String, String> namespaces) {
+      context =
+          "\"@context\":[\""
+              + CONTEXT
+              + "\",{"
+              + namespaces.entrySet().stream()
+                  .map(e -> quote(e.getKey()) + ":" + quote(e.getValue()))
+                  .collect(Collectors.joining(","))
+              + "}]";
+      if (eventList) {
+        out.append('[');
+      } else {
+        out.append('{')
+            .append(context)
+            .append(",\"type\":\"EPCISDocument\",\"schemaVersion\":\"2.0\",")
+            .append("\"creationDate\":\"2024-01-01T00:00:00Z\",\"epcisBody\":{\"eventList\":[");
+      }
+      first = true;
+    }
+
+    @Override
+    void footer() {
+      out.append(eventList ? "\n]\n" : "\n]}}\n");
+    }
+
+    @Override
+    void startEvent(final String type) {
+      member();
+      out.append("\n{");
+      if (eventList) {
+        out.append(context).append(',');
+      }
+      out.append("\"type\":").append(quote(type));
+    }
+
+    @Override
+    void endEvent(final String type) {
+      out.append('}');
+      first = false;
+    }
+
+    @Override
+    void field(final String name, final String value) {
+      member();
+      out.append(quote(name)).append(':').append(quote(value));
+    }
+
+    @Override
+    void startObject(final String name) {
+      member();
+      out.append(quote(name)).append(":{");
+      first = true;
+    }
+
+    @Override
+    void endObject(final String name) {
+      out.append('}');
+      first = false;
+    }
+
+    @Override
+    void startList(final String name, final boolean wrapped) {
+      member();
+      out.append(quote(name)).append(":[");
+      first = true;
+    }
+
+    @Override
+    void endList(final String name, final boolean wrapped) {
+      out.append(']');
+      first = false;
+    }
+
+    @Override
+    void listValue(final String itemName, final String value) {
+      member();
+      out.append(quote(value));
+    }
+
+    @Override
+    void listTypedValue(final String itemName, final String type, final String value) {
+      member();
+      out.append("{\"type\":")
+          .append(quote(type))
+          .append(',')
+          .append(quote(itemName))
+          .append(':')
+          .append(quote(value))
+          .append('}');
+    }
+
+    @Override
+    void startListObject(final String itemName) {
+      member();
+      out.append('{');
+      first = true;
+    }
+
+    @Override
+    void endListObject(final String itemName) {
+      out.append('}');
+      first = false;
+    }
+
+    @Override
+    void attributes(final String name, final Object... keyValues) {
+      member();
+      out.append(quote(name)).append(':');
+      object(keyValues);
+    }
+
+    @Override
+    void listAttributes(final String itemName, final Object... keyValues) {
+      member();
+      object(keyValues);
+    }
+
+    @Override
+    String vocabulary(final String term) {
+      return term;
+    }
+
+    private void object(final Object... keyValues) {
+      out.append('{');
+      for (int i = 0; i < keyValues.length; i += 2) {
+        if (i > 0) {
+          out.append(',');
+        }
+        out.append(quote(keyValues[i].toString())).append(':');
+        if (keyValues[i + 1] instanceof Number) {
+          out.append(keyValues[i + 1]);
+        } else {
+          out.append(quote(keyValues[i + 1].toString()));
+        }
+      }
+      out.append('}');
+    }
+
+    // Separate the members of objects and arrays.
+    private void member() {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+    }
+
+    // The generated names and values contain no characters which need to be escaped.
+    private static String quote(final String s) {
+      return '"' + s + '"';
+    }
+  }
+
+  private static final class Xml extends DocumentWriter {
+
+    @Override
+    void header(final Map<String, String> namespaces) {
+      out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+          .append("<epcis:EPCISDocument xmlns:epcis=\"urn:epcglobal:epcis:xsd:2\"")
+          .append(" xmlns:gs1=\"https://gs1.org/voc/\"");
+      namespaces.forEach(
+          (prefix, uri) ->
+              out.append(" xmlns:").append(prefix).append("=\"").append(uri).append('"'));
+      out.append(" schemaVersion=\"2.0\" creationDate=\"2024-01-01T00:00:00Z\">\n")
+          .append("<EPCISBody>\n<EventList>");
+    }
+
+    @Override
+    void footer() {
+      out.append("\n</EventList>\n</EPCISBody>\n</epcis:EPCISDocument>\n");
+    }
+
+    @Override
+    void startEvent(final String type) {
+      out.append("\n<").append(type).append('>');
+    }
+
+    @Override
+    void endEvent(final String type) {
+      end(type);
+    }
+
+    @Override
+    void field(final String name, final String value) {
+      out.append('<').append(name).append('>').append(value);
+      end(name);
+    }
+
+    @Override
+    void startObject(final String name) {
+      out.append('<').append(name).append('>');
+    }
+
+    @Override
+    void endObject(final String name) {
+      end(name);
+    }
+
+    @Override
+    void startList(final String name, final boolean wrapped) {
+      if (wrapped) {
+        startObject(name);
+      }
+    }
+
+    @Override
+    void endList(final String name, final boolean wrapped) {
+      if (wrapped) {
+        end(name);
+      }
+    }
+
+    @Override
+    void listValue(final String itemName, final String value) {
+      field(itemName, value);
+    }
+
+    @Override
+    void listTypedValue(final String itemName, final String type, final String value) {
+      out.append('<').append(itemName).append(" type=\"").append(type).append("\">").append(value);
+      end(itemName);
+    }
+
+    @Override
+    void startListObject(final String itemName) {
+      startObject(itemName);
+    }
+
+    @Override
+    void endListObject(final String itemName) {
+      end(itemName);
+    }
+
+    @Override
+    void attributes(final String name, final Object... keyValues) {
+      out.append('<').append(name);
+      for (int i = 0; i < keyValues.length; i += 2) {
+        out.append(' ').append(keyValues[i]).append("=\"").append(keyValues[i + 1]).append('"');
+      }
+      out.append("/>");
+    }
+
+    @Override
+    void listAttributes(final String itemName, final Object... keyValues) {
+      attributes(itemName, keyValues);
+    }
+
+    @Override
+    String vocabulary(final String term) {
+      return "gs1:" + term;
+    }
+
+    private void end(final String name) {
+      out.append("</").append(name).append('>');
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.workload;
+
+/** Types of the EPCIS events generated by the {@link WorkloadGenerator}. */
+public enum EventType {
+  OBJECT_EVENT("ObjectEvent"),
+  AGGREGATION_EVENT("AggregationEvent"),
+  TRANSACTION_EVENT("TransactionEvent"),
+  TRANSFORMATION_EVENT("TransformationEvent"),
+  ASSOCIATION_EVENT("AssociationEvent");
+
+  private final String typeName;
+
+  EventType(final String typeName) {
+    this.typeName = typeName;
+  }
+
+  /**
+   * @return name of the event type in JSON and XML documents
+   */
+  public String typeName() {
+    return typeName;
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.workload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of synthetic EPCIS documents of any size and shape, for benchmarks, load
+ * and scaling tests. The events are generated while the document is written or read, so documents
+ * of several GB are produced without holding them in memory or on disk.
+ *
+ * <p>The same seed and settings always produce the same document, and the JSON and the XML document
+ * of a seed contain the same events, i.e. result in the same hashes. The shape of the events is
+ * controlled by the mix of event types, the number of EPCs per list, the number of sensor elements
+ * and reports, and the number of namespaces and depth of the user extensions.
+ */
+public class WorkloadGenerator {
+
+  /** Formats of the generated documents. */
+  public enum Format {
+    /** JSON EPCISDocument. */
+    JSON,
+    /** XML EPCISDocument. */
+    XML,
+    /** JSON array of events, each with its own @context, as accepted by the events endpoints. */
+    JSON_EVENT_LIST
+  }
+
+  private static final long EPOCH_SECOND = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+
+  private static final String[] ITEM_REFERENCES = {"011111", "022222", "033333", "044444"};
+
+  private static final String[] ACTIONS = {"ADD", "OBSERVE", "DELETE"};
+
+  private static final String[] BIZ_STEPS = {
+    "shipping", "receiving", "packing", "inspecting", "storing", "commissioning"
+  };
+
+  private static final String[] DISPOSITIONS = {
+    "in_transit", "in_progress", "active", "sellable_accessible", "container_closed"
+  };
+
+  private static final String[][] SENSOR_TYPES = {
+    {"Temperature", "CEL"}, {"RelativeHumidity", "A93"}, {"Illuminance", "LUX"}
+  };
+
+  private final long seed;
+  private long events = 1;
+  private Map<EventType, Integer> eventMix = new EnumMap<>(Map.of(EventType.OBJECT_EVENT, 1));
+  private int epcs = 3;
+  private int sensorElements;
+  private int sensorReports;
+  private int namespaces = 1;
+  private int extensionDepth;
+
+  /**
+   * @param seed seed of the random values, documents of the same seed and settings are identical
+   */
+  public WorkloadGenerator(final long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Method used to define the number of events of the document.
+   *
+   * @param events number of events, default 1
+   */
+  public void events(final long events) {
+    this.events = requireNotNegative(events, "events");
+  }
+
+  /**
+   * Method used to define the mix of event types. Each event type is chosen with a probability
+   * proportional to its weight.
+   *
+   * @param weights weight of each event type, default only ObjectEvents
+   */
+  public void eventMix(final Map<EventType, Integer> weights) {
+    if (weights.values().stream().anyMatch(w -> w < 0)
+        || weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("eventMix requires positive weights: " + weights);
+    }
+    this.eventMix = Collections.unmodifiableMap(new EnumMap<>(weights));
+  }
+
+  /**
+   * Method used to define the number of EPCs of the epcList, childEPCs, inputEPCList and
+   * outputEPCList of each event.
+   *
+   * @param epcs number of EPCs per list, default 3
+   */
+  public void epcs(final int epcs) {
+    this.epcs = (int) requireNotNegative(epcs, "epcs");
+  }
+
+  /**
+   * Method used to define the number of sensor elements of each ObjectEvent.
+   *
+   * @param sensorElements number of sensor elements, default 0
+   * @param sensorReports number of sensor reports per sensor element
+   */
+  public void sensors(final int sensorElements, final int sensorReports) {
+    this.sensorElements = (int) requireNotNegative(sensorElements, "sensorElements");
+    this.sensorReports = (int) requireNotNegative(sensorReports, "sensorReports");
+  }
+
+  /**
+   * Method used to define the user extensions of each event. Every namespace contributes one
+   * extension element, nested to the given depth.
+   *
+   * @param namespaces number of namespaces declared in the document, default 1
+   * @param depth depth of the extension element of each namespace, default 0 for no extensions
+   */
+  public void extensions(final int namespaces, final int depth) {
+    if (namespaces < 1) {
+      throw new IllegalArgumentException("at least one namespace required: " + namespaces);
+    }
+    this.namespaces = namespaces;
+    this.extensionDepth = (int) requireNotNegative(depth, "depth");
+  }
+
+  /**
+   * @return prefixes and URIs of the namespaces declared in the documents
+   */
+  public Map<String, String> namespaces() {
+    final Map<String, String> map = new LinkedHashMap<>();
+    for (int n = 0; n < namespaces; n++) {
+      map.put("ex" + n, "https://ns.example.com/epcis/" + n + "/");
+    }
+    return map;
+  }
+
+  /**
+   * Write the document to the output stream, which is not closed.
+   *
+   * @param format format of the document
+   * @param out output stream
+   * @throws IOException if writing fails
+   */
+  public void writeTo(final Format format, final OutputStream out) throws IOException {
+    final Chunks chunks = new Chunks(format);
+    while (chunks.hasNext()) {
+      out.write(chunks.next());
+    }
+  }
+
+  /**
+   * @param format format of the document
+   * @return input stream generating the document while it is read
+   */
+  public InputStream inputStream(final Format format) {
+    return new ChunkInputStream(new Chunks(format));
+  }
+
+  /**
+   * @param format format of the document
+   * @return the complete document, for small documents only
+   */
+  public byte[] toByteArray(final Format format) {
+    try (InputStream in = inputStream(format)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long requireNotNegative(final long value, final String name) {
+    if (value < 0) {
+      throw new IllegalArgumentException(name + " must not be negative: " + value);
+    }
+    return value;
+  }
+
+  // Header, one chunk per event and footer of a document, generated on demand.
+  private final class Chunks implements Iterator<byte[]> {
+
+    private final DocumentWriter writer;
+    private final SplittableRandom random = new SplittableRandom(seed);
+    private final EventType[] types;
+    private final int[] cumulativeWeights;
+    private long event = -1;
+
+    private Chunks(final Format format) {
+      this.writer = DocumentWriter.of(format);
+      this.types = eventMix.keySet().toArray(EventType[]::new);
+      this.cumulativeWeights = new int[types.length];
+      int sum = 0;
+      for (int i = 0; i < types.length; i++) {
+        sum += eventMix.get(types[i]);
+        cumulativeWeights[i] = sum;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return event <= events;
+    }
+
+    @Override
+    public byte[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (event == -1) {
+        writer.header(namespaces());
+      } else if (event < events) {
+        event(event);
+      } else {
+        writer.footer();
+      }
+      event++;
+      return writer.take().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void event(final long index) {
+      final EventType type = type();
+      final DocumentWriter w = writer;
+      w.startEvent(type.typeName());
+      w.field("eventTime", Instant.ofEpochSecond(EPOCH_SECOND + index).toString());
+      w.field("eventTimeZoneOffset", "+01:00");
+      switch (type) {
+        case OBJECT_EVENT -> {
+          epcList("epcList", index);
+          w.field("action", pick(ACTIONS));
+        }
+        case AGGREGATION_EVENT -> {
+          w.field("parentID", "urn:epc:id:sscc:4012345." + String.format("%010d", index));
+          epcList("childEPCs", index);
+          w.field("action", pick(ACTIONS));
+        }
+        case TRANSACTION_EVENT -> {
+          w.startList("bizTransactionList", true);
+          w.listTypedValue(
+              "bizTransaction", "po", "urn:epcglobal:cbv:bt:4012345000009:" + random.nextInt(1000));
+          w.endList("bizTransactionList", true);
+          epcList("epcList", index);
+          w.field("action", pick(ACTIONS));
+        }
+        case TRANSFORMATION_EVENT -> {
+          epcList("inputEPCList", index);
+          epcList("outputEPCList", index + events);
+        }
+        case ASSOCIATION_EVENT -> {
+          w.field("parentID", "urn:epc:id:giai:4000001." + index);
+          epcList("childEPCs", index);
+          w.field("action", pick(ACTIONS));
+        }
+      }
+      w.field("bizStep", pick(BIZ_STEPS));
+      w.field("disposition", pick(DISPOSITIONS));
+      w.startObject("readPoint");
+      w.field("id", "urn:epc:id:sgln:4012345.00001." + random.nextInt(100));
+      w.endObject("readPoint");
+      w.startObject("bizLocation");
+      w.field("id", "urn:epc:id:sgln:4012345.00002." + random.nextInt(10));
+      w.endObject("bizLocation");
+      if (type == EventType.OBJECT_EVENT && sensorElements > 0) {
+        sensorElementList(index);
+      }
+      for (int n = 0; n < namespaces && extensionDepth > 0; n++) {
+        extension("ex" + n);
+      }
+      w.endEvent(type.typeName());
+    }
+
+    private void epcList(final String name, final long index) {
+      writer.startList(name, true);
+      for (int i = 0; i < epcs; i++) {
+        writer.listValue(
+            "epc", "urn:epc:id:sgtin:4012345." + pick(ITEM_REFERENCES) + "." + (index * epcs + i));
+      }
+      writer.endList(name, true);
+    }
+
+    private void sensorElementList(final long index) {
+      final String time = Instant.ofEpochSecond(EPOCH_SECOND + index).toString();
+      writer.startList("sensorElementList", true);
+      for (int e = 0; e < sensorElements; e++) {
+        writer.startListObject("sensorElement");
+        writer.attributes(
+            "sensorMetadata",
+            "time",
+            time,
+            "deviceID",
+            "urn:epc:id:giai:4000001." + e,
+            "deviceMetadata",
+            "https://id.gs1.org/giai/4000001111");
+        writer.startList("sensorReport", false);
+        for (int r = 0; r < sensorReports; r++) {
+          final String[] sensorType = SENSOR_TYPES[random.nextInt(SENSOR_TYPES.length)];
+          writer.listAttributes(
+              "sensorReport",
+              "type",
+              writer.vocabulary(sensorType[0]),
+              "value",
+              BigDecimal.valueOf(random.nextInt(1000), 1),
+              "uom",
+              sensorType[1]);
+        }
+        writer.endList("sensorReport", false);
+        writer.endListObject("sensorElement");
+      }
+      writer.endList("sensorElementList", true);
+    }
+
+    // Nested without recursion, so deep extensions do not depend on the stack size.
+    private void extension(final String prefix) {
+      writer.startObject(prefix + ":data");
+      for (int level = 0; level < extensionDepth; level++) {
+        writer.field(prefix + ":value", Integer.toString(random.nextInt(1_000_000)));
+        if (level < extensionDepth - 1) {
+          writer.startObject(prefix + ":level");
+        }
+      }
+      for (int level = 1; level < extensionDepth; level++) {
+        writer.endObject(prefix + ":level");
+      }
+      writer.endObject(prefix + ":data");
+    }
+
+    private EventType type() {
+      if (types.length == 1) {
+        return types[0];
+      }
+      final int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+      int i = 0;
+      while (r >= cumulativeWeights[i]) {
+        i++;
+      }
+      return types[i];
+    }
+
+    private String pick(final String[] values) {
+      return values[random.nextInt(values.length)];
+    }
+  }
+
+  private static final class ChunkInputStream extends InputStream {
+
+    private final Chunks chunks;
+    private byte[] chunk = new byte[0];
+    private int position;
+
+    private ChunkInputStream(final Chunks chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    public int read() {
+      final byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int count = 0;
+      while (count < len && (position < chunk.length || nextChunk())) {
+        final int n = Math.min(len - count, chunk.length - position);
+        System.arraycopy(chunk, position, b, off + count, n);
+        position += n;
+        count += n;
+      }
+      return count == 0 ? -1 : count;
+    }
+
+    private boolean nextChunk() {
+      if (!chunks.hasNext()) {
+        return false;
+      }
+      chunk = chunks.next();
+      position = 0;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.eventhash.workload;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.jupiter.api.Test;
+
+public class WorkloadGeneratorTest {
+
+  private static WorkloadGenerator generator(final long seed) {
+    final WorkloadGenerator generator = new WorkloadGenerator(seed);
+    generator.events(100);
+    generator.eventMix(
+        Map.of(
+            EventType.OBJECT_EVENT, 4,
+            EventType.AGGREGATION_EVENT, 1,
+            EventType.TRANSACTION_EVENT, 1,
+            EventType.TRANSFORMATION_EVENT, 1,
+            EventType.ASSOCIATION_EVENT, 1));
+    generator.epcs(5);
+    generator.sensors(2, 3);
+    generator.extensions(3, 4);
+    return generator;
+  }
+
+  @Test
+  public void deterministicTest() throws IOException {
+    for (WorkloadGenerator.Format format : WorkloadGenerator.Format.values()) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      generator(42).writeTo(format, out);
+      assertArrayEquals(out.toByteArray(), generator(42).toByteArray(format));
+      assertFalse(
+          Arrays.equals(out.toByteArray(), generator(43).toByteArray(format)),
+          "different seeds generate different documents");
+    }
+  }
+
+  @Test
+  public void jsonTest() throws IOException {
+    assertEquals(100, jsonEvents(WorkloadGenerator.Format.JSON, 2));
+    assertEquals(100, jsonEvents(WorkloadGenerator.Format.JSON_EVENT_LIST, 0));
+  }
+
+  @Test
+  public void xmlTest() throws Exception {
+    final XMLStreamReader reader =
+        XMLInputFactory.newInstance()
+            .createXMLStreamReader(generator(42).inputStream(WorkloadGenerator.Format.XML));
+    int events = 0;
+    int depth = 0;
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT -> {
+          if (depth++ == 3) {
+            assertTrue(reader.getLocalName().endsWith("Event"), reader.getLocalName());
+            events++;
+          }
+        }
+        case XMLStreamConstants.END_ELEMENT -> depth--;
+        default -> {}
+      }
+    }
+    assertEquals(100, events);
+  }
+
+  @Test
+  public void deepExtensionTest() throws IOException {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    generator.extensions(1, 900);
+    try (InputStream in = generator.inputStream(WorkloadGenerator.Format.XML)) {
+      final String xml = new String(in.readAllBytes());
+      assertEquals(899, xml.split("<ex0:level>", -1).length - 1);
+    }
+  }
+
+  @Test
+  public void invalidSettingsTest() {
+    final WorkloadGenerator generator = new WorkloadGenerator(0);
+    assertThrows(IllegalArgumentException.class, () -> generator.events(-1));
+    assertThrows(IllegalArgumentException.class, () -> generator.extensions(0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> generator.eventMix(Map.of(EventType.OBJECT_EVENT, 0)));
+  }
+
+  // Count the events of a JSON document, which are the objects at the given depth of nesting.
+  private static int jsonEvents(final WorkloadGenerator.Format format, final int eventListDepth)
+      throws IOException {
+    int events = 0;
+    int depth = 0;
+    try (JsonParser parser = new JsonFactory().createParser(generator(42).inputStream(format))) {
+      for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+        if (token.isStructStart()) {
+          if (token == JsonToken.START_OBJECT && depth == eventListDepth + 1) {
+            events++;
+          }
+          depth++;
+        } else if (token.isStructEnd()) {
+          depth--;
+        }
+      }
+    }
+    return events;
+  }
+}